@@ -0,0 +1,65 @@
+package com.zjgsu.szw.coursecloud.catalog.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 目录版本（ETag）配置类
+ * 版本号来自 course_change_log，各实例通过轮询同步其他实例的变更
+ */
+@Configuration
+@ConfigurationProperties(prefix = "catalog.version")
+public class CatalogVersionProperties {
+
+    /**
+     * 轮询变更日志的间隔（毫秒），即其他实例写入后本实例 ETag 的最大滞后
+     */
+    private long pollIntervalMs = 200;
+
+    /**
+     * 自增ID空洞的等待时间（毫秒），超过后视为回滚不再补读
+     */
+    private long gapTimeoutMs = 10000;
+
+    /**
+     * 变更日志保留时间（分钟），每门课程的最新一行始终保留
+     */
+    private long retentionMinutes = 60;
+
+    /**
+     * 清理变更日志的间隔（毫秒）
+     */
+    private long pruneIntervalMs = 60000;
+
+    public long getPollIntervalMs() {
+        return pollIntervalMs;
+    }
+
+    public void setPollIntervalMs(long pollIntervalMs) {
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    public long getGapTimeoutMs() {
+        return gapTimeoutMs;
+    }
+
+    public void setGapTimeoutMs(long gapTimeoutMs) {
+        this.gapTimeoutMs = gapTimeoutMs;
+    }
+
+    public long getRetentionMinutes() {
+        return retentionMinutes;
+    }
+
+    public void setRetentionMinutes(long retentionMinutes) {
+        this.retentionMinutes = retentionMinutes;
+    }
+
+    public long getPruneIntervalMs() {
+        return pruneIntervalMs;
+    }
+
+    public void setPruneIntervalMs(long pruneIntervalMs) {
+        this.pruneIntervalMs = pruneIntervalMs;
+    }
+}
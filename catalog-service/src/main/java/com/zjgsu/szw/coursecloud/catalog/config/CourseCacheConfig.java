@@ -0,0 +1,60 @@
+package com.zjgsu.szw.coursecloud.catalog.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.zjgsu.szw.coursecloud.catalog.model.Course;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate 二级缓存配置类
+ * 区域缓存由 Caffeine 的 JCache 实现提供，按 CourseCacheProperties 设置容量和过期时间，
+ * 缓存按引用存储（Hibernate 缓存的是拆解后的不可变状态，无需序列化拷贝）
+ */
+@Configuration
+public class CourseCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager courseCacheManager(CourseCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+        for (String region : List.of(Course.CACHE_REGION, Course.NATURAL_ID_CACHE_REGION)) {
+            if (cacheManager.getCache(region) == null) {
+                cacheManager.createCache(region, regionConfiguration(properties));
+            }
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer courseCacheHibernateProperties(CourseCacheProperties properties,
+                                                                        CacheManager courseCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, properties.isEnabled());
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, properties.isEnabled());
+            if (properties.isEnabled()) {
+                hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                hibernateProperties.put(ConfigSettings.CACHE_MANAGER, courseCacheManager);
+                hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "create");
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(CourseCacheProperties properties) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(properties.getMaxEntries()));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(properties.getTtlSeconds())));
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,52 @@
+package com.zjgsu.szw.coursecloud.catalog.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 课程二级缓存配置类
+ * Course 实体和课程代码（自然ID）缓存在每个实例本地，其他实例的修改通过变更日志轮询失效
+ */
+@Configuration
+@ConfigurationProperties(prefix = "catalog.course-cache")
+public class CourseCacheProperties {
+
+    /**
+     * 是否开启 Hibernate 二级缓存
+     */
+    private boolean enabled = true;
+
+    /**
+     * 实体缓存和自然ID缓存各自的最大条目数
+     */
+    private long maxEntries = 20000;
+
+    /**
+     * 写入后过期时间（秒），兜底失效通知与并发加载交错时回填的旧数据
+     */
+    private long ttlSeconds = 300;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+}
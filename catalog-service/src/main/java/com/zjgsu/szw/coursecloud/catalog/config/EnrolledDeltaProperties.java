@@ -0,0 +1,40 @@
+package com.zjgsu.szw.coursecloud.catalog.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 批量调整已选人数与占座的去重配置类
+ * 调用方携带 batchId 时按批次去重，已生效的批次登记在 enrolled_delta_batches 表中；
+ * 携带 reservationId 的占座结果登记在 seat_reservations 表中，两者按同一保留时间清理
+ */
+@Configuration
+@ConfigurationProperties(prefix = "catalog.enrolled-delta")
+public class EnrolledDeltaProperties {
+
+    /**
+     * 已生效批次和占座记录的保留时间（小时），需长于调用方重发同一批次或对账占座的最长间隔
+     */
+    private long batchRetentionHours = 168;
+
+    /**
+     * 清理已生效批次和占座记录的间隔（毫秒）
+     */
+    private long pruneIntervalMs = 3600000;
+
+    public long getBatchRetentionHours() {
+        return batchRetentionHours;
+    }
+
+    public void setBatchRetentionHours(long batchRetentionHours) {
+        this.batchRetentionHours = batchRetentionHours;
+    }
+
+    public long getPruneIntervalMs() {
+        return pruneIntervalMs;
+    }
+
+    public void setPruneIntervalMs(long pruneIntervalMs) {
+        this.pruneIntervalMs = pruneIntervalMs;
+    }
+}
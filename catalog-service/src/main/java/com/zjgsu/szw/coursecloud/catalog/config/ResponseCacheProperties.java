@@ -0,0 +1,52 @@
+package com.zjgsu.szw.coursecloud.catalog.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 课程响应字节缓存配置类
+ * 课程列表和单门课程的响应 JSON 序列化一次后按目录版本缓存字节（以及 gzip 压缩后的字节）
+ */
+@Configuration
+@ConfigurationProperties(prefix = "catalog.response-cache")
+public class ResponseCacheProperties {
+
+    /**
+     * 是否开启响应字节缓存（关闭时每次请求重新序列化，也不压缩）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 单门课程响应缓存的最大总字节数（原始 JSON 与 gzip 之和，课程列表不计入）
+     */
+    private long maxBytes = 64L * 1024 * 1024;
+
+    /**
+     * 响应不小于该字节数时额外保存 gzip 版本
+     */
+    private int gzipMinBytes = 1024;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public int getGzipMinBytes() {
+        return gzipMinBytes;
+    }
+
+    public void setGzipMinBytes(int gzipMinBytes) {
+        this.gzipMinBytes = gzipMinBytes;
+    }
+}
@@ -0,0 +1,91 @@
+package com.zjgsu.szw.coursecloud.catalog.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 座位账本配置类
+ * 开启后课程余量在内存中维护，并周期性批量回写数据库；同一时间只允许一个持有租约的实例开启
+ */
+@Configuration
+@ConfigurationProperties(prefix = "catalog.seat-ledger")
+public class SeatLedgerProperties {
+
+    /**
+     * 是否开启座位账本模式（默认关闭，使用数据库条件更新）
+     */
+    private boolean enabled = false;
+
+    /**
+     * 回写数据库的间隔（毫秒）
+     */
+    private long flushIntervalMs = 200;
+
+    /**
+     * 启动恢复时等待账本就绪的最长时间（毫秒）
+     */
+    private long readyTimeoutMs = 10000;
+
+    /**
+     * 单写者租约的有效期（毫秒），持有者失联超过该时间后其他实例才能接管
+     */
+    private long leaseTtlMs = 15000;
+
+    /**
+     * 续约间隔（毫秒），应明显小于租约有效期
+     */
+    private long leaseRenewIntervalMs = 5000;
+
+    /**
+     * 恢复时查询活跃选课人数的地址（通过负载均衡的RestTemplate调用）
+     */
+    private String enrollmentCountsUrl = "http://enrollment-service/api/enrollments/stats/active-counts";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public long getReadyTimeoutMs() {
+        return readyTimeoutMs;
+    }
+
+    public void setReadyTimeoutMs(long readyTimeoutMs) {
+        this.readyTimeoutMs = readyTimeoutMs;
+    }
+
+    public long getLeaseTtlMs() {
+        return leaseTtlMs;
+    }
+
+    public void setLeaseTtlMs(long leaseTtlMs) {
+        this.leaseTtlMs = leaseTtlMs;
+    }
+
+    public long getLeaseRenewIntervalMs() {
+        return leaseRenewIntervalMs;
+    }
+
+    public void setLeaseRenewIntervalMs(long leaseRenewIntervalMs) {
+        this.leaseRenewIntervalMs = leaseRenewIntervalMs;
+    }
+
+    public String getEnrollmentCountsUrl() {
+        return enrollmentCountsUrl;
+    }
+
+    public void setEnrollmentCountsUrl(String enrollmentCountsUrl) {
+        this.enrollmentCountsUrl = enrollmentCountsUrl;
+    }
+}
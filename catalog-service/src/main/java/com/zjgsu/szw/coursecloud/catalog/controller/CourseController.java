@@ -1,11 +1,29 @@
 package com.zjgsu.szw.coursecloud.catalog.controller;
 
 import com.zjgsu.szw.coursecloud.catalog.common.ApiResponse;
+import com.zjgsu.szw.coursecloud.catalog.dto.AvailableCourseResult;
+import com.zjgsu.szw.coursecloud.catalog.dto.CourseFacetResult;
+import com.zjgsu.szw.coursecloud.catalog.dto.CourseSearchResult;
+import com.zjgsu.szw.coursecloud.catalog.dto.CourseSlotResult;
+import com.zjgsu.szw.coursecloud.catalog.dto.CursorPage;
+import com.zjgsu.szw.coursecloud.catalog.dto.EnrolledDeltaResult;
+import com.zjgsu.szw.coursecloud.catalog.dto.SeatReservation;
 import com.zjgsu.szw.coursecloud.catalog.exception.ResourceNotFoundException;
 import com.zjgsu.szw.coursecloud.catalog.model.Course;
+import com.zjgsu.szw.coursecloud.catalog.service.AvailableSeatIndex;
+import com.zjgsu.szw.coursecloud.catalog.service.CatalogVersion;
+import com.zjgsu.szw.coursecloud.catalog.service.CourseCacheInvalidator;
+import com.zjgsu.szw.coursecloud.catalog.service.CourseFacetIndex;
+import com.zjgsu.szw.coursecloud.catalog.service.CourseIndexLoader;
+import com.zjgsu.szw.coursecloud.catalog.service.CourseResponseCache;
+import com.zjgsu.szw.coursecloud.catalog.service.CourseSearchIndex;
 import com.zjgsu.szw.coursecloud.catalog.service.CourseService;
+import com.zjgsu.szw.coursecloud.catalog.service.CourseSlotIndex;
+import com.zjgsu.szw.coursecloud.catalog.service.SeatLedger;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -23,22 +41,210 @@ import java.util.Map;
 public class CourseController {
 
     private final CourseService courseService;
+    private final SeatLedger seatLedger;
+    private final CatalogVersion catalogVersion;
+    private final CourseSearchIndex courseSearchIndex;
+    private final CourseSlotIndex courseSlotIndex;
+    private final AvailableSeatIndex availableSeatIndex;
+    private final CourseFacetIndex courseFacetIndex;
+    private final CourseIndexLoader courseIndexLoader;
+    private final CourseCacheInvalidator courseCacheInvalidator;
+    private final CourseResponseCache courseResponseCache;
 
     @Value("${server.port}")
     private String serverPort;
 
-    public CourseController(CourseService courseService) {
+    public CourseController(CourseService courseService, SeatLedger seatLedger, CatalogVersion catalogVersion,
+                            CourseSearchIndex courseSearchIndex, CourseSlotIndex courseSlotIndex,
+                            AvailableSeatIndex availableSeatIndex, CourseFacetIndex courseFacetIndex,
+                            CourseIndexLoader courseIndexLoader,
+                            CourseCacheInvalidator courseCacheInvalidator, CourseResponseCache courseResponseCache) {
         this.courseService = courseService;
+        this.seatLedger = seatLedger;
+        this.catalogVersion = catalogVersion;
+        this.courseSearchIndex = courseSearchIndex;
+        this.courseSlotIndex = courseSlotIndex;
+        this.availableSeatIndex = availableSeatIndex;
+        this.courseFacetIndex = courseFacetIndex;
+        this.courseIndexLoader = courseIndexLoader;
+        this.courseCacheInvalidator = courseCacheInvalidator;
+        this.courseResponseCache = courseResponseCache;
     }
 
     /**
      * 查询所有课程
      * GET /api/courses
+     * 支持 If-None-Match，目录未变化时直接返回304，不查询数据库
+     */
+    @GetMapping(params = { "!size", "!cursor" })
+    public ResponseEntity<byte[]> getAllCourses(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // ETag 必须在查询之前取得：查询结果只会比它新，不会让客户端缓存住旧数据
+        String etag = catalogVersion.listEtag();
+        String matched = catalogVersion.matchIfNoneMatch(ifNoneMatch, etag);
+        if (matched != null) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(matched).build();
+        }
+        // 目录未变化时直接复用已序列化（及 gzip 压缩）的字节
+        CourseResponseCache.Document document = courseResponseCache.list(etag,
+                () -> ApiResponse.success(courseService.findAll()));
+        return serialized(document, etag, acceptEncoding);
+    }
+
+    /**
+     * 游标分页查询课程
+     * GET /api/courses?size=50&cursor=...（带 size 或 cursor 参数时匹配本接口）
+     * 同样支持 If-None-Match，ETag 与课程列表一致
      */
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Course>>> getAllCourses() {
-        List<Course> courses = courseService.findAll();
-        return ResponseEntity.ok(ApiResponse.success(courses));
+    public ResponseEntity<ApiResponse<CursorPage<Course>>> getCoursePage(
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = catalogVersion.listEtag();
+        if (catalogVersion.isNotModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        CursorPage<Course> page = courseService.findPage(cursor, size);
+        return withEtag(ResponseEntity.ok(), etag).body(ApiResponse.success(page));
+    }
+
+    /**
+     * 根据ID批量查询课程（供批量选课一次性校验课程）
+     * POST /api/courses/lookup
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<ApiResponse<List<Course>>> getCoursesByIds(@RequestBody List<String> ids) {
+        return ResponseEntity.ok(ApiResponse.success(courseService.findByIds(ids)));
+    }
+
+    /**
+     * 搜索课程（课程代码、标题、讲师姓名，按相关度排序）
+     * GET /api/courses/search?q=数据结构&limit=20
+     * 空白分隔的多个词需同时命中，支持中文子串与前缀匹配，查询只访问内存索引
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<CourseSearchResult>> searchCourses(
+            @RequestParam("q") String q,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(courseSearchIndex.search(q, limit)));
+    }
+
+    /**
+     * 搜索索引运行状态
+     * GET /api/courses/search/stats
+     */
+    @GetMapping("/search/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSearchStats() {
+        return ResponseEntity.ok(ApiResponse.success(courseSearchIndex.stats()));
+    }
+
+    /**
+     * 查询有剩余座位的课程（按剩余座位数从多到少排序）
+     * GET /api/courses/available?dayOfWeek=MONDAY&instructorId=instructor-001&minSeats=5&limit=50
+     * 查询只访问内存余量索引，选课/退课/容量修改后原地更新
+     */
+    @GetMapping("/available")
+    public ResponseEntity<ApiResponse<AvailableCourseResult>> getAvailableCourses(
+            @RequestParam(value = "dayOfWeek", required = false) String dayOfWeek,
+            @RequestParam(value = "instructorId", required = false) String instructorId,
+            @RequestParam(value = "minSeats", required = false) Integer minSeats,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(availableSeatIndex.find(dayOfWeek, instructorId, minSeats, limit)));
+    }
+
+    /**
+     * 余量索引运行状态
+     * GET /api/courses/available/stats
+     */
+    @GetMapping("/available/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getAvailableIndexStats() {
+        return ResponseEntity.ok(ApiResponse.success(availableSeatIndex.stats()));
+    }
+
+    /**
+     * 分面筛选课程，返回匹配的课程和各分面的取值计数
+     * GET /api/courses/facets?days=MONDAY,FRIDAY&from=08:00&to=12:00&instructorIds=instructor-001&minFill=0&maxFill=80&limit=50
+     * 同一分面的多个取值为“或”，不同分面之间为“且”；查询只访问内存位图索引
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse<CourseFacetResult>> getCourseFacets(
+            @RequestParam(value = "days", required = false) String days,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "instructorIds", required = false) String instructorIds,
+            @RequestParam(value = "minFill", required = false) Integer minFill,
+            @RequestParam(value = "maxFill", required = false) Integer maxFill,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(
+                courseFacetIndex.query(days, from, to, instructorIds, minFill, maxFill, limit)));
+    }
+
+    /**
+     * 分面索引运行状态
+     * GET /api/courses/facets/stats
+     */
+    @GetMapping("/facets/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getFacetStats() {
+        return ResponseEntity.ok(ApiResponse.success(courseFacetIndex.stats()));
+    }
+
+    /**
+     * 全量重建本实例的课程索引（直接向数据库导入课程后使用，例如压测脚本），返回分面索引状态
+     * POST /api/courses/facets/rebuild
+     */
+    @PostMapping("/facets/rebuild")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuildFacets() {
+        courseIndexLoader.rebuild();
+        return ResponseEntity.ok(ApiResponse.success(courseFacetIndex.stats()));
+    }
+
+    /**
+     * 课程索引统一加载状态（全量构建、增量读取次数与丢弃的过期读取）
+     * GET /api/courses/indexes/stats
+     */
+    @GetMapping("/indexes/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getIndexLoaderStats() {
+        return ResponseEntity.ok(ApiResponse.success(courseIndexLoader.stats()));
+    }
+
+    /**
+     * 按星期和开始时间范围查询课程（数据库查询，走 day_of_week + start_minute 复合索引）
+     * GET /api/courses/by-start-time?days=MONDAY,FRIDAY&from=08:00&to=10:00&limit=50
+     * 返回开始时间落在 [from, to) 内的课程，按星期、开始时间排序
+     */
+    @GetMapping("/by-start-time")
+    public ResponseEntity<ApiResponse<List<Course>>> getCoursesByStartTime(
+            @RequestParam(value = "days", required = false) String days,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(courseService.findByStartTimeRange(days, from, to, limit)));
+    }
+
+    /**
+     * 查询与给定占用时段不冲突且有剩余座位的课程（按上课时间排序）
+     * GET /api/courses/non-conflicting?busy=480-575,2040-2135&days=MONDAY,TUESDAY&from=08:00&to=12:00&limit=50
+     * busy 为从周一 00:00 起的分钟区间（左闭右开），课程须在 from/to 窗口内开始和结束，查询只访问内存索引
+     */
+    @GetMapping("/non-conflicting")
+    public ResponseEntity<ApiResponse<CourseSlotResult>> getNonConflictingCourses(
+            @RequestParam(value = "busy", required = false) String busy,
+            @RequestParam(value = "days", required = false) String days,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(courseSlotIndex.findNonConflicting(busy, days, from, to, limit)));
+    }
+
+    /**
+     * 时段索引运行状态
+     * GET /api/courses/non-conflicting/stats
+     */
+    @GetMapping("/non-conflicting/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSlotIndexStats() {
+        return ResponseEntity.ok(ApiResponse.success(courseSlotIndex.stats()));
     }
 
     /**
@@ -71,15 +277,72 @@ public class CourseController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    /**
+     * 座位账本运行状态
+     * GET /api/courses/seat-ledger/stats
+     */
+    @GetMapping("/seat-ledger/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSeatLedgerStats() {
+        return ResponseEntity.ok(ApiResponse.success(seatLedger.stats()));
+    }
+
+    /**
+     * 批量调整已选人数统计（被截断的调整数）
+     * GET /api/courses/enrolled-deltas/stats
+     */
+    @GetMapping("/enrolled-deltas/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getEnrolledDeltaStats() {
+        return ResponseEntity.ok(ApiResponse.success(courseService.enrolledDeltaStats()));
+    }
+
+    /**
+     * 课程响应字节缓存运行状态（命中、重新生成次数与耗时、gzip 响应数）
+     * GET /api/courses/response-cache/stats
+     */
+    @GetMapping("/response-cache/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getResponseCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(courseResponseCache.stats()));
+    }
+
+    /**
+     * 课程二级缓存运行状态（实体/自然ID缓存命中率、淘汰数、跨实例失效次数）
+     * GET /api/courses/cache/stats
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCourseCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(courseCacheInvalidator.stats()));
+    }
+
+    /**
+     * 目录版本（ETag）同步状态
+     * GET /api/courses/version/stats
+     */
+    @GetMapping("/version/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getVersionStats() {
+        return ResponseEntity.ok(ApiResponse.success(catalogVersion.stats()));
+    }
+
     /**
      * 根据ID查询课程
      * GET /api/courses/{id}
+     * 支持 If-None-Match，课程未变化时直接返回304，不查询数据库
      */
     @GetMapping("/{id:[a-zA-Z0-9\\-]+}")
-    public ResponseEntity<ApiResponse<Course>> getCourseById(@PathVariable String id) {
-        Course course = courseService.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + id));
-        return ResponseEntity.ok(ApiResponse.success(course));
+    public ResponseEntity<byte[]> getCourseById(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String etag = catalogVersion.courseEtag(id);
+        String matched = catalogVersion.matchIfNoneMatch(ifNoneMatch, etag);
+        if (matched != null) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(matched).build();
+        }
+        // 绕过二级缓存读取：本实例轮询到其他实例的变更时先更新版本再失效缓存，
+        // 这期间从缓存读到的旧数据不能缓存在新的 ETag 下
+        CourseResponseCache.Document document = courseResponseCache.course(id, etag,
+                () -> ApiResponse.success(courseService.findFreshById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + id))));
+        return serialized(document, etag, acceptEncoding);
     }
 
     /**
@@ -96,13 +359,16 @@ public class CourseController {
     /**
      * 更新课程
      * PUT /api/courses/{id}
+     * 携带 If-Match 时为条件更新，课程已被修改则返回412
      */
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<Course>> updateCourse(
             @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody Course course) {
-        Course updated = courseService.updateCourse(id, course);
-        return ResponseEntity.ok(ApiResponse.success(updated));
+        Course updated = courseService.updateCourse(id, course, ifMatch);
+        // 事务已提交，本实例的版本已更新
+        return withEtag(ResponseEntity.ok(), catalogVersion.courseEtag(id)).body(ApiResponse.success(updated));
     }
 
     /**
@@ -134,4 +400,83 @@ public class CourseController {
         courseService.decrementEnrolled(id);
         return ResponseEntity.ok(ApiResponse.success(null));
     }
+
+    /**
+     * 批量调整已选人数（课程ID -> 有符号增量），一个事务内完成
+     * POST /api/courses/enrolled-deltas
+     * 返回各课程请求与实际生效的增量（被容量或0截断时 clamped=true）以及调整后的已选人数
+     * 携带 batchId 时按批次去重，同一批次已生效过时返回409，调用方可视为成功
+     */
+    @PostMapping("/enrolled-deltas")
+    public ResponseEntity<ApiResponse<Map<String, EnrolledDeltaResult>>> applyEnrolledDeltas(
+            @RequestParam(value = "batchId", required = false) String batchId,
+            @RequestBody Map<String, Integer> deltas) {
+        return ResponseEntity.ok(ApiResponse.success(courseService.applyEnrolledDeltas(batchId, deltas)));
+    }
+
+    /**
+     * 原子占座，课程已满时返回 success=false；seats>1 时可能部分授予
+     * POST /api/courses/{id}/reserve?seats=1&reservationId=
+     * 携带 reservationId 时记录授予的座位数，同一 reservationId 重试返回首次结果
+     */
+    @PostMapping("/{id}/reserve")
+    public ResponseEntity<ApiResponse<SeatReservation>> reserveSeats(
+            @PathVariable String id,
+            @RequestParam(value = "seats", defaultValue = "1") int seats,
+            @RequestParam(value = "reservationId", required = false) String reservationId) {
+        return ResponseEntity.ok(ApiResponse.success(courseService.reserveSeats(id, seats, reservationId)));
+    }
+
+    /**
+     * 查询按 reservationId 记录的占座结果，未记录（占座未生效）时返回404
+     * GET /api/courses/reservations/{reservationId}
+     */
+    @GetMapping("/reservations/{reservationId}")
+    public ResponseEntity<ApiResponse<SeatReservation>> getReservation(@PathVariable String reservationId) {
+        return ResponseEntity.ok(ApiResponse.success(courseService.findReservation(reservationId)));
+    }
+
+    /**
+     * 释放座位
+     * POST /api/courses/{id}/release?seats=1
+     */
+    @PostMapping("/{id}/release")
+    public ResponseEntity<ApiResponse<SeatReservation>> releaseSeats(
+            @PathVariable String id,
+            @RequestParam(value = "seats", defaultValue = "1") int seats) {
+        return ResponseEntity.ok(ApiResponse.success(courseService.releaseSeats(id, seats)));
+    }
+
+    /**
+     * 写出已序列化的响应：客户端接受 gzip 且有压缩版本时直接写出压缩字节，并使用压缩版本的 ETag
+     */
+    private ResponseEntity<byte[]> serialized(CourseResponseCache.Document document, String etag,
+                                              String acceptEncoding) {
+        boolean gzip = document.gzip() != null && acceptsGzip(acceptEncoding);
+        courseResponseCache.recordServed(document, gzip);
+        ResponseEntity.BodyBuilder builder = withEtag(ResponseEntity.ok(), gzip ? CatalogVersion.gzipEtag(etag) : etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(gzip ? document.gzip() : document.json());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static ResponseEntity.BodyBuilder withEtag(ResponseEntity.BodyBuilder builder, String etag) {
+        return etag != null ? builder.eTag(etag) : builder;
+    }
 }
@@ -0,0 +1,125 @@
+package com.zjgsu.szw.coursecloud.catalog.dto;
+
+/**
+ * 课程摘要（取自内存索引：余量查询与分面筛选的结果项，已选人数可能落后一个同步周期）
+ */
+public class AvailableCourseHit {
+    private String id;
+    private String code;
+    private String title;
+    private String instructorId;
+    private String instructorName;
+    private String dayOfWeek;
+    private String startTime;
+    private String endTime;
+    private int capacity;
+    private int enrolled;
+    private int remainingSeats;
+
+    public AvailableCourseHit() {
+    }
+
+    public AvailableCourseHit(String id, String code, String title, String instructorId, String instructorName,
+                              String dayOfWeek, String startTime, String endTime, int capacity, int enrolled,
+                              int remainingSeats) {
+        this.id = id;
+        this.code = code;
+        this.title = title;
+        this.instructorId = instructorId;
+        this.instructorName = instructorName;
+        this.dayOfWeek = dayOfWeek;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.capacity = capacity;
+        this.enrolled = enrolled;
+        this.remainingSeats = remainingSeats;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getInstructorId() {
+        return instructorId;
+    }
+
+    public void setInstructorId(String instructorId) {
+        this.instructorId = instructorId;
+    }
+
+    public String getInstructorName() {
+        return instructorName;
+    }
+
+    public void setInstructorName(String instructorName) {
+        this.instructorName = instructorName;
+    }
+
+    public String getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public void setDayOfWeek(String dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    public String getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(String startTime) {
+        this.startTime = startTime;
+    }
+
+    public String getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(String endTime) {
+        this.endTime = endTime;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getEnrolled() {
+        return enrolled;
+    }
+
+    public void setEnrolled(int enrolled) {
+        this.enrolled = enrolled;
+    }
+
+    public int getRemainingSeats() {
+        return remainingSeats;
+    }
+
+    public void setRemainingSeats(int remainingSeats) {
+        this.remainingSeats = remainingSeats;
+    }
+}
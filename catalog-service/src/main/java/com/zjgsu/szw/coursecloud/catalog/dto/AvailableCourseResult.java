@@ -0,0 +1,46 @@
+package com.zjgsu.szw.coursecloud.catalog.dto;
+
+import java.util.List;
+
+/**
+ * 有剩余座位的课程查询结果
+ * total 为全部符合条件的课程数，courses 为按剩余座位数从多到少排序的前 limit 门，tookMicros 为索引查询耗时（微秒）
+ */
+public class AvailableCourseResult {
+    private int total;
+    private long tookMicros;
+    private List<AvailableCourseHit> courses;
+
+    public AvailableCourseResult() {
+    }
+
+    public AvailableCourseResult(int total, long tookMicros, List<AvailableCourseHit> courses) {
+        this.total = total;
+        this.tookMicros = tookMicros;
+        this.courses = courses;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public long getTookMicros() {
+        return tookMicros;
+    }
+
+    public void setTookMicros(long tookMicros) {
+        this.tookMicros = tookMicros;
+    }
+
+    public List<AvailableCourseHit> getCourses() {
+        return courses;
+    }
+
+    public void setCourses(List<AvailableCourseHit> courses) {
+        this.courses = courses;
+    }
+}
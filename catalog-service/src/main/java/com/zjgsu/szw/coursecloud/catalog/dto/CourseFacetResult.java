@@ -0,0 +1,59 @@
+package com.zjgsu.szw.coursecloud.catalog.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分面筛选结果
+ * total 为全部匹配数，courses 为按课程序号顺序的前 limit 门；
+ * facets 为各分面的取值计数（分面名 -> 取值 -> 课程数），每个分面的计数应用了除该分面以外的全部筛选条件
+ */
+public class CourseFacetResult {
+    private int total;
+    private long tookMicros;
+    private Map<String, Map<String, Integer>> facets;
+    private List<AvailableCourseHit> courses;
+
+    public CourseFacetResult() {
+    }
+
+    public CourseFacetResult(int total, long tookMicros, Map<String, Map<String, Integer>> facets,
+                             List<AvailableCourseHit> courses) {
+        this.total = total;
+        this.tookMicros = tookMicros;
+        this.facets = facets;
+        this.courses = courses;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public long getTookMicros() {
+        return tookMicros;
+    }
+
+    public void setTookMicros(long tookMicros) {
+        this.tookMicros = tookMicros;
+    }
+
+    public Map<String, Map<String, Integer>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, Map<String, Integer>> facets) {
+        this.facets = facets;
+    }
+
+    public List<AvailableCourseHit> getCourses() {
+        return courses;
+    }
+
+    public void setCourses(List<AvailableCourseHit> courses) {
+        this.courses = courses;
+    }
+}
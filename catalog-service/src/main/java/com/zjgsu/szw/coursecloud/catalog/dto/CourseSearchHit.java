@@ -0,0 +1,63 @@
+package com.zjgsu.szw.coursecloud.catalog.dto;
+
+/**
+ * 课程搜索命中项（直接取自内存索引，不含已选人数等实时字段，详情请按ID查询）
+ */
+public class CourseSearchHit {
+    private String id;
+    private String code;
+    private String title;
+    private String instructorName;
+    private int score;
+
+    public CourseSearchHit() {
+    }
+
+    public CourseSearchHit(String id, String code, String title, String instructorName, int score) {
+        this.id = id;
+        this.code = code;
+        this.title = title;
+        this.instructorName = instructorName;
+        this.score = score;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getInstructorName() {
+        return instructorName;
+    }
+
+    public void setInstructorName(String instructorName) {
+        this.instructorName = instructorName;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+}
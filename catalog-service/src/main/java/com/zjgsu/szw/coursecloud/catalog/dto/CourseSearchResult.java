@@ -0,0 +1,56 @@
+package com.zjgsu.szw.coursecloud.catalog.dto;
+
+import java.util.List;
+
+/**
+ * 课程搜索结果
+ * total 为全部匹配数，hits 为按得分排序后的前 limit 条，tookMicros 为索引查询耗时（微秒）
+ */
+public class CourseSearchResult {
+    private String query;
+    private int total;
+    private long tookMicros;
+    private List<CourseSearchHit> hits;
+
+    public CourseSearchResult() {
+    }
+
+    public CourseSearchResult(String query, int total, long tookMicros, List<CourseSearchHit> hits) {
+        this.query = query;
+        this.total = total;
+        this.tookMicros = tookMicros;
+        this.hits = hits;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public long getTookMicros() {
+        return tookMicros;
+    }
+
+    public void setTookMicros(long tookMicros) {
+        this.tookMicros = tookMicros;
+    }
+
+    public List<CourseSearchHit> getHits() {
+        return hits;
+    }
+
+    public void setHits(List<CourseSearchHit> hits) {
+        this.hits = hits;
+    }
+}
@@ -0,0 +1,46 @@
+package com.zjgsu.szw.coursecloud.catalog.dto;
+
+import java.util.List;
+
+/**
+ * 时间不冲突课程查询结果
+ * total 为全部符合条件的课程数，courses 为按上课时间排序的前 limit 门，tookMicros 为索引查询耗时（微秒）
+ */
+public class CourseSlotResult {
+    private int total;
+    private long tookMicros;
+    private List<CourseSlotHit> courses;
+
+    public CourseSlotResult() {
+    }
+
+    public CourseSlotResult(int total, long tookMicros, List<CourseSlotHit> courses) {
+        this.total = total;
+        this.tookMicros = tookMicros;
+        this.courses = courses;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public long getTookMicros() {
+        return tookMicros;
+    }
+
+    public void setTookMicros(long tookMicros) {
+        this.tookMicros = tookMicros;
+    }
+
+    public List<CourseSlotHit> getCourses() {
+        return courses;
+    }
+
+    public void setCourses(List<CourseSlotHit> courses) {
+        this.courses = courses;
+    }
+}
@@ -0,0 +1,86 @@
+package com.zjgsu.szw.coursecloud.catalog.dto;
+
+/**
+ * 单门课程的已选人数调整结果
+ * requested 为请求的有符号增量，applied 为实际生效的增量；
+ * 增加超出容量或减少低于0时被截断，此时 clamped=true，applied 与 requested 不同
+ */
+public class EnrolledDeltaResult {
+    private String courseId;
+    private int requested;
+    private int applied;
+    private boolean clamped;
+    private int capacity;
+    private int enrolled;
+
+    public EnrolledDeltaResult() {
+    }
+
+    public EnrolledDeltaResult(String courseId, int requested, int applied, int capacity, int enrolled) {
+        this.courseId = courseId;
+        this.requested = requested;
+        this.applied = applied;
+        this.clamped = applied != requested;
+        this.capacity = capacity;
+        this.enrolled = enrolled;
+    }
+
+    /**
+     * 按调整前的已选人数计算实际生效的增量：增加不超过剩余座位，减少不超过已选人数
+     */
+    public static int clamp(int delta, int capacity, int enrolledBefore) {
+        if (delta > 0) {
+            return Math.max(0, Math.min(delta, capacity - enrolledBefore));
+        }
+        return -Math.max(0, Math.min(-delta, enrolledBefore));
+    }
+
+    // Getters and Setters
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(String courseId) {
+        this.courseId = courseId;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getApplied() {
+        return applied;
+    }
+
+    public void setApplied(int applied) {
+        this.applied = applied;
+    }
+
+    public boolean isClamped() {
+        return clamped;
+    }
+
+    public void setClamped(boolean clamped) {
+        this.clamped = clamped;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getEnrolled() {
+        return enrolled;
+    }
+
+    public void setEnrolled(int enrolled) {
+        this.enrolled = enrolled;
+    }
+}
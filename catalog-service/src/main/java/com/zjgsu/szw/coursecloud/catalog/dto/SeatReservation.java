@@ -0,0 +1,115 @@
+package com.zjgsu.szw.coursecloud.catalog.dto;
+
+import com.zjgsu.szw.coursecloud.catalog.model.Course;
+
+/**
+ * 占座/释放座位结果
+ * 课程已满时 success=false、full=true，不以异常形式返回；
+ * 多座位请求可能部分授予，granted 为实际占用（或释放）的座位数；
+ * courseVersion 为课程静态信息版本号，供调用方校验缓存（座位账本路径下为空）
+ */
+public class SeatReservation {
+    private String courseId;
+    private boolean success;
+    private int requested;
+    private int granted;
+    private boolean full;
+    private int capacity;
+    private int enrolled;
+    private int remaining;
+    private Long courseVersion;
+
+    public SeatReservation() {
+    }
+
+    public SeatReservation(String courseId, int requested, int granted, int capacity, int enrolled) {
+        this.courseId = courseId;
+        this.success = granted > 0;
+        this.requested = requested;
+        this.granted = granted;
+        this.capacity = capacity;
+        this.enrolled = enrolled;
+        this.remaining = Math.max(capacity - enrolled, 0);
+        this.full = this.remaining == 0;
+    }
+
+    public static SeatReservation of(Course course, int requested, int granted) {
+        SeatReservation reservation = new SeatReservation(course.getId(), requested, granted,
+                course.getCapacity(), course.getEnrolled());
+        reservation.setCourseVersion(course.getVersion());
+        return reservation;
+    }
+
+    // Getters and Setters
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(String courseId) {
+        this.courseId = courseId;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getGranted() {
+        return granted;
+    }
+
+    public void setGranted(int granted) {
+        this.granted = granted;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public void setFull(boolean full) {
+        this.full = full;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getEnrolled() {
+        return enrolled;
+    }
+
+    public void setEnrolled(int enrolled) {
+        this.enrolled = enrolled;
+    }
+
+    public int getRemaining() {
+        return remaining;
+    }
+
+    public void setRemaining(int remaining) {
+        this.remaining = remaining;
+    }
+
+    public Long getCourseVersion() {
+        return courseVersion;
+    }
+
+    public void setCourseVersion(Long courseVersion) {
+        this.courseVersion = courseVersion;
+    }
+}
@@ -0,0 +1,13 @@
+package com.zjgsu.szw.coursecloud.catalog.event;
+
+import com.zjgsu.szw.coursecloud.catalog.model.CourseChangeType;
+
+/**
+ * 课程变更在本实例生效的通知：本实例提交的变更在事务提交后发布，其他实例的变更在轮询到时发布；
+ * 同一条变更只发布一次。监听方在轮询线程或提交请求的线程上同步执行，应尽快返回
+ *
+ * @param courseId 课程ID
+ * @param type     变更类型，旧数据中没有记录类型时为 null
+ */
+public record CourseChangeAppliedEvent(String courseId, CourseChangeType type) {
+}
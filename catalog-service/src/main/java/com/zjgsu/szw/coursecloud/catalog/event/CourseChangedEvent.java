@@ -0,0 +1,13 @@
+package com.zjgsu.szw.coursecloud.catalog.event;
+
+import com.zjgsu.szw.coursecloud.catalog.model.CourseChangeType;
+
+/**
+ * 课程变更事件，在写入变更日志时发布，事务提交后才会被处理
+ *
+ * @param courseId 课程ID
+ * @param changeId 变更日志ID
+ * @param type     变更类型
+ */
+public record CourseChangedEvent(String courseId, long changeId, CourseChangeType type) {
+}
@@ -0,0 +1,10 @@
+package com.zjgsu.szw.coursecloud.catalog.exception;
+
+/**
+ * 重复提交的批次异常（同一批次已经生效过）
+ */
+public class DuplicateBatchException extends RuntimeException {
+    public DuplicateBatchException(String message) {
+        super(message);
+    }
+}
@@ -25,6 +25,26 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.notFound(ex.getMessage()));
     }
 
+    /**
+     * 处理条件请求前置条件不满足异常（If-Match 版本不一致）
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiResponse<Void>> handlePreconditionFailed(PreconditionFailedException ex) {
+        return ResponseEntity
+                .status(HttpStatus.PRECONDITION_FAILED)
+                .body(ApiResponse.error(412, ex.getMessage()));
+    }
+
+    /**
+     * 处理重复提交的批次（已生效过，调用方可视为成功）
+     */
+    @ExceptionHandler(DuplicateBatchException.class)
+    public ResponseEntity<ApiResponse<Void>> handleDuplicateBatch(DuplicateBatchException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error(409, ex.getMessage()));
+    }
+
     /**
      * 处理Spring MVC的资源未找到异常
      */
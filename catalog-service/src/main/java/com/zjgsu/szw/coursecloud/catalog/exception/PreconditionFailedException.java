@@ -0,0 +1,10 @@
+package com.zjgsu.szw.coursecloud.catalog.exception;
+
+/**
+ * 条件请求前置条件不满足异常（If-Match 与当前版本不一致）
+ */
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
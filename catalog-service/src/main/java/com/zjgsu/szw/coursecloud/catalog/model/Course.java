@@ -1,21 +1,35 @@
 package com.zjgsu.szw.coursecloud.catalog.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import java.time.LocalDateTime;
 
 /**
  * 课程实体类
+ * 实体按ID、课程代码按自然ID缓存在 Hibernate 二级缓存中，跨实例失效见 CourseCacheInvalidator
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Course.CACHE_REGION)
+@NaturalIdCache(region = Course.NATURAL_ID_CACHE_REGION)
 @Table(name = "courses", indexes = {
         @Index(name = "idx_code", columnList = "code"),
-        @Index(name = "idx_instructor_id", columnList = "instructor_id")
+        @Index(name = "idx_instructor_id", columnList = "instructor_id"),
+        @Index(name = "idx_day_start_minute", columnList = "day_of_week, start_minute")
 })
 public class Course {
+    public static final String CACHE_REGION = "course";
+    public static final String NATURAL_ID_CACHE_REGION = "course-natural-id";
+
     @Id
     @Column(length = 36)
     private String id;
 
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true, length = 50)
     private String code;
 
@@ -34,12 +48,21 @@ public class Course {
     @Column(nullable = false)
     private int capacity;
 
-    @Column(nullable = false)
+    // 已选人数只通过 CourseRepository 的条件更新语句修改，避免整实体保存覆盖并发占座结果
+    @Column(nullable = false, updatable = false)
     private int enrolled;
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    /**
+     * 课程静态信息版本号，每次通过实体保存修改课程时递增；
+     * 已选人数通过批量更新语句修改，不会改变版本号
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public Course() {
         this.enrolled = 0;
         this.createdAt = LocalDateTime.now();
@@ -140,4 +163,12 @@ public class Course {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
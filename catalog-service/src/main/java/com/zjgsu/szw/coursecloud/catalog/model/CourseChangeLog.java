@@ -0,0 +1,72 @@
+package com.zjgsu.szw.coursecloud.catalog.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 课程变更日志
+ * 课程的增删改与座位变化都会在同一事务内追加一行，自增ID即目录版本号；
+ * 各 catalog 实例轮询该表得到一致的 ETag，旧记录定期清理，但每门课程始终保留最新一行
+ */
+@Entity
+@Table(name = "course_change_log", indexes = {
+        @Index(name = "idx_change_course_id", columnList = "course_id"),
+        @Index(name = "idx_change_changed_at", columnList = "changed_at")
+})
+public class CourseChangeLog {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "course_id", nullable = false, length = 36)
+    private String courseId;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    // 旧版本写入的记录没有类型，读取时按 null 处理
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", length = 16)
+    private CourseChangeType changeType;
+
+    public CourseChangeLog() {
+    }
+
+    public CourseChangeLog(String courseId, CourseChangeType changeType) {
+        this.courseId = courseId;
+        this.changeType = changeType;
+        this.changedAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(String courseId) {
+        this.courseId = courseId;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+
+    public CourseChangeType getChangeType() {
+        return changeType;
+    }
+
+    public void setChangeType(CourseChangeType changeType) {
+        this.changeType = changeType;
+    }
+}
@@ -0,0 +1,26 @@
+package com.zjgsu.szw.coursecloud.catalog.model;
+
+/**
+ * 课程变更类型
+ */
+public enum CourseChangeType {
+    /**
+     * 新建课程
+     */
+    CREATE,
+
+    /**
+     * 修改课程信息
+     */
+    UPDATE,
+
+    /**
+     * 删除课程
+     */
+    DELETE,
+
+    /**
+     * 只有已选人数变化（占座、释放、批量调整、座位账本回写）
+     */
+    SEATS
+}
@@ -0,0 +1,41 @@
+package com.zjgsu.szw.coursecloud.catalog.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 已生效的已选人数调整批次
+ * 与调整本身在同一事务内写入，调用方重发同一批次（超时重试、领取租约过期）时据此拒绝，
+ * 使 enrolled-deltas 接口按批次幂等；旧记录定期清理
+ */
+@Entity
+@Table(name = "enrolled_delta_batches", indexes = {
+        @Index(name = "idx_delta_batch_applied_at", columnList = "applied_at")
+})
+public class EnrolledDeltaBatch {
+    @Id
+    @Column(name = "batch_id", length = 64)
+    private String batchId;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+
+    public EnrolledDeltaBatch() {
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(String batchId) {
+        this.batchId = batchId;
+    }
+
+    public LocalDateTime getAppliedAt() {
+        return appliedAt;
+    }
+
+    public void setAppliedAt(LocalDateTime appliedAt) {
+        this.appliedAt = appliedAt;
+    }
+}
@@ -1,5 +1,7 @@
 package com.zjgsu.szw.coursecloud.catalog.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
 import jakarta.persistence.Embeddable;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -7,22 +9,72 @@ import java.time.DayOfWeek;
 
 /**
  * 课程时间安排实体类（嵌入式对象）
+ *
+ * 开始/结束时间同时保存为字符串（JSON 原样输出）和当天的分钟数（start_minute / end_minute），
+ * 分钟数与 day_of_week 组成复合索引，供按时间范围查询和冲突计算使用，不再逐条解析字符串。
+ * 分钟数随时间字符串的 setter 一起更新，不单独对外暴露。
  */
 @Embeddable
 public class ScheduleSlot {
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
     @Enumerated(EnumType.STRING)
     private DayOfWeek dayOfWeek;
 
     private String startTime;
     private String endTime;
 
+    /** 开始时间，当天的分钟数（0-1440），时间无法解析时为 null */
+    @JsonIgnore
+    @Column(name = "start_minute")
+    private Integer startMinute;
+
+    /** 结束时间，当天的分钟数（0-1440），时间无法解析时为 null */
+    @JsonIgnore
+    @Column(name = "end_minute")
+    private Integer endMinute;
+
     public ScheduleSlot() {
     }
 
     public ScheduleSlot(DayOfWeek dayOfWeek, String startTime, String endTime) {
         this.dayOfWeek = dayOfWeek;
-        this.startTime = startTime;
-        this.endTime = endTime;
+        setStartTime(startTime);
+        setEndTime(endTime);
+    }
+
+    /**
+     * 解析 "HH:mm"（允许 "24:00"）为当天的分钟数
+     *
+     * @throws IllegalArgumentException 格式错误或超出范围
+     */
+    public static int parseMinute(String time) {
+        String[] parts = time.trim().split(":");
+        try {
+            int hour = Integer.parseInt(parts[0]);
+            int minute = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            int value = hour * 60 + minute;
+            if (hour < 0 || minute < 0 || minute >= 60 || value > MINUTES_PER_DAY) {
+                throw new IllegalArgumentException("Invalid time: " + time);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid time: " + time);
+        }
+    }
+
+    /**
+     * 同 parseMinute，但空值或无法解析时返回 null
+     */
+    public static Integer tryParseMinute(String time) {
+        if (time == null || time.isBlank()) {
+            return null;
+        }
+        try {
+            return parseMinute(time);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
     // Getters and Setters
@@ -40,6 +92,7 @@ public class ScheduleSlot {
 
     public void setStartTime(String startTime) {
         this.startTime = startTime;
+        this.startMinute = tryParseMinute(startTime);
     }
 
     public String getEndTime() {
@@ -48,5 +101,22 @@ public class ScheduleSlot {
 
     public void setEndTime(String endTime) {
         this.endTime = endTime;
+        this.endMinute = tryParseMinute(endTime);
+    }
+
+    /**
+     * 开始时间的分钟数；尚未回填分钟数的旧数据按字符串解析
+     */
+    @JsonIgnore
+    public Integer getStartMinute() {
+        return startMinute != null ? startMinute : tryParseMinute(startTime);
+    }
+
+    /**
+     * 结束时间的分钟数；尚未回填分钟数的旧数据按字符串解析
+     */
+    @JsonIgnore
+    public Integer getEndMinute() {
+        return endMinute != null ? endMinute : tryParseMinute(endTime);
     }
 }
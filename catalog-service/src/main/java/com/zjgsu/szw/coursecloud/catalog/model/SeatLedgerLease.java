@@ -0,0 +1,51 @@
+package com.zjgsu.szw.coursecloud.catalog.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 座位账本租约
+ * 开启座位账本时只有持有租约的 catalog 实例可以在内存中授予座位；持有者定期续约，
+ * 租约过期前其他实例无法取得，过期后（持有者崩溃或失联）才能被接管
+ */
+@Entity
+@Table(name = "seat_ledger_lease")
+public class SeatLedgerLease {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false, length = 64)
+    private String holder;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public SeatLedgerLease() {
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getHolder() {
+        return holder;
+    }
+
+    public void setHolder(String holder) {
+        this.holder = holder;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
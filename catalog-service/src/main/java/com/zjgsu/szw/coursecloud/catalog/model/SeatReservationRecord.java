@@ -0,0 +1,84 @@
+package com.zjgsu.szw.coursecloud.catalog.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 占座记录
+ * 调用方携带 reservationId 占座时与占座本身在同一事务内写入，记录实际授予的座位数：
+ * 同一 reservationId 重试时直接返回记录的结果，不再重复占座；
+ * 调用方无法确认占座结果（超时、本地写入失败）时按记录的授予数释放座位。旧记录定期清理
+ */
+@Entity
+@Table(name = "seat_reservations", indexes = {
+        @Index(name = "idx_seat_reservation_created_at", columnList = "created_at")
+})
+public class SeatReservationRecord {
+    @Id
+    @Column(name = "reservation_id", length = 64)
+    private String reservationId;
+
+    @Column(name = "course_id", nullable = false, length = 36)
+    private String courseId;
+
+    @Column(nullable = false)
+    private int requested;
+
+    @Column(nullable = false)
+    private int granted;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public SeatReservationRecord() {
+    }
+
+    public SeatReservationRecord(String reservationId, String courseId, int requested, int granted) {
+        this.reservationId = reservationId;
+        this.courseId = courseId;
+        this.requested = requested;
+        this.granted = granted;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(String courseId) {
+        this.courseId = courseId;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getGranted() {
+        return granted;
+    }
+
+    public void setGranted(int granted) {
+        this.granted = granted;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,53 @@
+package com.zjgsu.szw.coursecloud.catalog.repository;
+
+import com.zjgsu.szw.coursecloud.catalog.model.CourseChangeLog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 课程变更日志数据访问层
+ */
+@Repository
+public interface CourseChangeLogRepository extends JpaRepository<CourseChangeLog, Long> {
+
+    /**
+     * 每门课程的最新变更ID（启动时加载）
+     *
+     * @return [courseId, maxId]
+     */
+    @Query("SELECT l.courseId, MAX(l.id) FROM CourseChangeLog l GROUP BY l.courseId")
+    List<Object[]> findLatestIdPerCourse();
+
+    /**
+     * 单门课程的最新变更ID，没有记录时返回null（If-Match 校验使用）
+     */
+    @Query("SELECT MAX(l.id) FROM CourseChangeLog l WHERE l.courseId = :courseId")
+    Long findLatestIdByCourseId(@Param("courseId") String courseId);
+
+    /**
+     * 按ID顺序读取新增的变更
+     */
+    List<CourseChangeLog> findTop1000ByIdGreaterThanOrderByIdAsc(Long id);
+
+    /**
+     * 补读之前出现空洞的变更ID（自增ID分配后延迟提交的事务）
+     */
+    List<CourseChangeLog> findByIdIn(Collection<Long> ids);
+
+    /**
+     * 清理早于指定时间的记录，每门课程的最新一行保留
+     * MySQL 不允许在 DELETE 的子查询中直接引用目标表，因此多包一层派生表
+     */
+    @Modifying
+    @Query(value = "DELETE FROM course_change_log WHERE changed_at < :before AND id NOT IN "
+            + "(SELECT id FROM (SELECT MAX(id) AS id FROM course_change_log GROUP BY course_id) latest)",
+            nativeQuery = true)
+    int deleteOlderThanKeepingLatest(@Param("before") LocalDateTime before);
+}
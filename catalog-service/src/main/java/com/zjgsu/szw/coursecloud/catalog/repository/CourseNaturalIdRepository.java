@@ -0,0 +1,16 @@
+package com.zjgsu.szw.coursecloud.catalog.repository;
+
+import com.zjgsu.szw.coursecloud.catalog.model.Course;
+
+import java.util.Optional;
+
+/**
+ * 按自然ID（课程代码）加载课程，经过 Hibernate 自然ID缓存和实体二级缓存
+ */
+public interface CourseNaturalIdRepository {
+
+    /**
+     * 按课程代码加载课程：先查自然ID缓存得到课程ID，再按ID查实体缓存，均未命中时查询数据库
+     */
+    Optional<Course> loadByCode(String code);
+}
@@ -0,0 +1,28 @@
+package com.zjgsu.szw.coursecloud.catalog.repository;
+
+import com.zjgsu.szw.coursecloud.catalog.model.Course;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * CourseNaturalIdRepository 实现（Spring Data 按 Impl 后缀自动组合进 CourseRepository）
+ */
+public class CourseNaturalIdRepositoryImpl implements CourseNaturalIdRepository {
+
+    private final EntityManager entityManager;
+
+    public CourseNaturalIdRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Course> loadByCode(String code) {
+        return Optional.ofNullable(entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Course.class)
+                .load(code));
+    }
+}
@@ -1,26 +1,64 @@
 package com.zjgsu.szw.coursecloud.catalog.repository;
 
 import com.zjgsu.szw.coursecloud.catalog.model.Course;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.DayOfWeek;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * 课程数据访问层
  * 使用 Spring Data JPA
+ *
+ * 已选人数的批量更新使用原生 SQL 并只声明 SEAT_QUERY_SPACE 查询空间：JPQL 批量更新会让 Hibernate
+ * 清空整个 Course 二级缓存区域，而座位变化非常频繁；受影响的课程由 CourseCacheInvalidator 逐个失效。
  */
 @Repository
-public interface CourseRepository extends JpaRepository<Course, String> {
+public interface CourseRepository extends JpaRepository<Course, String>, CourseNaturalIdRepository {
+
+    String SEAT_QUERY_SPACE = "course_seats";
+
+    String NATIVE_SPACES_HINT = "org.hibernate.query.native.spaces";
+
+    /**
+     * 查询全部课程（索引重建、列表接口），结果不写入二级缓存，避免挤掉热点课程
+     */
+    @Override
+    @QueryHints(@QueryHint(name = "jakarta.persistence.cache.storeMode", value = "BYPASS"))
+    List<Course> findAll();
+
+    /**
+     * 绕过二级缓存按ID查询课程，并用查到的数据刷新缓存
+     * 用于变更通知之后的读取（内存索引、响应缓存）：缓存可能在失效后被并发加载回填旧数据，这里必须读到已提交的最新值
+     */
+    @QueryHints({
+            @QueryHint(name = "jakarta.persistence.cache.retrieveMode", value = "BYPASS"),
+            @QueryHint(name = "jakarta.persistence.cache.storeMode", value = "REFRESH")
+    })
+    @Query("SELECT c FROM Course c WHERE c.id = :id")
+    Optional<Course> findByIdBypassingCache(@Param("id") String id);
 
     /**
      * 根据课程代码查询课程
      */
     Optional<Course> findByCode(String code);
 
+    /**
+     * 按主键游标翻页：查询主键大于 afterId 的课程（主键索引定位，不使用 OFFSET）
+     */
+    List<Course> findByIdGreaterThanOrderByIdAsc(String afterId, Limit limit);
+
     /**
      * 根据讲师ID查询课程
      */
@@ -33,8 +71,109 @@ public interface CourseRepository extends JpaRepository<Course, String> {
     @Query("SELECT c FROM Course c WHERE c.enrolled < c.capacity")
     List<Course> findAvailableCourses();
 
+    /**
+     * 按星期和开始时间范围查询课程（左闭右开，单位为当天分钟数），
+     * 命中 (day_of_week, start_minute) 复合索引
+     */
+    @Query("SELECT c FROM Course c WHERE c.schedule.dayOfWeek IN :days "
+            + "AND c.schedule.startMinute >= :fromMinute AND c.schedule.startMinute < :toMinute "
+            + "ORDER BY c.schedule.dayOfWeek, c.schedule.startMinute, c.id")
+    List<Course> findByDayAndStartMinuteRange(@Param("days") Collection<DayOfWeek> days,
+                                              @Param("fromMinute") int fromMinute,
+                                              @Param("toMinute") int toMinute,
+                                              Limit limit);
+
     /**
      * 按标题关键字模糊查询
      */
     List<Course> findByTitleContaining(String keyword);
+
+    /**
+     * 加行锁查询课程（SELECT ... FOR UPDATE），用于多座位部分授予
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Course c WHERE c.id = :id")
+    Optional<Course> findByIdForUpdate(@Param("id") String id);
+
+    /**
+     * 按主键顺序给一批课程加行锁（SELECT ... FOR UPDATE），用于批量调整已选人数前读取调整前的值
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Course c WHERE c.id IN :ids ORDER BY c.id")
+    List<Course> findAllByIdForUpdate(@Param("ids") Collection<String> ids);
+
+    /**
+     * 条件占座：仅当占座后不超过容量时增加已选人数（单条 UPDATE，依赖行锁保证原子性）
+     *
+     * @return 受影响行数，0 表示剩余座位不足或课程不存在
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = NATIVE_SPACES_HINT, value = SEAT_QUERY_SPACE))
+    @Query(nativeQuery = true,
+            value = "UPDATE courses SET enrolled = enrolled + :seats WHERE id = :id AND enrolled + :seats <= capacity")
+    int reserveSeats(@Param("id") String id, @Param("seats") int seats);
+
+    /**
+     * 释放座位：仅当已选人数不少于释放数量时减少
+     *
+     * @return 受影响行数，0 表示已选人数不足或课程不存在
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = NATIVE_SPACES_HINT, value = SEAT_QUERY_SPACE))
+    @Query(nativeQuery = true,
+            value = "UPDATE courses SET enrolled = enrolled - :seats WHERE id = :id AND enrolled >= :seats")
+    int releaseSeats(@Param("id") String id, @Param("seats") int seats);
+
+    /**
+     * 无条件增加已选人数（兼容旧的 increment 接口）
+     *
+     * @return 受影响行数，0 表示课程不存在
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = NATIVE_SPACES_HINT, value = SEAT_QUERY_SPACE))
+    @Query(nativeQuery = true,
+            value = "UPDATE courses SET enrolled = enrolled + 1 WHERE id = :id")
+    int incrementEnrolled(@Param("id") String id);
+
+    /**
+     * 批量增加已选人数，超出容量的部分截断到容量（已满的课程不变）
+     *
+     * @return 受影响行数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = NATIVE_SPACES_HINT, value = SEAT_QUERY_SPACE))
+    @Query(nativeQuery = true,
+            value = "UPDATE courses SET enrolled = CASE WHEN enrolled + :seats > capacity THEN capacity "
+            + "ELSE enrolled + :seats END WHERE id IN (:ids) AND enrolled < capacity")
+    int addEnrolledUpToCapacity(@Param("ids") Collection<String> ids, @Param("seats") int seats);
+
+    /**
+     * 批量减少已选人数，最少减到0
+     *
+     * @return 受影响行数
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = NATIVE_SPACES_HINT, value = SEAT_QUERY_SPACE))
+    @Query(nativeQuery = true,
+            value = "UPDATE courses SET enrolled = CASE WHEN enrolled < :seats THEN 0 "
+            + "ELSE enrolled - :seats END WHERE id IN (:ids) AND enrolled > 0")
+    int subtractEnrolledToZero(@Param("ids") Collection<String> ids, @Param("seats") int seats);
+
+    /**
+     * 按增量调整已选人数（座位账本批量回写使用）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = NATIVE_SPACES_HINT, value = SEAT_QUERY_SPACE))
+    @Query(nativeQuery = true,
+            value = "UPDATE courses SET enrolled = enrolled + :delta WHERE id = :id")
+    int addEnrolled(@Param("id") String id, @Param("delta") int delta);
+
+    /**
+     * 直接设置已选人数（座位账本按选课记录恢复时使用）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = NATIVE_SPACES_HINT, value = SEAT_QUERY_SPACE))
+    @Query(nativeQuery = true,
+            value = "UPDATE courses SET enrolled = :enrolled WHERE id = :id")
+    int setEnrolled(@Param("id") String id, @Param("enrolled") int enrolled);
 }
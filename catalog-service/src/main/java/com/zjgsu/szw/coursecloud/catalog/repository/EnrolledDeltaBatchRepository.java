@@ -0,0 +1,36 @@
+package com.zjgsu.szw.coursecloud.catalog.repository;
+
+import com.zjgsu.szw.coursecloud.catalog.model.EnrolledDeltaBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已生效的已选人数调整批次数据访问层
+ */
+@Repository
+public interface EnrolledDeltaBatchRepository extends JpaRepository<EnrolledDeltaBatch, String> {
+
+    /**
+     * 登记批次（INSERT IGNORE）：批次已存在时不报错，返回0
+     * 主键冲突不会抛出异常，因此不会把外层事务标记为只能回滚；
+     * 并发重发同一批次时后到的插入会等待先到的事务结束，再据结果返回
+     *
+     * @return 1 表示首次登记，0 表示批次已生效过
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO enrolled_delta_batches (batch_id, applied_at) VALUES (:batchId, :appliedAt)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("batchId") String batchId, @Param("appliedAt") LocalDateTime appliedAt);
+
+    /**
+     * 清理早于指定时间登记的批次
+     */
+    @Modifying
+    @Query(value = "DELETE FROM enrolled_delta_batches WHERE applied_at < :before", nativeQuery = true)
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,50 @@
+package com.zjgsu.szw.coursecloud.catalog.repository;
+
+import com.zjgsu.szw.coursecloud.catalog.model.SeatLedgerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * 座位账本租约数据访问层
+ */
+@Repository
+public interface SeatLedgerLeaseRepository extends JpaRepository<SeatLedgerLease, String> {
+
+    /**
+     * 租约不存在时创建（INSERT IGNORE），已存在时不报错
+     *
+     * @return 1 表示创建成功，0 表示租约已存在
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO seat_ledger_lease (name, holder, expires_at) "
+            + "VALUES (:name, :holder, :expiresAt)", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("holder") String holder,
+                       @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * 续约本实例持有的租约，或接管已过期的租约
+     *
+     * @return 1 表示本实例持有租约，0 表示租约仍由其他实例持有
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE seat_ledger_lease SET holder = :holder, expires_at = :expiresAt "
+            + "WHERE name = :name AND (holder = :holder OR expires_at < :now)", nativeQuery = true)
+    int renewOrTakeOver(@Param("name") String name, @Param("holder") String holder,
+                        @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    /**
+     * 停机时释放本实例持有的租约，其他实例无需等待过期即可接管
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM seat_ledger_lease WHERE name = :name AND holder = :holder", nativeQuery = true)
+    int release(@Param("name") String name, @Param("holder") String holder);
+}
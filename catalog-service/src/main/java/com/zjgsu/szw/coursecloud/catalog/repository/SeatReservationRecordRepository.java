@@ -0,0 +1,24 @@
+package com.zjgsu.szw.coursecloud.catalog.repository;
+
+import com.zjgsu.szw.coursecloud.catalog.model.SeatReservationRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 占座记录数据访问层
+ */
+@Repository
+public interface SeatReservationRecordRepository extends JpaRepository<SeatReservationRecord, String> {
+
+    /**
+     * 清理早于指定时间的占座记录
+     */
+    @Modifying
+    @Query(value = "DELETE FROM seat_reservations WHERE created_at < :before", nativeQuery = true)
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,253 @@
+package com.zjgsu.szw.coursecloud.catalog.service;
+
+import com.zjgsu.szw.coursecloud.catalog.dto.AvailableCourseHit;
+import com.zjgsu.szw.coursecloud.catalog.dto.AvailableCourseResult;
+import com.zjgsu.szw.coursecloud.catalog.model.Course;
+import com.zjgsu.szw.coursecloud.catalog.model.ScheduleSlot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 有余量课程索引（物化的 enrolled < capacity）
+ *
+ * 只保存有剩余座位的课程，按剩余座位数从多到少、课程代码排序；另按星期和讲师各建一份同序的二级索引。
+ * 查询从最小的候选集合按序取前 N 条，不访问数据库；指定最少剩余座位时遇到第一条不足的即停止。
+ *
+ * 由 CourseIndexLoader 统一读库，启动时全量构建，之后随 CourseChangeAppliedEvent 原地更新（先移出再按新的余量放回）：
+ * 本实例与其他实例的占座、退课、容量修改和课程增删都会到达，其他实例的变更最多落后一个轮询周期，
+ * 开启座位账本时已选人数在账本回写后才会更新。
+ */
+@Component
+public class AvailableSeatIndex implements CourseIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailableSeatIndex.class);
+
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+
+    /** 剩余座位多的在前，同余量按课程代码、课程ID */
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::remaining).reversed()
+            .thenComparing(Entry::code, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Entry::courseId);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // 以下结构由 lock 保护；entries 包含全部课程，其余集合只包含有余量的课程
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> available = new TreeSet<>(ORDER);
+    private final Map<DayOfWeek, TreeSet<Entry>> byDay = new EnumMap<>(DayOfWeek.class);
+    private final Map<String, TreeSet<Entry>> byInstructor = new HashMap<>();
+    private boolean built;
+    private LocalDateTime builtAt;
+
+    private final AtomicLong queryCount = new AtomicLong();
+    private final AtomicLong queryNanos = new AtomicLong();
+    private final AtomicLong updateCount = new AtomicLong();
+
+    /**
+     * 全量构建索引（课程由 CourseIndexLoader 统一读取）
+     */
+    @Override
+    public void rebuild(List<Course> courses) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            available.clear();
+            byDay.clear();
+            byInstructor.clear();
+            for (Course course : courses) {
+                put(course);
+            }
+            built = true;
+            builtAt = LocalDateTime.now();
+            logger.info("余量索引构建完成，课程数: {}，有余量: {}", entries.size(), available.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 原地更新：移出旧位置后按新的余量放回，课程已删除时移除
+     */
+    @Override
+    public void apply(String courseId, Course course) {
+        lock.writeLock().lock();
+        try {
+            if (course != null) {
+                put(course);
+            } else {
+                remove(courseId);
+            }
+            updateCount.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询有剩余座位的课程，按剩余座位数从多到少排序
+     *
+     * @param dayOfWeek    只返回该星期的课程（MONDAY..SUNDAY），为空时不限
+     * @param instructorId 只返回该讲师的课程，为空时不限
+     * @param minSeats     最少剩余座位数，默认1
+     * @param limit        返回条数，默认50，最大500
+     */
+    public AvailableCourseResult find(String dayOfWeek, String instructorId, Integer minSeats, Integer limit) {
+        long start = System.nanoTime();
+        DayOfWeek day = parseDay(dayOfWeek);
+        String instructor = instructorId == null || instructorId.isBlank() ? null : instructorId.trim();
+        int min = minSeats == null ? 1 : Math.max(minSeats, 1);
+        int size = limit == null ? DEFAULT_LIMIT : Math.min(Math.max(limit, 1), MAX_LIMIT);
+
+        List<AvailableCourseHit> hits = new ArrayList<>();
+        int total = 0;
+        lock.readLock().lock();
+        try {
+            NavigableSet<Entry> candidates = candidates(day, instructor);
+            for (Entry entry : candidates) {
+                if (entry.remaining() < min) {
+                    break;
+                }
+                // 两个条件同时给出时候选取自较小的集合，另一个条件在这里核对
+                if ((day != null && entry.day() != day)
+                        || (instructor != null && !instructor.equals(entry.instructorId()))) {
+                    continue;
+                }
+                total++;
+                if (hits.size() < size) {
+                    hits.add(entry.toHit());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        long nanos = System.nanoTime() - start;
+        queryCount.incrementAndGet();
+        queryNanos.addAndGet(nanos);
+        return new AvailableCourseResult(total, nanos / 1000, hits);
+    }
+
+    /**
+     * 索引运行状态
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("built", built);
+            stats.put("builtAt", builtAt);
+            stats.put("courses", entries.size());
+            stats.put("available", available.size());
+            stats.put("instructors", byInstructor.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        long queries = queryCount.get();
+        stats.put("queries", queries);
+        stats.put("avgQueryMicros", queries == 0 ? 0 : queryNanos.get() / queries / 1000);
+        stats.put("updates", updateCount.get());
+        return stats;
+    }
+
+    private NavigableSet<Entry> candidates(DayOfWeek day, String instructor) {
+        TreeSet<Entry> dayEntries = day == null ? null : byDay.getOrDefault(day, new TreeSet<>(ORDER));
+        TreeSet<Entry> instructorEntries = instructor == null ? null
+                : byInstructor.getOrDefault(instructor, new TreeSet<>(ORDER));
+        if (dayEntries != null && instructorEntries != null) {
+            return dayEntries.size() <= instructorEntries.size() ? dayEntries : instructorEntries;
+        }
+        if (dayEntries != null) {
+            return dayEntries;
+        }
+        return instructorEntries != null ? instructorEntries : available;
+    }
+
+    private void put(Course course) {
+        remove(course.getId());
+        Entry entry = Entry.of(course);
+        entries.put(entry.courseId(), entry);
+        if (entry.remaining() <= 0) {
+            return;
+        }
+        available.add(entry);
+        if (entry.day() != null) {
+            byDay.computeIfAbsent(entry.day(), k -> new TreeSet<>(ORDER)).add(entry);
+        }
+        if (entry.instructorId() != null) {
+            byInstructor.computeIfAbsent(entry.instructorId(), k -> new TreeSet<>(ORDER)).add(entry);
+        }
+    }
+
+    private void remove(String courseId) {
+        Entry entry = entries.remove(courseId);
+        if (entry == null || entry.remaining() <= 0) {
+            return;
+        }
+        available.remove(entry);
+        if (entry.day() != null) {
+            TreeSet<Entry> set = byDay.get(entry.day());
+            if (set != null && set.remove(entry) && set.isEmpty()) {
+                byDay.remove(entry.day());
+            }
+        }
+        if (entry.instructorId() != null) {
+            TreeSet<Entry> set = byInstructor.get(entry.instructorId());
+            if (set != null && set.remove(entry) && set.isEmpty()) {
+                byInstructor.remove(entry.instructorId());
+            }
+        }
+    }
+
+    private static DayOfWeek parseDay(String dayOfWeek) {
+        if (dayOfWeek == null || dayOfWeek.isBlank()) {
+            return null;
+        }
+        try {
+            return DayOfWeek.valueOf(dayOfWeek.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid day of week: " + dayOfWeek);
+        }
+    }
+
+    /**
+     * 索引中的一门课程（不可变，余量变化时整体替换）
+     */
+    private record Entry(String courseId, String code, String title, String instructorId, String instructorName,
+                         DayOfWeek day, String startTime, String endTime, int capacity, int enrolled) {
+
+        static Entry of(Course course) {
+            String instructorId = course.getInstructor() != null ? course.getInstructor().getId() : null;
+            String instructorName = course.getInstructor() != null ? course.getInstructor().getName() : null;
+            ScheduleSlot schedule = course.getSchedule();
+            return new Entry(course.getId(), course.getCode(), course.getTitle(), instructorId, instructorName,
+                    schedule != null ? schedule.getDayOfWeek() : null,
+                    schedule != null ? schedule.getStartTime() : null,
+                    schedule != null ? schedule.getEndTime() : null,
+                    course.getCapacity(), course.getEnrolled());
+        }
+
+        int remaining() {
+            return capacity - enrolled;
+        }
+
+        AvailableCourseHit toHit() {
+            return new AvailableCourseHit(courseId, code, title, instructorId, instructorName,
+                    day != null ? day.name() : null, startTime, endTime, capacity, enrolled, remaining());
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.zjgsu.szw.coursecloud.catalog.service;
+
+import com.zjgsu.szw.coursecloud.catalog.config.CatalogVersionProperties;
+import com.zjgsu.szw.coursecloud.catalog.event.CourseChangeAppliedEvent;
+import com.zjgsu.szw.coursecloud.catalog.event.CourseChangedEvent;
+import com.zjgsu.szw.coursecloud.catalog.exception.PreconditionFailedException;
+import com.zjgsu.szw.coursecloud.catalog.model.CourseChangeLog;
+import com.zjgsu.szw.coursecloud.catalog.model.CourseChangeType;
+import com.zjgsu.szw.coursecloud.catalog.repository.CourseChangeLogRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 目录版本号与 ETag
+ *
+ * 课程的增删改和座位变化在同一事务内写入 course_change_log，自增ID作为版本号：
+ * 单门课程的 ETag 为其最新变更ID，课程列表的 ETag 为所有课程最新变更ID的异或摘要，
+ * 因此同一份数据在每个 catalog 实例上得到相同的 ETag。
+ * 本实例的写入在事务提交后立即生效，其他实例的写入通过定时轮询同步（最多滞后一个轮询周期）。
+ * ETag 只读内存，条件请求命中时不访问数据库。
+ * 每条变更在本实例生效时发布一次 CourseChangeAppliedEvent，供搜索索引等进程内结构增量更新。
+ *
+ * 直接修改数据库（绕过本服务）的变更不会反映到 ETag 中。
+ */
+@Component
+public class CatalogVersion {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogVersion.class);
+
+    private static final int POLL_BATCH_SIZE = 1000;
+    /** 启动加载后回看的ID数量，用于发现加载时尚未提交的变更 */
+    private static final long RELOAD_LOOKBACK = 1000;
+    /** 单次轮询最多登记的空洞数量 */
+    private static final int MAX_GAPS = 10000;
+
+    private final CourseChangeLogRepository changeLogRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersionProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<String, Long> latest = new ConcurrentHashMap<>();
+    private volatile long listHash;
+    private volatile boolean loaded;
+
+    // 以下字段只由轮询线程访问（fixedDelay 任务不会并发执行）
+    private volatile long lastSeenId;
+    private final Map<Long, Long> gaps = new HashMap<>();
+
+    private final AtomicLong notModifiedCount = new AtomicLong();
+    private final AtomicLong preconditionFailedCount = new AtomicLong();
+
+    public CatalogVersion(CourseChangeLogRepository changeLogRepository,
+                          ApplicationEventPublisher eventPublisher,
+                          CatalogVersionProperties properties,
+                          PlatformTransactionManager transactionManager) {
+        this.changeLogRepository = changeLogRepository;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 启动时加载每门课程的最新变更ID，失败时由轮询任务重试
+     */
+    @PostConstruct
+    public void load() {
+        try {
+            long maxId = 0;
+            for (Object[] row : changeLogRepository.findLatestIdPerCourse()) {
+                long changeId = ((Number) row[1]).longValue();
+                apply((String) row[0], changeId);
+                maxId = Math.max(maxId, changeId);
+            }
+            lastSeenId = Math.max(0, maxId - RELOAD_LOOKBACK);
+            loaded = true;
+            logger.info("目录版本已加载，课程数: {}，最新变更ID: {}", latest.size(), maxId);
+        } catch (Exception e) {
+            logger.warn("加载课程变更日志失败，暂不提供ETag: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 记录一门课程的变更，必须在修改课程的事务内调用
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(String courseId, CourseChangeType type) {
+        CourseChangeLog saved = changeLogRepository.save(new CourseChangeLog(courseId, type));
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId, saved.getId(), type));
+    }
+
+    /**
+     * 批量记录课程变更，必须在修改课程的事务内调用
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanges(Collection<String> courseIds, CourseChangeType type) {
+        if (courseIds.isEmpty()) {
+            return;
+        }
+        List<CourseChangeLog> logs = new ArrayList<>(courseIds.size());
+        for (String courseId : courseIds) {
+            logs.add(new CourseChangeLog(courseId, type));
+        }
+        for (CourseChangeLog saved : changeLogRepository.saveAll(logs)) {
+            eventPublisher.publishEvent(new CourseChangedEvent(saved.getCourseId(), saved.getId(), type));
+        }
+    }
+
+    /**
+     * 本实例的变更在事务提交后立即生效（回滚的变更不会到达这里）
+     */
+    @TransactionalEventListener
+    public void onCourseChanged(CourseChangedEvent event) {
+        if (apply(event.courseId(), event.changeId())) {
+            eventPublisher.publishEvent(new CourseChangeAppliedEvent(event.courseId(), event.type()));
+        }
+    }
+
+    /**
+     * 同步其他实例写入的变更
+     * 自增ID在插入时分配、提交可能乱序，跳过的ID先登记为空洞，之后补读，超时视为已回滚
+     */
+    @Scheduled(fixedDelayString = "${catalog.version.poll-interval-ms:200}")
+    public void poll() {
+        if (!loaded) {
+            load();
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            if (!gaps.isEmpty()) {
+                for (CourseChangeLog log : changeLogRepository.findByIdIn(new ArrayList<>(gaps.keySet()))) {
+                    gaps.remove(log.getId());
+                    applyPolled(log);
+                }
+                gaps.values().removeIf(firstSeen -> now - firstSeen > properties.getGapTimeoutMs());
+            }
+            List<CourseChangeLog> changes;
+            do {
+                changes = changeLogRepository.findTop1000ByIdGreaterThanOrderByIdAsc(lastSeenId);
+                for (CourseChangeLog log : changes) {
+                    long changeId = log.getId();
+                    for (long missing = lastSeenId + 1; missing < changeId && gaps.size() < MAX_GAPS; missing++) {
+                        gaps.put(missing, now);
+                    }
+                    lastSeenId = changeId;
+                    applyPolled(log);
+                }
+            } while (changes.size() == POLL_BATCH_SIZE);
+        } catch (Exception e) {
+            logger.warn("轮询课程变更日志失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 清理过期的变更日志，每门课程保留最新一行
+     */
+    @Scheduled(fixedDelayString = "${catalog.version.prune-interval-ms:60000}")
+    public void prune() {
+        try {
+            LocalDateTime before = LocalDateTime.now().minusMinutes(properties.getRetentionMinutes());
+            Integer deleted = transactionTemplate.execute(
+                    status -> changeLogRepository.deleteOlderThanKeepingLatest(before));
+            if (deleted != null && deleted > 0) {
+                logger.debug("清理课程变更日志: {} 行", deleted);
+            }
+        } catch (Exception e) {
+            logger.warn("清理课程变更日志失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 课程列表的ETag，版本尚未加载时返回null（不参与条件请求）
+     */
+    public String listEtag() {
+        return loaded ? "\"v" + Long.toHexString(listHash) + "\"" : null;
+    }
+
+    /**
+     * 单门课程的ETag，从未变更过的课程为 "c0"；版本尚未加载时返回null
+     */
+    public String courseEtag(String courseId) {
+        if (!loaded) {
+            return null;
+        }
+        return courseEtag(latest.get(courseId));
+    }
+
+    /**
+     * If-None-Match 是否命中（弱比较），命中时调用方直接返回304
+     */
+    public boolean isNotModified(String ifNoneMatch, String etag) {
+        return matchIfNoneMatch(ifNoneMatch, etag) != null;
+    }
+
+    /**
+     * If-None-Match 命中的 ETag（弱比较），同时接受 gzip 版本的 ETag；未命中时返回null
+     * 调用方在304响应中带回命中的那一个，客户端缓存的表示（压缩或未压缩）才能被正确更新
+     */
+    public String matchIfNoneMatch(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return null;
+        }
+        String gzipEtag = gzipEtag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals(gzipEtag)) {
+                notModifiedCount.incrementAndGet();
+                return tag;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * gzip 压缩响应的 ETag：与未压缩的表示字节不同，强 ETag 必须区分（"v1a2b" -> "v1a2b-gz"）
+     */
+    public static String gzipEtag(String etag) {
+        if (etag == null || !etag.endsWith("\"")) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    /**
+     * 校验 If-Match（强比较），版本以数据库中的变更日志为准
+     * 调用方需先在同一事务内锁住课程行，使校验与随后的更新之间不会插入其他写入
+     *
+     * @throws PreconditionFailedException 课程已被修改
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void checkIfMatch(String courseId, String ifMatch) {
+        if (ifMatch == null) {
+            return;
+        }
+        String current = courseEtag(changeLogRepository.findLatestIdByCourseId(courseId));
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(current)) {
+                return;
+            }
+        }
+        preconditionFailedCount.incrementAndGet();
+        throw new PreconditionFailedException("Course has been modified, current ETag: " + current);
+    }
+
+    /**
+     * 版本同步状态
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", loaded);
+        stats.put("courses", latest.size());
+        stats.put("listEtag", listEtag());
+        stats.put("lastSeenId", lastSeenId);
+        stats.put("pendingGaps", gaps.size());
+        stats.put("notModified", notModifiedCount.get());
+        stats.put("preconditionFailed", preconditionFailedCount.get());
+        return stats;
+    }
+
+    private void applyPolled(CourseChangeLog log) {
+        if (apply(log.getCourseId(), log.getId())) {
+            eventPublisher.publishEvent(new CourseChangeAppliedEvent(log.getCourseId(), log.getChangeType()));
+        }
+    }
+
+    /**
+     * 更新课程的最新变更ID并增量维护列表摘要，重复或更旧的变更被忽略
+     *
+     * @return 是否是本实例第一次看到这条变更
+     */
+    private synchronized boolean apply(String courseId, long changeId) {
+        Long previous = latest.get(courseId);
+        if (previous != null && previous >= changeId) {
+            return false;
+        }
+        long hash = listHash;
+        if (previous != null) {
+            hash ^= mix(previous);
+        }
+        listHash = hash ^ mix(changeId);
+        latest.put(courseId, changeId);
+        return true;
+    }
+
+    private static String courseEtag(Long changeId) {
+        return "\"c" + (changeId == null ? 0 : changeId) + "\"";
+    }
+
+    /**
+     * 64位混淆（MurmurHash3 fmix64），变更ID全局唯一，异或后即可区分不同的课程版本组合
+     */
+    private static long mix(long changeId) {
+        long h = changeId * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb53ba7cf3b1aL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
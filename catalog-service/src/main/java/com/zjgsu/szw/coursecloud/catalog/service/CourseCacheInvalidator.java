@@ -0,0 +1,163 @@
+package com.zjgsu.szw.coursecloud.catalog.service;
+
+import com.zjgsu.szw.coursecloud.catalog.config.CourseCacheProperties;
+import com.zjgsu.szw.coursecloud.catalog.event.CourseChangeAppliedEvent;
+import com.zjgsu.szw.coursecloud.catalog.event.CourseChangedEvent;
+import com.zjgsu.szw.coursecloud.catalog.model.Course;
+import com.zjgsu.szw.coursecloud.catalog.model.CourseChangeType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 课程二级缓存的失效与统计
+ *
+ * 每个实例的二级缓存相互独立：
+ * 本实例通过实体保存做的修改由 Hibernate 维护缓存；已选人数由原生 UPDATE 修改，不经过缓存，
+ * 在写入变更日志时（事务内，之后同一事务会重新读取课程）以及事务回滚时失效对应课程。
+ * 其他实例的修改由 CatalogVersion 轮询 course_change_log 得知（默认200ms），收到 CourseChangeAppliedEvent
+ * 后失效对应课程；课程信息修改或删除时课程代码可能变化，本实例不知道旧代码，因此清空整个自然ID缓存。
+ * 并发加载可能在失效后回填旧数据，由缓存的写入后过期时间兜底；变更后立即读取课程的内存索引绕过缓存读库。
+ */
+@Component
+public class CourseCacheInvalidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseCacheInvalidator.class);
+
+    private final Cache cache;
+    private final Statistics statistics;
+    private final CourseCacheProperties properties;
+
+    private final AtomicLong entityInvalidations = new AtomicLong();
+    private final AtomicLong naturalIdInvalidations = new AtomicLong();
+    private final AtomicLong naturalIdMismatches = new AtomicLong();
+
+    public CourseCacheInvalidator(EntityManagerFactory entityManagerFactory, CourseCacheProperties properties) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.cache = sessionFactory.getCache();
+        this.statistics = sessionFactory.getStatistics();
+        this.properties = properties;
+    }
+
+    /**
+     * 本实例写入座位变更日志时（事务内）失效课程，使同一事务随后的读取拿到更新后的已选人数
+     */
+    @EventListener
+    public void onCourseChanged(CourseChangedEvent event) {
+        if (event.type() == CourseChangeType.SEATS) {
+            evict(event.courseId());
+        }
+    }
+
+    /**
+     * 事务回滚时再失效一次，丢弃事务内读取后写入缓存的未提交数据
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onCourseChangeRolledBack(CourseChangedEvent event) {
+        evict(event.courseId());
+    }
+
+    /**
+     * 变更在本实例生效（本实例提交或轮询到其他实例的变更）
+     * 必须先于内存索引和响应缓存的监听器执行，它们随后的读取不能再命中旧的缓存数据
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCourseChangeApplied(CourseChangeAppliedEvent event) {
+        evict(event.courseId());
+        if (event.type() != CourseChangeType.SEATS && event.type() != CourseChangeType.CREATE) {
+            evictNaturalIds();
+        }
+    }
+
+    /**
+     * 按自然ID加载到的课程代码与请求不符：缓存的代码映射已过期（其他实例改了课程代码，失效通知尚未到达）
+     */
+    public void onNaturalIdMismatch(String code, String courseId) {
+        naturalIdMismatches.incrementAndGet();
+        logger.debug("课程代码缓存已过期: {} -> {}", code, courseId);
+        evictNaturalIds();
+    }
+
+    private void evict(String courseId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        cache.evictEntityData(Course.class, courseId);
+        entityInvalidations.incrementAndGet();
+    }
+
+    private void evictNaturalIds() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        cache.evictNaturalIdData(Course.class);
+        naturalIdInvalidations.incrementAndGet();
+    }
+
+    /**
+     * 缓存运行状态：命中率来自 Hibernate 统计，容量/过期淘汰数来自 JCache 统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("maxEntries", properties.getMaxEntries());
+        stats.put("ttlSeconds", properties.getTtlSeconds());
+        if (properties.isEnabled()) {
+            stats.put("entity", regionStats(Course.CACHE_REGION));
+            stats.put("naturalId", regionStats(Course.NATURAL_ID_CACHE_REGION));
+        }
+        stats.put("entityInvalidations", entityInvalidations.get());
+        stats.put("naturalIdInvalidations", naturalIdInvalidations.get());
+        stats.put("naturalIdMismatches", naturalIdMismatches.get());
+        return stats;
+    }
+
+    private Map<String, Object> regionStats(String region) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        long hits = regionStatistics != null ? regionStatistics.getHitCount() : 0;
+        long misses = regionStatistics != null ? regionStatistics.getMissCount() : 0;
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("puts", regionStatistics != null ? regionStatistics.getPutCount() : 0);
+        stats.put("hitRate", hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+        stats.put("evictions", jcacheEvictions(region));
+        return stats;
+    }
+
+    /**
+     * JCache 标准统计 MBean 中的淘汰数（容量淘汰和过期），不含主动失效；读取失败时返回 -1
+     */
+    private static long jcacheEvictions(String cacheName) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            long evictions = -1;
+            for (ObjectName name : server.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,Cache=" + cacheName + ",*"), null)) {
+                evictions = Math.max(evictions, 0) + (Long) server.getAttribute(name, "CacheEvictions");
+            }
+            return evictions;
+        } catch (JMException | RuntimeException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package com.zjgsu.szw.coursecloud.catalog.service;
+
+import com.zjgsu.szw.coursecloud.catalog.dto.AvailableCourseHit;
+import com.zjgsu.szw.coursecloud.catalog.dto.CourseFacetResult;
+import com.zjgsu.szw.coursecloud.catalog.model.Course;
+import com.zjgsu.szw.coursecloud.catalog.model.ScheduleSlot;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 课程分面筛选引擎（压缩位图索引，RoaringBitmap）
+ *
+ * 每门课程分配一个稠密序号，每个分面取值对应一个序号位图：星期、开始小时、讲师、满座率（按 10% 分档，100% 单独一档）。
+ * 任意条件组合都是位图运算：同一分面内多个取值求并，不同分面之间求交；开始时间窗口和满座率范围
+ * 先取完全落在范围内的档位，边界档位再逐门核对。
+ * 结果附带各分面的取值计数，计算某个分面的计数时不应用该分面自身的条件，便于界面展示“切换到其他取值会有多少门”。
+ *
+ * 由 CourseIndexLoader 统一读库，启动时全量构建（按课程代码分配序号），之后随 CourseChangeAppliedEvent 增量更新，已选人数变化会移动满座率档位。
+ */
+@Component
+public class CourseFacetIndex implements CourseIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseFacetIndex.class);
+
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+    private static final int FILL_BUCKETS = 11;
+    private static final int TOP_INSTRUCTORS = 20;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // 以下结构由 lock 保护
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private final ArrayDeque<Integer> freeOrdinals = new ArrayDeque<>();
+    private RoaringBitmap all = new RoaringBitmap();
+    private final Map<DayOfWeek, RoaringBitmap> byDay = new EnumMap<>(DayOfWeek.class);
+    private final RoaringBitmap[] byStartHour = newBitmaps(24);
+    private final Map<String, RoaringBitmap> byInstructor = new HashMap<>();
+    private final RoaringBitmap[] byFill = newBitmaps(FILL_BUCKETS);
+    private boolean built;
+    private LocalDateTime builtAt;
+
+    private final AtomicLong queryCount = new AtomicLong();
+    private final AtomicLong queryNanos = new AtomicLong();
+    private final AtomicLong updateCount = new AtomicLong();
+
+    /**
+     * 全量构建索引（课程由 CourseIndexLoader 统一读取）
+     */
+    @Override
+    public void rebuild(List<Course> courses) {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            entries.clear();
+            freeOrdinals.clear();
+            clearBitmaps();
+            List<Course> sorted = new ArrayList<>(courses);
+            sorted.sort(Comparator.comparing(Course::getCode, Comparator.nullsLast(Comparator.naturalOrder())));
+            for (Course course : sorted) {
+                put(course);
+            }
+            built = true;
+            builtAt = LocalDateTime.now();
+            logger.info("课程分面索引构建完成，课程数: {}，讲师数: {}", ordinals.size(), byInstructor.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 增量更新：替换各分面中的位，课程已删除时移除并回收序号
+     */
+    @Override
+    public void apply(String courseId, Course course) {
+        lock.writeLock().lock();
+        try {
+            if (course != null) {
+                put(course);
+            } else {
+                remove(courseId);
+            }
+            updateCount.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 分面筛选
+     *
+     * @param days          逗号分隔的星期（MONDAY..SUNDAY），任一匹配即可
+     * @param from          开始时间窗口起点 HH:mm（含）
+     * @param to            开始时间窗口终点 HH:mm（不含）
+     * @param instructorIds 逗号分隔的讲师ID，任一匹配即可
+     * @param minFill       最低满座率（百分比，含）
+     * @param maxFill       最高满座率（百分比，含）
+     * @param limit         返回条数，默认50，最大500
+     */
+    public CourseFacetResult query(String days, String from, String to, String instructorIds,
+                                   Integer minFill, Integer maxFill, Integer limit) {
+        long start = System.nanoTime();
+        int size = limit == null ? DEFAULT_LIMIT : Math.min(Math.max(limit, 1), MAX_LIMIT);
+        int fromMinute = from == null || from.isBlank() ? 0 : ScheduleSlot.parseMinute(from);
+        int toMinute = to == null || to.isBlank() ? ScheduleSlot.MINUTES_PER_DAY : ScheduleSlot.parseMinute(to);
+        int minPercent = minFill == null ? 0 : minFill;
+        int maxPercent = maxFill == null ? 100 : maxFill;
+        if (toMinute <= fromMinute) {
+            throw new IllegalArgumentException("Time window end must be after start");
+        }
+        if (minPercent < 0 || maxPercent > 100 || maxPercent < minPercent) {
+            throw new IllegalArgumentException("Fill ratio must satisfy 0 <= minFill <= maxFill <= 100");
+        }
+        List<DayOfWeek> dayList = parseDays(days);
+        List<String> instructorList = splitList(instructorIds);
+
+        lock.readLock().lock();
+        try {
+            // 各分面的条件位图，null 表示该分面不限
+            Map<String, RoaringBitmap> filters = new LinkedHashMap<>();
+            filters.put("dayOfWeek", dayList.isEmpty() ? null : unionOf(dayList.stream().map(byDay::get).toList()));
+            filters.put("startHour", fromMinute == 0 && toMinute == ScheduleSlot.MINUTES_PER_DAY ? null : startWindow(fromMinute, toMinute));
+            filters.put("instructor", instructorList.isEmpty() ? null
+                    : unionOf(instructorList.stream().map(byInstructor::get).toList()));
+            filters.put("fill", minPercent == 0 && maxPercent == 100 ? null : fillRange(minPercent, maxPercent));
+
+            RoaringBitmap result = intersect(filters, null);
+            List<AvailableCourseHit> hits = new ArrayList<>(size);
+            result.limit(size).forEach((int ordinal) -> hits.add(entries.get(ordinal).toHit()));
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            facets.put("dayOfWeek", dayCounts(intersect(filters, "dayOfWeek")));
+            facets.put("startHour", startHourCounts(intersect(filters, "startHour")));
+            facets.put("instructor", instructorCounts(intersect(filters, "instructor")));
+            facets.put("fill", fillCounts(intersect(filters, "fill")));
+
+            long nanos = System.nanoTime() - start;
+            queryCount.incrementAndGet();
+            queryNanos.addAndGet(nanos);
+            return new CourseFacetResult(result.getCardinality(), nanos / 1000, facets, hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 索引运行状态
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            long bytes = all.getLongSizeInBytes();
+            for (RoaringBitmap bitmap : byDay.values()) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+            for (RoaringBitmap bitmap : byStartHour) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+            for (RoaringBitmap bitmap : byInstructor.values()) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+            for (RoaringBitmap bitmap : byFill) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+            stats.put("built", built);
+            stats.put("builtAt", builtAt);
+            stats.put("courses", ordinals.size());
+            stats.put("ordinals", entries.size());
+            stats.put("instructors", byInstructor.size());
+            stats.put("bitmapBytes", bytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+        long queries = queryCount.get();
+        stats.put("queries", queries);
+        stats.put("avgQueryMicros", queries == 0 ? 0 : queryNanos.get() / queries / 1000);
+        stats.put("updates", updateCount.get());
+        return stats;
+    }
+
+    /**
+     * 各分面条件求交，从基数最小的位图开始；exclude 指定的分面不参与（计算该分面的计数时使用）
+     */
+    private RoaringBitmap intersect(Map<String, RoaringBitmap> filters, String exclude) {
+        List<RoaringBitmap> bitmaps = new ArrayList<>();
+        filters.forEach((name, bitmap) -> {
+            if (bitmap != null && !name.equals(exclude)) {
+                bitmaps.add(bitmap);
+            }
+        });
+        if (bitmaps.isEmpty()) {
+            return all;
+        }
+        bitmaps.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+        RoaringBitmap result = bitmaps.get(0);
+        for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+            result = RoaringBitmap.and(result, bitmaps.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * 开始时间在 [fromMinute, toMinute) 内的课程：整点档位完全在窗口内的直接并入，首尾两个档位逐门核对
+     */
+    private RoaringBitmap startWindow(int fromMinute, int toMinute) {
+        int lastMinute = toMinute - 1;
+        int firstHour = fromMinute / 60;
+        int lastHour = Math.min(23, lastMinute / 60);
+        RoaringBitmap result = new RoaringBitmap();
+        for (int hour = firstHour; hour <= lastHour; hour++) {
+            boolean whole = hour * 60 >= fromMinute && hour * 60 + 59 <= lastMinute;
+            if (whole) {
+                result.or(byStartHour[hour]);
+            } else {
+                byStartHour[hour].forEach((int ordinal) -> {
+                    int minute = entries.get(ordinal).startMinute();
+                    if (minute >= fromMinute && minute < toMinute) {
+                        result.add(ordinal);
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 满座率在 [minPercent, maxPercent] 内的课程：完全落在范围内的档位直接并入，边界档位逐门核对
+     */
+    private RoaringBitmap fillRange(int minPercent, int maxPercent) {
+        RoaringBitmap result = new RoaringBitmap();
+        for (int bucket = minPercent / 10; bucket <= maxPercent / 10; bucket++) {
+            int low = bucket * 10;
+            int high = bucket == FILL_BUCKETS - 1 ? 100 : low + 9;
+            if (low >= minPercent && high <= maxPercent) {
+                result.or(byFill[bucket]);
+            } else {
+                byFill[bucket].forEach((int ordinal) -> {
+                    int percent = entries.get(ordinal).fillPercent();
+                    if (percent >= minPercent && percent <= maxPercent) {
+                        result.add(ordinal);
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Integer> dayCounts(RoaringBitmap base) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            RoaringBitmap bitmap = byDay.get(day);
+            counts.put(day.name(), bitmap == null ? 0 : count(base, bitmap));
+        }
+        return counts;
+    }
+
+    private Map<String, Integer> startHourCounts(RoaringBitmap base) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int hour = 0; hour < 24; hour++) {
+            int count = count(base, byStartHour[hour]);
+            if (count > 0) {
+                counts.put(String.format("%02d:00", hour), count);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 讲师分面只返回课程数最多的前 20 位（讲师ID -> 课程数）
+     * 讲师数量多、每位讲师的位图都很小，逐个与 base 求交集的总代价与课程总数相当；
+     * 因此 base 不是全集时改为遍历 base 中的课程按讲师累加，代价只与 base 的大小成正比
+     */
+    private Map<String, Integer> instructorCounts(RoaringBitmap base) {
+        Map<String, Integer> counts = new HashMap<>();
+        if (base == all) {
+            byInstructor.forEach((instructorId, bitmap) -> counts.put(instructorId, bitmap.getCardinality()));
+        } else {
+            base.forEach((int ordinal) -> {
+                String instructorId = entries.get(ordinal).instructorId();
+                if (instructorId != null) {
+                    counts.merge(instructorId, 1, Integer::sum);
+                }
+            });
+        }
+        List<Map.Entry<String, Integer>> sorted = new ArrayList<>(counts.entrySet());
+        sorted.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Integer> top = new LinkedHashMap<>();
+        for (int i = 0; i < sorted.size() && i < TOP_INSTRUCTORS; i++) {
+            top.put(sorted.get(i).getKey(), sorted.get(i).getValue());
+        }
+        return top;
+    }
+
+    private Map<String, Integer> fillCounts(RoaringBitmap base) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < FILL_BUCKETS; bucket++) {
+            String label = bucket == FILL_BUCKETS - 1 ? "100" : (bucket * 10) + "-" + (bucket * 10 + 9);
+            counts.put(label, count(base, byFill[bucket]));
+        }
+        return counts;
+    }
+
+    /**
+     * base 为全部课程时直接取分面位图的基数
+     */
+    private int count(RoaringBitmap base, RoaringBitmap facet) {
+        return base == all ? facet.getCardinality() : RoaringBitmap.andCardinality(base, facet);
+    }
+
+    private void put(Course course) {
+        Integer existing = ordinals.get(course.getId());
+        if (existing != null) {
+            unsetBits(existing, entries.get(existing));
+        }
+        Entry entry = Entry.of(course);
+        int ordinal;
+        if (existing != null) {
+            ordinal = existing;
+            entries.set(ordinal, entry);
+        } else if (!freeOrdinals.isEmpty()) {
+            ordinal = freeOrdinals.pop();
+            entries.set(ordinal, entry);
+        } else {
+            ordinal = entries.size();
+            entries.add(entry);
+        }
+        ordinals.put(course.getId(), ordinal);
+        all.add(ordinal);
+        if (entry.day() != null) {
+            byDay.computeIfAbsent(entry.day(), k -> new RoaringBitmap()).add(ordinal);
+        }
+        if (entry.startMinute() >= 0) {
+            byStartHour[Math.min(23, entry.startMinute() / 60)].add(ordinal);
+        }
+        if (entry.instructorId() != null) {
+            byInstructor.computeIfAbsent(entry.instructorId(), k -> new RoaringBitmap()).add(ordinal);
+        }
+        byFill[fillBucket(entry.fillPercent())].add(ordinal);
+    }
+
+    private void remove(String courseId) {
+        Integer ordinal = ordinals.remove(courseId);
+        if (ordinal != null) {
+            unsetBits(ordinal, entries.get(ordinal));
+            entries.set(ordinal, null);
+            freeOrdinals.push(ordinal);
+        }
+    }
+
+    private void unsetBits(int ordinal, Entry entry) {
+        all.remove(ordinal);
+        if (entry.day() != null) {
+            byDay.get(entry.day()).remove(ordinal);
+        }
+        if (entry.startMinute() >= 0) {
+            byStartHour[Math.min(23, entry.startMinute() / 60)].remove(ordinal);
+        }
+        if (entry.instructorId() != null) {
+            RoaringBitmap bitmap = byInstructor.get(entry.instructorId());
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                byInstructor.remove(entry.instructorId());
+            }
+        }
+        byFill[fillBucket(entry.fillPercent())].remove(ordinal);
+    }
+
+    private void clearBitmaps() {
+        all = new RoaringBitmap();
+        byDay.clear();
+        byInstructor.clear();
+        for (int i = 0; i < byStartHour.length; i++) {
+            byStartHour[i] = new RoaringBitmap();
+        }
+        for (int i = 0; i < byFill.length; i++) {
+            byFill[i] = new RoaringBitmap();
+        }
+    }
+
+    private static RoaringBitmap unionOf(List<RoaringBitmap> bitmaps) {
+        return FastAggregation.or(bitmaps.stream().filter(Objects::nonNull).iterator());
+    }
+
+    private static int fillBucket(int percent) {
+        return Math.min(FILL_BUCKETS - 1, percent / 10);
+    }
+
+    private static RoaringBitmap[] newBitmaps(int count) {
+        RoaringBitmap[] bitmaps = new RoaringBitmap[count];
+        for (int i = 0; i < count; i++) {
+            bitmaps[i] = new RoaringBitmap();
+        }
+        return bitmaps;
+    }
+
+    private static List<DayOfWeek> parseDays(String days) {
+        List<DayOfWeek> result = new ArrayList<>();
+        for (String day : splitList(days)) {
+            try {
+                result.add(DayOfWeek.valueOf(day.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid day of week: " + day);
+            }
+        }
+        return result;
+    }
+
+    private static List<String> splitList(String value) {
+        List<String> result = new ArrayList<>();
+        if (value == null) {
+            return result;
+        }
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) {
+                result.add(part.trim());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 索引中的一门课程，startMinute < 0 表示没有可用的开始时间
+     */
+    private record Entry(String courseId, String code, String title, String instructorId, String instructorName,
+                         DayOfWeek day, String startTime, String endTime, int startMinute,
+                         int capacity, int enrolled) {
+
+        static Entry of(Course course) {
+            String instructorId = course.getInstructor() != null ? course.getInstructor().getId() : null;
+            String instructorName = course.getInstructor() != null ? course.getInstructor().getName() : null;
+            ScheduleSlot schedule = course.getSchedule();
+            Integer start = schedule != null ? schedule.getStartMinute() : null;
+            int startMinute = start != null ? start : -1;
+            return new Entry(course.getId(), course.getCode(), course.getTitle(), instructorId, instructorName,
+                    schedule != null ? schedule.getDayOfWeek() : null,
+                    schedule != null ? schedule.getStartTime() : null,
+                    schedule != null ? schedule.getEndTime() : null,
+                    startMinute, course.getCapacity(), course.getEnrolled());
+        }
+
+        /**
+         * 满座率百分比（向下取整，容量为0时视为100%）
+         */
+        int fillPercent() {
+            if (capacity <= 0) {
+                return 100;
+            }
+            return (int) Math.min(100, Math.max(0, (long) enrolled * 100 / capacity));
+        }
+
+        AvailableCourseHit toHit() {
+            return new AvailableCourseHit(courseId, code, title, instructorId, instructorName,
+                    day != null ? day.name() : null, startTime, endTime, capacity, enrolled, capacity - enrolled);
+        }
+    }
+}
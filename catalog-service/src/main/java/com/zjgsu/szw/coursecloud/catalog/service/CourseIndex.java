@@ -0,0 +1,33 @@
+package com.zjgsu.szw.coursecloud.catalog.service;
+
+import com.zjgsu.szw.coursecloud.catalog.model.Course;
+import com.zjgsu.szw.coursecloud.catalog.model.CourseChangeType;
+
+import java.util.List;
+
+/**
+ * 课程内存索引
+ * 由 CourseIndexLoader 统一读库：启动时一次全量读取交给所有索引构建，课程变更时一次按ID读取后分发给各索引，
+ * 索引自身不访问数据库，只在各自的写锁内更新结构
+ */
+public interface CourseIndex {
+
+    /**
+     * 用全部课程重建索引（列表由所有索引共享，不得修改）
+     */
+    void rebuild(List<Course> courses);
+
+    /**
+     * 应用单门课程的最新数据
+     *
+     * @param course 课程当前数据，课程已删除时为 null
+     */
+    void apply(String courseId, Course course);
+
+    /**
+     * 是否需要处理该类型的变更，type 为 null 表示旧数据中没有记录类型
+     */
+    default boolean accepts(CourseChangeType type) {
+        return true;
+    }
+}
@@ -0,0 +1,168 @@
+package com.zjgsu.szw.coursecloud.catalog.service;
+
+import com.zjgsu.szw.coursecloud.catalog.event.CourseChangeAppliedEvent;
+import com.zjgsu.szw.coursecloud.catalog.model.Course;
+import com.zjgsu.szw.coursecloud.catalog.repository.CourseRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 课程索引的统一加载与变更分发
+ *
+ * 启动时只做一次全表读取，交给所有 CourseIndex 构建；之后每条 CourseChangeAppliedEvent 只按ID读取一次课程，
+ * 再分发给关心该变更类型的索引。读库不持有任何锁，查询不会被数据库读取阻塞。
+ * 增量读取绕过二级缓存（CourseCacheInvalidator 虽然先于本监听器失效缓存，并发加载仍可能回填旧数据）。
+ *
+ * 读库前取一个递增序号，应用时每个索引只接受比它已应用的该课程序号更新的结果：
+ * 变更在提交后才发布，序号更大的读取一定能看到更早发布的变更，并发的更新乱序完成时不会用旧数据覆盖新数据；
+ * 全量构建之前开始的读取一律丢弃。
+ */
+@Component
+@DependsOn("catalogVersion")
+public class CourseIndexLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseIndexLoader.class);
+
+    private final CourseRepository courseRepository;
+    private final List<Target> targets;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // 以下字段由 lock 保护
+    private long rebuildLoad;
+    private LocalDateTime builtAt;
+    private volatile boolean built;
+
+    private final AtomicLong loadSequence = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong staleLoads = new AtomicLong();
+    private final AtomicLong failedLoads = new AtomicLong();
+
+    public CourseIndexLoader(CourseRepository courseRepository, List<CourseIndex> indexes) {
+        this.courseRepository = courseRepository;
+        this.targets = indexes.stream().map(Target::new).toList();
+    }
+
+    /**
+     * 全量读取一次课程并重建所有索引；构建期间到达的增量更新在其后应用
+     */
+    @PostConstruct
+    public void rebuild() {
+        lock.lock();
+        try {
+            long load = loadSequence.incrementAndGet();
+            List<Course> courses = List.copyOf(courseRepository.findAll());
+            for (Target target : targets) {
+                target.index.rebuild(courses);
+                target.appliedLoads.clear();
+            }
+            rebuildLoad = load;
+            builtAt = LocalDateTime.now();
+            built = true;
+            logger.info("课程索引构建完成，课程数: {}，索引数: {}", courses.size(), targets.size());
+        } catch (Exception e) {
+            logger.warn("课程索引构建失败，稍后重试: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 启动时构建失败（例如数据库尚未就绪）时重试
+     */
+    @Scheduled(fixedDelay = 30000, initialDelay = 30000)
+    public void rebuildIfNeeded() {
+        if (!built) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 增量更新：按课程ID读取一次，分发给关心该变更类型的索引，课程已删除时通知各索引移除
+     */
+    @EventListener
+    public void onCourseChangeApplied(CourseChangeAppliedEvent event) {
+        List<Target> interested = targets.stream().filter(target -> target.index.accepts(event.type())).toList();
+        if (interested.isEmpty()) {
+            return;
+        }
+        String courseId = event.courseId();
+        long load = loadSequence.incrementAndGet();
+        Course course;
+        try {
+            course = courseRepository.findByIdBypassingCache(courseId).orElse(null);
+        } catch (Exception e) {
+            failedLoads.incrementAndGet();
+            logger.warn("读取变更课程失败，索引未更新: {} {}", courseId, e.getMessage());
+            return;
+        }
+        loads.incrementAndGet();
+        lock.lock();
+        try {
+            if (load < rebuildLoad) {
+                staleLoads.incrementAndGet();
+                return;
+            }
+            for (Target target : interested) {
+                Long applied = target.appliedLoads.get(courseId);
+                if (applied != null && load < applied) {
+                    // 更晚开始的读取已经应用
+                    staleLoads.incrementAndGet();
+                    continue;
+                }
+                target.appliedLoads.put(courseId, load);
+                try {
+                    target.index.apply(courseId, course);
+                } catch (Exception e) {
+                    logger.warn("更新课程索引失败: {} {} {}", target.index.getClass().getSimpleName(),
+                            courseId, e.getMessage());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 加载运行状态
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            stats.put("built", built);
+            stats.put("builtAt", builtAt);
+        } finally {
+            lock.unlock();
+        }
+        stats.put("indexes", targets.stream().map(target -> target.index.getClass().getSimpleName()).toList());
+        stats.put("loads", loads.get());
+        stats.put("staleLoads", staleLoads.get());
+        stats.put("failedLoads", failedLoads.get());
+        return stats;
+    }
+
+    /**
+     * 一个索引及其各课程已应用的读取序号（由 lock 保护）
+     */
+    private static final class Target {
+        private final CourseIndex index;
+        private final Map<String, Long> appliedLoads = new HashMap<>();
+
+        private Target(CourseIndex index) {
+            this.index = index;
+        }
+    }
+}
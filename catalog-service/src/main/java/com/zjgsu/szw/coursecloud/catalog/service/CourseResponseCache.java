@@ -0,0 +1,188 @@
+package com.zjgsu.szw.coursecloud.catalog.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zjgsu.szw.coursecloud.catalog.config.ResponseCacheProperties;
+import com.zjgsu.szw.coursecloud.catalog.event.CourseChangeAppliedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 课程响应字节缓存
+ *
+ * GET /api/courses 和 GET /api/courses/{id} 的响应体（ApiResponse 包装后的 JSON）只序列化一次，
+ * 连同 gzip 压缩后的字节按 ETag（来自 course_change_log 的目录版本）缓存；版本不变时请求直接写出缓存的字节，
+ * 不再查询数据库、不经过 Jackson。版本变化后在下一次请求时重新生成（惰性），课程变更时顺带释放旧字节。
+ * ETag 在查询之前取得，单门课程绕过二级缓存读取，缓存的字节只会比对应版本新，不会旧。
+ * 压缩字节与未压缩字节是不同的表示，写出时使用带 -gz 后缀的 ETag（CatalogVersion.gzipEtag）。
+ * 缓存响应中的 timestamp 为生成时间。
+ */
+@Component
+public class CourseResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final ResponseCacheProperties properties;
+    private final Cache<String, Document> courses;
+
+    private volatile Document list;
+    // 列表生成耗时较长，同一时间只生成一份，其余请求等待后复用（不用 synchronized，避免固定虚拟线程）
+    private final ReentrantLock listLock = new ReentrantLock();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong builds = new AtomicLong();
+    private final AtomicLong buildNanos = new AtomicLong();
+    private final AtomicLong gzipServed = new AtomicLong();
+    private final AtomicLong bytesServed = new AtomicLong();
+
+    public CourseResponseCache(ObjectMapper objectMapper, ResponseCacheProperties properties) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.courses = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxBytes())
+                .weigher((String key, Document document) -> key.length() + document.size())
+                .build();
+    }
+
+    /**
+     * 课程列表的响应字节，ETag 未变化时直接复用
+     *
+     * @param etag 查询前取得的列表 ETag
+     * @param body 生成响应体（查询数据库）
+     */
+    public Document list(String etag, Supplier<Object> body) {
+        if (!properties.isEnabled()) {
+            return build(etag, body.get(), false);
+        }
+        Document cached = list;
+        if (cached != null && cached.matches(etag)) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        listLock.lock();
+        try {
+            cached = list;
+            if (cached != null && cached.matches(etag)) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            Document built = build(etag, body.get(), true);
+            list = built;
+            return built;
+        } finally {
+            listLock.unlock();
+        }
+    }
+
+    /**
+     * 单门课程的响应字节，ETag 未变化时直接复用
+     *
+     * @param courseId 课程ID
+     * @param etag     查询前取得的课程 ETag
+     * @param body     生成响应体（查询数据库，课程不存在时抛出异常，不缓存）
+     */
+    public Document course(String courseId, String etag, Supplier<Object> body) {
+        if (!properties.isEnabled()) {
+            return build(etag, body.get(), false);
+        }
+        Document cached = courses.getIfPresent(courseId);
+        if (cached != null && cached.matches(etag)) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        Document built = build(etag, body.get(), true);
+        if (etag != null) {
+            courses.put(courseId, built);
+        }
+        return built;
+    }
+
+    /**
+     * 记录一次响应写出
+     */
+    public void recordServed(Document document, boolean gzip) {
+        if (gzip) {
+            gzipServed.incrementAndGet();
+        }
+        bytesServed.addAndGet(gzip ? document.gzip().length : document.json().length);
+    }
+
+    /**
+     * 课程变更后释放旧字节（即使不释放，版本不匹配也不会被使用）
+     */
+    @EventListener
+    public void onCourseChangeApplied(CourseChangeAppliedEvent event) {
+        courses.invalidate(event.courseId());
+    }
+
+    /**
+     * 缓存运行状态
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Document cached = list;
+        stats.put("enabled", properties.isEnabled());
+        stats.put("listEtag", cached != null ? cached.etag() : null);
+        stats.put("listBytes", cached != null ? cached.json().length : 0);
+        stats.put("listGzipBytes", cached != null && cached.gzip() != null ? cached.gzip().length : 0);
+        stats.put("courseEntries", courses.estimatedSize());
+        stats.put("courseBytes", courses.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L));
+        long buildCount = builds.get();
+        stats.put("hits", hits.get());
+        stats.put("builds", buildCount);
+        stats.put("avgBuildMicros", buildCount == 0 ? 0 : buildNanos.get() / buildCount / 1000);
+        stats.put("gzipServed", gzipServed.get());
+        stats.put("bytesServed", bytesServed.get());
+        return stats;
+    }
+
+    private Document build(String etag, Object body, boolean compress) {
+        long start = System.nanoTime();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response", e);
+        }
+        byte[] gzip = compress && json.length >= properties.getGzipMinBytes() ? gzip(json) : null;
+        builds.incrementAndGet();
+        buildNanos.addAndGet(System.nanoTime() - start);
+        return new Document(etag, json, gzip);
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 一份已序列化的响应，gzip 为空表示响应太小不压缩
+     */
+    public record Document(String etag, byte[] json, byte[] gzip) {
+
+        boolean matches(String currentEtag) {
+            return etag != null && etag.equals(currentEtag);
+        }
+
+        int size() {
+            return json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
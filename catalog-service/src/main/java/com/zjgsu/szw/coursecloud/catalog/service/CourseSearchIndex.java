@@ -0,0 +1,448 @@
+package com.zjgsu.szw.coursecloud.catalog.service;
+
+import com.zjgsu.szw.coursecloud.catalog.dto.CourseSearchHit;
+import com.zjgsu.szw.coursecloud.catalog.dto.CourseSearchResult;
+import com.zjgsu.szw.coursecloud.catalog.model.Course;
+import com.zjgsu.szw.coursecloud.catalog.model.CourseChangeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 课程搜索引擎（内存倒排索引）
+ *
+ * 对课程代码、标题、讲师姓名做规范化（NFKC + 小写，非字母数字视为分隔）后按字符切分：
+ * 单字和相邻两字（bigram）分别建倒排表，中文标题无需分词即可做子串检索。
+ * 查询按空白切分为多个词，所有词都必须命中（AND）：先用 bigram 倒排表求交集得到候选，
+ * 再在候选上核对子串并打分——代码精确/前缀命中最高，标题前缀与词首命中次之，讲师姓名最低。
+ *
+ * 由 CourseIndexLoader 统一读库，启动时全量构建，之后随 CourseChangeAppliedEvent 增量更新（本实例与其他实例的增删改都会到达），
+ * 只有已选人数变化的事件被忽略。
+ */
+@Component
+public class CourseSearchIndex implements CourseIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseSearchIndex.class);
+
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+    private static final int MAX_TERMS = 8;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // 以下结构由 lock 保护
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    private final ArrayDeque<Integer> freeDocIds = new ArrayDeque<>();
+    private final Map<Integer, Postings> postings = new HashMap<>();
+    private boolean built;
+    private LocalDateTime builtAt;
+
+    private final AtomicLong queryCount = new AtomicLong();
+    private final AtomicLong queryNanos = new AtomicLong();
+    private final AtomicLong updateCount = new AtomicLong();
+
+    /**
+     * 全量构建索引（课程由 CourseIndexLoader 统一读取）
+     */
+    @Override
+    public void rebuild(List<Course> courses) {
+        lock.writeLock().lock();
+        try {
+            docIds.clear();
+            docs.clear();
+            freeDocIds.clear();
+            postings.clear();
+            for (Course course : courses) {
+                put(course);
+            }
+            built = true;
+            builtAt = LocalDateTime.now();
+            logger.info("课程搜索索引构建完成，课程数: {}，词项数: {}", docIds.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 增量更新：替换课程的索引项，课程已删除时移除
+     */
+    @Override
+    public void apply(String courseId, Course course) {
+        lock.writeLock().lock();
+        try {
+            if (course != null) {
+                put(course);
+            } else {
+                remove(courseId);
+            }
+            updateCount.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 只有已选人数变化时索引内容不变
+     */
+    @Override
+    public boolean accepts(CourseChangeType type) {
+        return type != CourseChangeType.SEATS;
+    }
+
+    /**
+     * 搜索课程
+     *
+     * @param q     查询串，空白分隔的多个词需同时命中
+     * @param limit 返回条数，默认20，最大100
+     */
+    public CourseSearchResult search(String q, Integer limit) {
+        long start = System.nanoTime();
+        List<String> terms = parseTerms(q);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        int size = limit == null ? DEFAULT_LIMIT : Math.min(Math.max(limit, 1), MAX_LIMIT);
+
+        List<CourseSearchHit> hits;
+        int total = 0;
+        lock.readLock().lock();
+        try {
+            int[] candidates = candidates(terms);
+            PriorityQueue<ScoredDoc> top = new PriorityQueue<>(size + 1, ScoredDoc.WORST_FIRST);
+            for (int docId : candidates) {
+                Doc doc = docs.get(docId);
+                int score = score(doc, terms);
+                if (score == 0) {
+                    continue;
+                }
+                total++;
+                top.offer(new ScoredDoc(doc, score));
+                if (top.size() > size) {
+                    top.poll();
+                }
+            }
+            hits = new ArrayList<>(top.size());
+            List<ScoredDoc> ranked = new ArrayList<>(top);
+            ranked.sort(ScoredDoc.WORST_FIRST.reversed());
+            for (ScoredDoc scored : ranked) {
+                Doc doc = scored.doc();
+                hits.add(new CourseSearchHit(doc.courseId(), doc.code(), doc.title(), doc.instructor(), scored.score()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        long nanos = System.nanoTime() - start;
+        queryCount.incrementAndGet();
+        queryNanos.addAndGet(nanos);
+        return new CourseSearchResult(q, total, nanos / 1000, hits);
+    }
+
+    /**
+     * 索引运行状态
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            long postingCount = 0;
+            for (Postings p : postings.values()) {
+                postingCount += p.size;
+            }
+            stats.put("built", built);
+            stats.put("builtAt", builtAt);
+            stats.put("courses", docIds.size());
+            stats.put("grams", postings.size());
+            stats.put("postings", postingCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+        long queries = queryCount.get();
+        stats.put("queries", queries);
+        stats.put("avgQueryMicros", queries == 0 ? 0 : queryNanos.get() / queries / 1000);
+        stats.put("updates", updateCount.get());
+        return stats;
+    }
+
+    /**
+     * 各词 gram 的倒排表按长度从短到长求交集，任一 gram 不存在时直接返回空
+     */
+    private int[] candidates(List<String> terms) {
+        Set<Integer> grams = new LinkedHashSet<>();
+        for (String term : terms) {
+            queryGrams(term, grams);
+        }
+        List<Postings> lists = new ArrayList<>(grams.size());
+        for (int gram : grams) {
+            Postings p = postings.get(gram);
+            if (p == null) {
+                return new int[0];
+            }
+            lists.add(p);
+        }
+        lists.sort(Comparator.comparingInt(p -> p.size));
+        int[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+        int length = result.length;
+        for (int i = 1; i < lists.size() && length > 0; i++) {
+            length = intersect(result, length, lists.get(i));
+        }
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    /**
+     * 原地求交集：result[0, length) 中保留同时出现在 other 中的ID，利用有序性在 other 上二分跳跃
+     */
+    private static int intersect(int[] result, int length, Postings other) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < length && from < other.size; i++) {
+            int pos = Arrays.binarySearch(other.ids, from, other.size, result[i]);
+            if (pos >= 0) {
+                result[kept++] = result[i];
+                from = pos + 1;
+            } else {
+                from = -pos - 1;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * 单个词的得分，未命中任何字段时为0（bigram 候选可能是误报，这里按子串核对）
+     */
+    private static int score(Doc doc, List<String> terms) {
+        int total = 0;
+        for (String term : terms) {
+            int score = 0;
+            if (doc.normCode().equals(term)) {
+                score += 100;
+            } else if (doc.normCode().startsWith(term)) {
+                score += 50;
+            } else if (doc.normCode().contains(term)) {
+                score += 20;
+            }
+            int pos = doc.normTitle().indexOf(term);
+            if (pos >= 0) {
+                if (pos == 0) {
+                    score += 30;
+                } else if (doc.normTitle().charAt(pos - 1) == ' ') {
+                    score += 20;
+                } else {
+                    score += 10;
+                }
+                // 词占标题的比例越高越相关
+                score += 10 * term.length() / doc.normTitle().length();
+            }
+            if (doc.normInstructor().startsWith(term)) {
+                score += 15;
+            } else if (doc.normInstructor().contains(term)) {
+                score += 8;
+            }
+            if (score == 0) {
+                return 0;
+            }
+            total += score;
+        }
+        return total;
+    }
+
+    private void put(Course course) {
+        Integer existing = docIds.get(course.getId());
+        if (existing != null) {
+            removePostings(existing, docs.get(existing));
+        }
+        String instructor = course.getInstructor() != null ? course.getInstructor().getName() : null;
+        String normCode = normalize(course.getCode());
+        String normTitle = normalize(course.getTitle());
+        String normInstructor = normalize(instructor);
+        Set<Integer> gramSet = new LinkedHashSet<>();
+        docGrams(normCode, gramSet);
+        docGrams(normTitle, gramSet);
+        docGrams(normInstructor, gramSet);
+        int[] grams = gramSet.stream().mapToInt(Integer::intValue).toArray();
+        Doc doc = new Doc(course.getId(), course.getCode(), course.getTitle(), instructor,
+                normCode, normTitle, normInstructor, grams);
+
+        int docId;
+        if (existing != null) {
+            docId = existing;
+            docs.set(docId, doc);
+        } else if (!freeDocIds.isEmpty()) {
+            docId = freeDocIds.pop();
+            docs.set(docId, doc);
+        } else {
+            docId = docs.size();
+            docs.add(doc);
+        }
+        docIds.put(course.getId(), docId);
+        for (int gram : grams) {
+            postings.computeIfAbsent(gram, k -> new Postings()).add(docId);
+        }
+    }
+
+    private void remove(String courseId) {
+        Integer docId = docIds.remove(courseId);
+        if (docId != null) {
+            removePostings(docId, docs.get(docId));
+            docs.set(docId, null);
+            freeDocIds.push(docId);
+        }
+    }
+
+    private void removePostings(int docId, Doc doc) {
+        for (int gram : doc.grams()) {
+            Postings p = postings.get(gram);
+            if (p != null && p.remove(docId) && p.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * 规范化：NFKC（全角转半角）+ 小写，连续的非字母数字字符折叠为一个空格
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(value, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder sb = new StringBuilder(normalized.length());
+        boolean separator = true;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+                separator = false;
+            } else if (!separator) {
+                sb.append(' ');
+                separator = true;
+            }
+        }
+        int length = sb.length();
+        return length > 0 && sb.charAt(length - 1) == ' ' ? sb.substring(0, length - 1) : sb.toString();
+    }
+
+    private static List<String> parseTerms(String q) {
+        List<String> terms = new ArrayList<>();
+        if (q == null) {
+            return terms;
+        }
+        for (String term : normalize(q).split(" ")) {
+            if (!term.isEmpty() && !terms.contains(term) && terms.size() < MAX_TERMS) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * 文档侧：每个字符的单字 gram 和相邻两字的 bigram（不跨越分隔符）
+     */
+    private static void docGrams(String normalized, Set<Integer> grams) {
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (c == ' ') {
+                continue;
+            }
+            grams.add(unigram(c));
+            if (i + 1 < normalized.length() && normalized.charAt(i + 1) != ' ') {
+                grams.add(bigram(c, normalized.charAt(i + 1)));
+            }
+        }
+    }
+
+    /**
+     * 查询侧：单字词用单字 gram，多字词只用 bigram（选择性更好）
+     */
+    private static void queryGrams(String term, Set<Integer> grams) {
+        if (term.length() == 1) {
+            grams.add(unigram(term.charAt(0)));
+            return;
+        }
+        for (int i = 0; i + 1 < term.length(); i++) {
+            grams.add(bigram(term.charAt(i), term.charAt(i + 1)));
+        }
+    }
+
+    private static int unigram(char c) {
+        return c;
+    }
+
+    /**
+     * 两个UTF-16字符打包为一个int，首字符非0，因此不会与单字 gram 冲突
+     */
+    private static int bigram(char first, char second) {
+        return (first << 16) | second;
+    }
+
+    /**
+     * 索引中的一门课程
+     */
+    private record Doc(String courseId, String code, String title, String instructor,
+                       String normCode, String normTitle, String normInstructor, int[] grams) {
+    }
+
+    private record ScoredDoc(Doc doc, int score) {
+        /** 得分低的在前，同分时代码大的在前（堆顶即最先淘汰的） */
+        static final Comparator<ScoredDoc> WORST_FIRST = Comparator.comparingInt(ScoredDoc::score)
+                .thenComparing(scored -> scored.doc().normCode(), Comparator.<String>reverseOrder());
+    }
+
+    /**
+     * 有序的文档ID倒排表
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int docId) {
+            // 全量构建时文档ID递增，直接追加
+            if (size == 0 || ids[size - 1] < docId) {
+                ensureCapacity();
+                ids[size++] = docId;
+                return;
+            }
+            int pos = Arrays.binarySearch(ids, 0, size, docId);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            ensureCapacity();
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = docId;
+            size++;
+        }
+
+        private boolean remove(int docId) {
+            int pos = Arrays.binarySearch(ids, 0, size, docId);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+    }
+}
@@ -1,13 +1,40 @@
 package com.zjgsu.szw.coursecloud.catalog.service;
 
+import com.zjgsu.szw.coursecloud.catalog.config.EnrolledDeltaProperties;
+import com.zjgsu.szw.coursecloud.catalog.dto.CursorPage;
+import com.zjgsu.szw.coursecloud.catalog.dto.EnrolledDeltaResult;
+import com.zjgsu.szw.coursecloud.catalog.dto.SeatReservation;
+import com.zjgsu.szw.coursecloud.catalog.exception.DuplicateBatchException;
 import com.zjgsu.szw.coursecloud.catalog.exception.ResourceNotFoundException;
 import com.zjgsu.szw.coursecloud.catalog.model.Course;
+import com.zjgsu.szw.coursecloud.catalog.model.CourseChangeType;
+import com.zjgsu.szw.coursecloud.catalog.model.ScheduleSlot;
+import com.zjgsu.szw.coursecloud.catalog.model.SeatReservationRecord;
 import com.zjgsu.szw.coursecloud.catalog.repository.CourseRepository;
+import com.zjgsu.szw.coursecloud.catalog.repository.EnrolledDeltaBatchRepository;
+import com.zjgsu.szw.coursecloud.catalog.repository.SeatReservationRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
 /**
@@ -16,10 +43,32 @@ import java.util.regex.Pattern;
 @Service
 public class CourseService {
     private final CourseRepository courseRepository;
+    private final SeatLedger seatLedger;
+    private final CatalogVersion catalogVersion;
+    private final CourseCacheInvalidator courseCacheInvalidator;
+    private final EnrolledDeltaBatchRepository enrolledDeltaBatchRepository;
+    private final SeatReservationRecordRepository seatReservationRecordRepository;
+    private final EnrolledDeltaProperties enrolledDeltaProperties;
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
+    private static final Logger logger = LoggerFactory.getLogger(CourseService.class);
 
-    public CourseService(CourseRepository courseRepository) {
+    private final AtomicLong deltaRequests = new AtomicLong();
+    private final AtomicLong duplicateBatches = new AtomicLong();
+    private final AtomicLong clampedDeltas = new AtomicLong();
+    private final AtomicLong clampedSeats = new AtomicLong();
+
+    public CourseService(CourseRepository courseRepository, SeatLedger seatLedger, CatalogVersion catalogVersion,
+                         CourseCacheInvalidator courseCacheInvalidator,
+                         EnrolledDeltaBatchRepository enrolledDeltaBatchRepository,
+                         SeatReservationRecordRepository seatReservationRecordRepository,
+                         EnrolledDeltaProperties enrolledDeltaProperties) {
         this.courseRepository = courseRepository;
+        this.seatLedger = seatLedger;
+        this.catalogVersion = catalogVersion;
+        this.courseCacheInvalidator = courseCacheInvalidator;
+        this.enrolledDeltaBatchRepository = enrolledDeltaBatchRepository;
+        this.seatReservationRecordRepository = seatReservationRecordRepository;
+        this.enrolledDeltaProperties = enrolledDeltaProperties;
     }
 
     /**
@@ -29,6 +78,16 @@ public class CourseService {
         return courseRepository.findAll();
     }
 
+    /**
+     * 按主键游标分页查询课程
+     */
+    public CursorPage<Course> findPage(String cursor, Integer size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        List<Course> rows = courseRepository.findByIdGreaterThanOrderByIdAsc(
+                CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, Course::getId);
+    }
+
     /**
      * 根据ID查询课程
      */
@@ -37,33 +96,102 @@ public class CourseService {
     }
 
     /**
-     * 根据课程代码查询课程
+     * 绕过二级缓存按ID查询课程（生成按 ETag 缓存的响应时使用，保证内容不旧于 ETag 对应的版本）
+     */
+    public Optional<Course> findFreshById(String id) {
+        return courseRepository.findByIdBypassingCache(id);
+    }
+
+    /**
+     * 根据ID批量查询课程，不存在的ID不会出现在结果中
+     */
+    public List<Course> findByIds(Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return courseRepository.findAllById(ids);
+    }
+
+    /**
+     * 按星期和开始时间范围查询课程（开始时间落在 [from, to) 内），走 (day_of_week, start_minute) 索引
+     *
+     * @param days  逗号分隔的 MONDAY..SUNDAY，为空时不限
+     * @param from  HH:mm，为空时从 00:00 起
+     * @param to    HH:mm，为空时到 24:00 止
+     * @param limit 返回条数，默认50，最大500
+     */
+    public List<Course> findByStartTimeRange(String days, String from, String to, Integer limit) {
+        int fromMinute = from == null || from.isBlank() ? 0 : ScheduleSlot.parseMinute(from);
+        int toMinute = to == null || to.isBlank() ? ScheduleSlot.MINUTES_PER_DAY : ScheduleSlot.parseMinute(to);
+        if (toMinute <= fromMinute) {
+            throw new IllegalArgumentException("Time window end must be after start");
+        }
+        Set<DayOfWeek> daySet = EnumSet.noneOf(DayOfWeek.class);
+        if (days == null || days.isBlank()) {
+            daySet.addAll(EnumSet.allOf(DayOfWeek.class));
+        } else {
+            for (String day : days.split(",")) {
+                try {
+                    daySet.add(DayOfWeek.valueOf(day.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid day of week: " + day);
+                }
+            }
+        }
+        return courseRepository.findByDayAndStartMinuteRange(daySet, fromMinute, toMinute,
+                Limit.of(CursorPage.normalizeSize(limit)));
+    }
+
+    /**
+     * 根据课程代码查询课程（经过自然ID缓存）
+     * 数据库比较课程代码不区分大小写，因此只在忽略大小写后仍不相同时才认为缓存的映射已过期
      */
     public Optional<Course> findByCode(String code) {
-        return courseRepository.findByCode(code);
+        Optional<Course> course = courseRepository.loadByCode(code);
+        if (course.isPresent() && !code.equalsIgnoreCase(course.get().getCode())) {
+            courseCacheInvalidator.onNaturalIdMismatch(code, course.get().getId());
+            return courseRepository.findByCode(code);
+        }
+        return course;
     }
 
     /**
      * 创建课程
      */
+    @Transactional
     public Course createCourse(Course course) {
         validateCourse(course, null);
 
         // 生成UUID作为课程ID
         course.setId(UUID.randomUUID().toString());
         course.setEnrolled(0);
+        course.setVersion(null);
         if (course.getExpectedAttendance() <= 0) {
             course.setExpectedAttendance(course.getCapacity()); // 如果未提供，则默认为课程容量
         }
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        catalogVersion.recordChange(saved.getId(), CourseChangeType.CREATE);
+        return saved;
     }
 
     /**
      * 更新课程
      */
+    @Transactional
     public Course updateCourse(String id, Course course) {
-        Course existing = courseRepository.findById(id)
+        return updateCourse(id, course, null);
+    }
+
+    /**
+     * 条件更新课程（If-Match），ifMatch 为空时不校验版本
+     * 校验前先锁住课程行，占座等写入同样需要该行锁，因此校验通过后到提交前版本不会再变化
+     */
+    @Transactional
+    public Course updateCourse(String id, Course course, String ifMatch) {
+        Optional<Course> found = ifMatch != null ? courseRepository.findByIdForUpdate(id) : courseRepository.findById(id);
+        Course existing = found
                 .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + id));
+        catalogVersion.checkIfMatch(id, ifMatch);
 
         validateCourse(course, id);
 
@@ -73,17 +201,22 @@ public class CourseService {
             course.setExpectedAttendance(course.getCapacity());
         }
         course.setCreatedAt(existing.getCreatedAt());
-        return courseRepository.save(course);
+        course.setVersion(existing.getVersion());
+        Course saved = courseRepository.save(course);
+        catalogVersion.recordChange(id, CourseChangeType.UPDATE);
+        return saved;
     }
 
     /**
      * 删除课程
      */
+    @Transactional
     public void deleteCourse(String id) {
         if (!courseRepository.existsById(id)) {
             throw new ResourceNotFoundException("Course not found with id: " + id);
         }
         courseRepository.deleteById(id);
+        catalogVersion.recordChange(id, CourseChangeType.DELETE);
     }
 
     /**
@@ -96,21 +229,229 @@ public class CourseService {
     /**
      * 增加课程选课人数
      */
+    @Transactional
     public void incrementEnrolled(String courseId) {
+        if (seatLedger.isEnabled()) {
+            seatLedger.increment(courseId);
+            return;
+        }
+        if (courseRepository.incrementEnrolled(courseId) == 0) {
+            throw new ResourceNotFoundException("Course not found with id: " + courseId);
+        }
+        catalogVersion.recordChange(courseId, CourseChangeType.SEATS);
+    }
+
+    /**
+     * 减少课程选课人数（已选人数不会减到0以下）
+     */
+    @Transactional
+    public void decrementEnrolled(String courseId) {
+        if (seatLedger.isEnabled()) {
+            seatLedger.release(courseId, 1);
+            return;
+        }
+        if (courseRepository.releaseSeats(courseId, 1) > 0) {
+            catalogVersion.recordChange(courseId, CourseChangeType.SEATS);
+        } else if (!courseRepository.existsById(courseId)) {
+            throw new ResourceNotFoundException("Course not found with id: " + courseId);
+        }
+    }
+
+    /**
+     * 原子占座
+     * 通过条件更新 enrolled + seats <= capacity 实现，多副本并发下不会超卖；课程已满时返回 success=false。
+     * 多座位请求在剩余座位不足时加行锁按剩余数量部分授予（组提交/批量选课一次占用多个座位）。
+     * 开启座位账本时改由内存计数器处理。
+     * 携带 reservationId 时在同一事务内记录授予的座位数；同一 reservationId 再次请求时直接返回记录的结果，不再占座。
+     */
+    @Transactional
+    public SeatReservation reserveSeats(String courseId, int seats, String reservationId) {
+        if (seats <= 0) {
+            throw new IllegalArgumentException("Seats must be greater than 0");
+        }
+        if (reservationId == null || reservationId.isBlank()) {
+            return doReserveSeats(courseId, seats);
+        }
+        if (reservationId.length() > 64) {
+            throw new IllegalArgumentException("Reservation id must not exceed 64 characters");
+        }
+        Optional<SeatReservationRecord> existing = seatReservationRecordRepository.findById(reservationId);
+        if (existing.isPresent()) {
+            return toSeatReservation(existing.get());
+        }
+        SeatReservation reservation = doReserveSeats(courseId, seats);
+        seatReservationRecordRepository.save(
+                new SeatReservationRecord(reservationId, courseId, seats, reservation.getGranted()));
+        return reservation;
+    }
+
+    /**
+     * 查询按 reservationId 记录的占座结果，供调用方在无法确认占座结果时决定释放多少座位
+     */
+    @Transactional(readOnly = true)
+    public SeatReservation findReservation(String reservationId) {
+        return seatReservationRecordRepository.findById(reservationId)
+                .map(this::toSeatReservation)
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + reservationId));
+    }
+
+    private SeatReservation toSeatReservation(SeatReservationRecord record) {
+        return courseRepository.findById(record.getCourseId())
+                .map(course -> SeatReservation.of(course, record.getRequested(), record.getGranted()))
+                .orElseGet(() -> new SeatReservation(record.getCourseId(), record.getRequested(),
+                        record.getGranted(), 0, 0));
+    }
+
+    private SeatReservation doReserveSeats(String courseId, int seats) {
+        if (seatLedger.isEnabled()) {
+            return seatLedger.reserve(courseId, seats);
+        }
+
+        int granted = 0;
+        if (courseRepository.reserveSeats(courseId, seats) > 0) {
+            granted = seats;
+        } else if (seats > 1) {
+            Course locked = courseRepository.findByIdForUpdate(courseId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + courseId));
+            int available = Math.min(seats, locked.getCapacity() - locked.getEnrolled());
+            if (available > 0 && courseRepository.reserveSeats(courseId, available) > 0) {
+                granted = available;
+            }
+        }
+
+        if (granted > 0) {
+            catalogVersion.recordChange(courseId, CourseChangeType.SEATS);
+        }
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + courseId));
-        course.setEnrolled(course.getEnrolled() + 1);
-        courseRepository.save(course);
+        return SeatReservation.of(course, seats, granted);
     }
 
     /**
-     * 减少课程选课人数
+     * 释放座位（占座的补偿操作）
      */
-    public void decrementEnrolled(String courseId) {
+    @Transactional
+    public SeatReservation releaseSeats(String courseId, int seats) {
+        if (seats <= 0) {
+            throw new IllegalArgumentException("Seats must be greater than 0");
+        }
+        if (seatLedger.isEnabled()) {
+            return seatLedger.release(courseId, seats);
+        }
+        int released = courseRepository.releaseSeats(courseId, seats) > 0 ? seats : 0;
+        if (released > 0) {
+            catalogVersion.recordChange(courseId, CourseChangeType.SEATS);
+        }
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + courseId));
-        course.setEnrolled(course.getEnrolled() - 1);
-        courseRepository.save(course);
+        return SeatReservation.of(course, seats, released);
+    }
+
+    /**
+     * 批量调整已选人数（课程ID -> 有符号增量），在一个事务内完成
+     * 先按主键顺序锁定涉及的课程，按调整前的已选人数算出实际生效的增量（增加不超过容量、减少不低于0），
+     * 再把相同增量的课程合并为一条 UPDATE ... WHERE id IN (...)。
+     * 返回各课程请求与实际生效的增量，被截断的调整记录日志并计数；不存在的课程不出现在结果中。
+     * 携带 batchId 时先在同一事务内登记批次，同一批次重复提交抛出 DuplicateBatchException（409），不再调整。
+     */
+    @Transactional
+    public Map<String, EnrolledDeltaResult> applyEnrolledDeltas(String batchId, Map<String, Integer> deltas) {
+        if (deltas == null || deltas.isEmpty()) {
+            throw new IllegalArgumentException("Deltas are required");
+        }
+        if (batchId != null && !batchId.isBlank()) {
+            if (batchId.length() > 64) {
+                throw new IllegalArgumentException("Batch id must not exceed 64 characters");
+            }
+            if (enrolledDeltaBatchRepository.insertIfAbsent(batchId, LocalDateTime.now()) == 0) {
+                duplicateBatches.incrementAndGet();
+                throw new DuplicateBatchException("Enrolled delta batch already applied: " + batchId);
+            }
+        }
+        Map<String, EnrolledDeltaResult> results;
+        if (seatLedger.isEnabled()) {
+            results = seatLedger.applyDeltas(deltas);
+        } else {
+            results = applyEnrolledDeltasToDatabase(deltas);
+        }
+        recordClamps(results.values());
+        return results;
+    }
+
+    /**
+     * 批量调整已选人数的统计：请求次数、被拒绝的重复批次、被截断的调整数和截断掉的座位数
+     */
+    public Map<String, Object> enrolledDeltaStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", deltaRequests.get());
+        stats.put("duplicateBatches", duplicateBatches.get());
+        stats.put("clampedDeltas", clampedDeltas.get());
+        stats.put("clampedSeats", clampedSeats.get());
+        return stats;
+    }
+
+    /**
+     * 清理过期的已生效批次记录和占座记录
+     */
+    @Scheduled(fixedDelayString = "${catalog.enrolled-delta.prune-interval-ms:3600000}")
+    @Transactional
+    public void pruneIdempotencyRecords() {
+        LocalDateTime before = LocalDateTime.now().minusHours(enrolledDeltaProperties.getBatchRetentionHours());
+        int batches = enrolledDeltaBatchRepository.deleteOlderThan(before);
+        int reservations = seatReservationRecordRepository.deleteOlderThan(before);
+        if (batches > 0 || reservations > 0) {
+            logger.debug("清理已生效的已选人数调整批次: {} 行，占座记录: {} 行", batches, reservations);
+        }
+    }
+
+    private Map<String, EnrolledDeltaResult> applyEnrolledDeltasToDatabase(Map<String, Integer> deltas) {
+        Set<String> courseIds = new TreeSet<>();
+        deltas.forEach((courseId, delta) -> {
+            if (delta != null && delta != 0) {
+                courseIds.add(courseId);
+            }
+        });
+        if (courseIds.isEmpty()) {
+            return Map.of();
+        }
+
+        // 固定加锁顺序，降低并发批量调整之间的死锁概率；行锁保证下面算出的增量与 UPDATE 的结果一致
+        Map<String, EnrolledDeltaResult> results = new LinkedHashMap<>();
+        Map<Integer, List<String>> coursesByApplied = new TreeMap<>();
+        for (Course course : courseRepository.findAllByIdForUpdate(courseIds)) {
+            int requested = deltas.get(course.getId());
+            int applied = EnrolledDeltaResult.clamp(requested, course.getCapacity(), course.getEnrolled());
+            results.put(course.getId(), new EnrolledDeltaResult(course.getId(), requested, applied,
+                    course.getCapacity(), course.getEnrolled() + applied));
+            if (applied != 0) {
+                coursesByApplied.computeIfAbsent(applied, k -> new ArrayList<>()).add(course.getId());
+            }
+        }
+
+        List<String> changed = new ArrayList<>();
+        coursesByApplied.forEach((applied, ids) -> {
+            if (applied > 0) {
+                courseRepository.addEnrolledUpToCapacity(ids, applied);
+            } else {
+                courseRepository.subtractEnrolledToZero(ids, -applied);
+            }
+            changed.addAll(ids);
+        });
+        catalogVersion.recordChanges(changed, CourseChangeType.SEATS);
+        return results;
+    }
+
+    private void recordClamps(Collection<EnrolledDeltaResult> results) {
+        deltaRequests.incrementAndGet();
+        for (EnrolledDeltaResult result : results) {
+            if (result.isClamped()) {
+                clampedDeltas.incrementAndGet();
+                clampedSeats.addAndGet(Math.abs(result.getRequested() - result.getApplied()));
+                logger.warn("已选人数调整被截断 - 课程: {}, 请求: {}, 实际: {}, 容量: {}, 调整后: {}",
+                        result.getCourseId(), result.getRequested(), result.getApplied(),
+                        result.getCapacity(), result.getEnrolled());
+            }
+        }
     }
 
     /**
@@ -147,6 +488,11 @@ public class CourseService {
         if (course.getSchedule().getStartTime() == null || course.getSchedule().getEndTime() == null) {
             throw new IllegalArgumentException("Schedule startTime and endTime are required");
         }
+        int startMinute = ScheduleSlot.parseMinute(course.getSchedule().getStartTime());
+        int endMinute = ScheduleSlot.parseMinute(course.getSchedule().getEndTime());
+        if (endMinute <= startMinute) {
+            throw new IllegalArgumentException("Schedule endTime must be after startTime");
+        }
         if (course.getCapacity() <= 0) {
             throw new IllegalArgumentException("Course capacity must be greater than 0");
         }
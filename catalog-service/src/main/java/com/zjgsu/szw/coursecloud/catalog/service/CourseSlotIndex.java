@@ -0,0 +1,334 @@
+package com.zjgsu.szw.coursecloud.catalog.service;
+
+import com.zjgsu.szw.coursecloud.catalog.dto.CourseSlotHit;
+import com.zjgsu.szw.coursecloud.catalog.dto.CourseSlotResult;
+import com.zjgsu.szw.coursecloud.catalog.model.Course;
+import com.zjgsu.szw.coursecloud.catalog.model.ScheduleSlot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 课程时段索引（查找与学生课表不冲突且有余量的课程）
+ *
+ * 一周按 7 天 × 288 个 5 分钟时段编号（与 enrollment-service 的学生课表位图一致），每门课程占一段 [from, to)。
+ * 课程按占用的时段区间分组，组按开始时段有序：实际课表中的时间段种类远少于课程数，
+ * 查询时按星期和时间窗口只取范围内的组，每组用 1~2 个字的位运算与学生的占用位图比较，
+ * 冲突的组整体跳过，只有不冲突的组才展开其中的课程检查余量。
+ *
+ * 由 CourseIndexLoader 统一读库，启动时全量构建，之后随 CourseChangeAppliedEvent 增量更新（包括已选人数变化），
+ * 没有上课时间或时间无法解析的课程不进入任何组。
+ */
+@Component
+public class CourseSlotIndex implements CourseIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseSlotIndex.class);
+
+    private static final int SLOT_MINUTES = 5;
+    private static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    private static final int WEEK_MINUTES = 7 * 24 * 60;
+    private static final int WORDS = (7 * SLOTS_PER_DAY + 63) / 64;
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+    private static final int MAX_BUSY_RANGES = 200;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // 以下结构由 lock 保护
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final TreeMap<Long, Group> groups = new TreeMap<>();
+    private int unscheduled;
+    private boolean built;
+    private LocalDateTime builtAt;
+
+    private final AtomicLong queryCount = new AtomicLong();
+    private final AtomicLong queryNanos = new AtomicLong();
+    private final AtomicLong updateCount = new AtomicLong();
+
+    /**
+     * 全量构建索引（课程由 CourseIndexLoader 统一读取）
+     */
+    @Override
+    public void rebuild(List<Course> courses) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            groups.clear();
+            unscheduled = 0;
+            for (Course course : courses) {
+                put(course);
+            }
+            built = true;
+            builtAt = LocalDateTime.now();
+            logger.info("课程时段索引构建完成，课程数: {}，时段组数: {}", entries.size(), groups.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 增量更新：替换课程的索引项（已选人数变化同样需要刷新余量），课程已删除时移除
+     */
+    @Override
+    public void apply(String courseId, Course course) {
+        lock.writeLock().lock();
+        try {
+            if (course != null) {
+                put(course);
+            } else {
+                remove(courseId);
+            }
+            updateCount.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询与给定占用时段不冲突、且有剩余座位的课程（首尾相接不算冲突）
+     *
+     * @param busy  已占用的时段，逗号分隔的 "开始-结束"，单位为从周一 00:00 起的分钟数（左闭右开）
+     * @param days  只返回这些星期的课程，逗号分隔的 MONDAY..SUNDAY，为空时不限
+     * @param from  时间窗口开始 HH:mm，课程须在窗口内开始
+     * @param to    时间窗口结束 HH:mm，课程须在窗口内结束
+     * @param limit 返回条数，默认50，最大500
+     */
+    public CourseSlotResult findNonConflicting(String busy, String days, String from, String to, Integer limit) {
+        long start = System.nanoTime();
+        long[] busyBits = parseBusy(busy);
+        Set<DayOfWeek> daySet = parseDays(days);
+        int windowFrom = from == null || from.isBlank() ? 0 : ScheduleSlot.parseMinute(from) / SLOT_MINUTES;
+        int windowTo = to == null || to.isBlank() ? SLOTS_PER_DAY : ceilSlot(ScheduleSlot.parseMinute(to));
+        if (windowTo <= windowFrom) {
+            throw new IllegalArgumentException("Time window end must be after start");
+        }
+        int size = limit == null ? DEFAULT_LIMIT : Math.min(Math.max(limit, 1), MAX_LIMIT);
+
+        List<CourseSlotHit> hits = new ArrayList<>();
+        int total = 0;
+        lock.readLock().lock();
+        try {
+            for (DayOfWeek day : daySet) {
+                int base = (day.getValue() - 1) * SLOTS_PER_DAY;
+                // 只取开始时段落在窗口内的组
+                for (Group group : groups.subMap(key(base + windowFrom, 0), true, key(base + windowTo, 0), false).values()) {
+                    if (group.to > base + windowTo || intersects(busyBits, group.from, group.to)) {
+                        continue;
+                    }
+                    for (String courseId : group.courseIds) {
+                        Entry entry = entries.get(courseId);
+                        if (entry.enrolled() >= entry.capacity()) {
+                            continue;
+                        }
+                        total++;
+                        if (hits.size() < size) {
+                            hits.add(entry.toHit());
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        long nanos = System.nanoTime() - start;
+        queryCount.incrementAndGet();
+        queryNanos.addAndGet(nanos);
+        return new CourseSlotResult(total, nanos / 1000, hits);
+    }
+
+    /**
+     * 索引运行状态
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("built", built);
+            stats.put("builtAt", builtAt);
+            stats.put("courses", entries.size());
+            stats.put("unscheduled", unscheduled);
+            stats.put("slotGroups", groups.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        long queries = queryCount.get();
+        stats.put("queries", queries);
+        stats.put("avgQueryMicros", queries == 0 ? 0 : queryNanos.get() / queries / 1000);
+        stats.put("updates", updateCount.get());
+        return stats;
+    }
+
+    private void put(Course course) {
+        remove(course.getId());
+        Entry entry = Entry.of(course);
+        entries.put(course.getId(), entry);
+        if (entry.from() < 0) {
+            unscheduled++;
+            return;
+        }
+        groups.computeIfAbsent(key(entry.from(), entry.to()), k -> new Group(entry.from(), entry.to()))
+                .courseIds.add(course.getId());
+    }
+
+    private void remove(String courseId) {
+        Entry entry = entries.remove(courseId);
+        if (entry == null) {
+            return;
+        }
+        if (entry.from() < 0) {
+            unscheduled--;
+            return;
+        }
+        Long key = key(entry.from(), entry.to());
+        Group group = groups.get(key);
+        if (group != null && group.courseIds.remove(courseId) && group.courseIds.isEmpty()) {
+            groups.remove(key);
+        }
+    }
+
+    /**
+     * 组键：开始时段在高位，使组按开始时间有序
+     */
+    private static long key(int from, int to) {
+        return ((long) from << 16) | to;
+    }
+
+    /**
+     * 只检查区间覆盖的字，每个字一次 AND
+     */
+    private static boolean intersects(long[] bits, int from, int to) {
+        for (int bit = from; bit < to; ) {
+            int word = bit >>> 6;
+            int end = Math.min(to, (word + 1) << 6);
+            if ((bits[word] & rangeMask(bit, end)) != 0) {
+                return true;
+            }
+            bit = end;
+        }
+        return false;
+    }
+
+    private static void setRange(long[] bits, int from, int to) {
+        for (int bit = from; bit < to; ) {
+            int word = bit >>> 6;
+            int end = Math.min(to, (word + 1) << 6);
+            bits[word] |= rangeMask(bit, end);
+            bit = end;
+        }
+    }
+
+    /**
+     * 同一个字内 [from, to) 位的掩码
+     */
+    private static long rangeMask(int from, int to) {
+        int length = to - from;
+        long mask = length == 64 ? -1L : (1L << length) - 1;
+        return mask << (from & 63);
+    }
+
+    /**
+     * 解析占用时段 "开始-结束,..."（周内分钟数），开始向下、结束向上取整到 5 分钟时段
+     */
+    private static long[] parseBusy(String busy) {
+        long[] bits = new long[WORDS];
+        if (busy == null || busy.isBlank()) {
+            return bits;
+        }
+        String[] ranges = busy.split(",");
+        if (ranges.length > MAX_BUSY_RANGES) {
+            throw new IllegalArgumentException("Too many busy ranges, at most " + MAX_BUSY_RANGES);
+        }
+        for (String range : ranges) {
+            String[] parts = range.trim().split("-");
+            try {
+                int start = Integer.parseInt(parts[0].trim());
+                int end = Integer.parseInt(parts[1].trim());
+                if (parts.length != 2 || start < 0 || end > WEEK_MINUTES || end <= start) {
+                    throw new IllegalArgumentException("Invalid busy range: " + range);
+                }
+                setRange(bits, start / SLOT_MINUTES, ceilSlot(end));
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid busy range: " + range);
+            }
+        }
+        return bits;
+    }
+
+    private static Set<DayOfWeek> parseDays(String days) {
+        if (days == null || days.isBlank()) {
+            return EnumSet.allOf(DayOfWeek.class);
+        }
+        Set<DayOfWeek> set = EnumSet.noneOf(DayOfWeek.class);
+        for (String day : days.split(",")) {
+            try {
+                set.add(DayOfWeek.valueOf(day.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid day of week: " + day);
+            }
+        }
+        return set;
+    }
+
+    private static int ceilSlot(int minute) {
+        return (minute + SLOT_MINUTES - 1) / SLOT_MINUTES;
+    }
+
+    /**
+     * 占用同一时段区间的课程，按课程ID有序
+     */
+    private static final class Group {
+        private final int from;
+        private final int to;
+        private final TreeSet<String> courseIds = new TreeSet<>();
+
+        private Group(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    /**
+     * 索引中的一门课程，from < 0 表示没有可用的上课时间
+     */
+    private record Entry(String courseId, String code, String title, String instructor, DayOfWeek day,
+                         String startTime, String endTime, int from, int to, int capacity, int enrolled) {
+
+        static Entry of(Course course) {
+            String instructor = course.getInstructor() != null ? course.getInstructor().getName() : null;
+            ScheduleSlot schedule = course.getSchedule();
+            int from = -1;
+            int to = -1;
+            Integer start = schedule != null ? schedule.getStartMinute() : null;
+            Integer end = schedule != null ? schedule.getEndMinute() : null;
+            if (schedule != null && schedule.getDayOfWeek() != null && start != null && end != null && end > start) {
+                int base = (schedule.getDayOfWeek().getValue() - 1) * SLOTS_PER_DAY;
+                from = base + start / SLOT_MINUTES;
+                to = base + ceilSlot(end);
+            }
+            if (from < 0) {
+                return new Entry(course.getId(), course.getCode(), course.getTitle(), instructor, null,
+                        null, null, -1, -1, course.getCapacity(), course.getEnrolled());
+            }
+            return new Entry(course.getId(), course.getCode(), course.getTitle(), instructor, schedule.getDayOfWeek(),
+                    schedule.getStartTime(), schedule.getEndTime(), from, to, course.getCapacity(), course.getEnrolled());
+        }
+
+        CourseSlotHit toHit() {
+            return new CourseSlotHit(courseId, code, title, instructor, day.name(), startTime, endTime, capacity, enrolled);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.zjgsu.szw.coursecloud.catalog.service;
+
+import com.zjgsu.szw.coursecloud.catalog.model.ScheduleSlot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 上课时间分钟数回填
+ *
+ * start_minute / end_minute 列由 ddl-auto 补建，旧数据（以及直接写库导入的课程）只有时间字符串。
+ * 启动完成后按主键分批把字符串解析为分钟数写回，使按时间范围的查询能命中复合索引。
+ * 直接用 JDBC 更新，不经过实体保存，因此不改变课程版本号，也不产生变更日志（JSON 输出不变）。
+ * 多个实例同时回填是安全的：只更新分钟数仍为空的行，写入的值相同。
+ * 无法解析的时间保持为空，这些课程不会出现在按时间范围的查询结果中。
+ */
+@Component
+public class ScheduleMinuteBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleMinuteBackfill.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScheduleMinuteBackfill(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            long start = System.currentTimeMillis();
+            int updated = 0;
+            int unparsable = 0;
+            String afterId = "";
+            while (true) {
+                List<String[]> rows = jdbcTemplate.query(
+                        "SELECT id, start_time, end_time FROM courses "
+                                + "WHERE id > ? AND ((start_minute IS NULL AND start_time IS NOT NULL) "
+                                + "OR (end_minute IS NULL AND end_time IS NOT NULL)) ORDER BY id LIMIT ?",
+                        (rs, rowNum) -> new String[] { rs.getString(1), rs.getString(2), rs.getString(3) },
+                        afterId, BATCH_SIZE);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                List<Object[]> args = new ArrayList<>(rows.size());
+                for (String[] row : rows) {
+                    Integer startMinute = ScheduleSlot.tryParseMinute(row[1]);
+                    Integer endMinute = ScheduleSlot.tryParseMinute(row[2]);
+                    if (startMinute == null && endMinute == null) {
+                        unparsable++;
+                        continue;
+                    }
+                    args.add(new Object[] { startMinute, endMinute, row[0] });
+                }
+                if (!args.isEmpty()) {
+                    jdbcTemplate.batchUpdate("UPDATE courses SET start_minute = COALESCE(start_minute, ?), "
+                            + "end_minute = COALESCE(end_minute, ?) WHERE id = ?", args);
+                    updated += args.size();
+                }
+                afterId = rows.get(rows.size() - 1)[0];
+                if (rows.size() < BATCH_SIZE) {
+                    break;
+                }
+            }
+            if (updated > 0 || unparsable > 0) {
+                logger.info("上课时间分钟数回填完成，更新: {}，无法解析: {}，耗时 {}ms",
+                        updated, unparsable, System.currentTimeMillis() - start);
+            }
+        } catch (Exception e) {
+            // 回填失败不影响服务：实体读取时会按字符串解析，只是范围查询暂时查不到这些课程
+            logger.warn("上课时间分钟数回填失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package com.zjgsu.szw.coursecloud.catalog.service;
+
+import com.zjgsu.szw.coursecloud.catalog.common.ApiResponse;
+import com.zjgsu.szw.coursecloud.catalog.config.SeatLedgerProperties;
+import com.zjgsu.szw.coursecloud.catalog.dto.EnrolledDeltaResult;
+import com.zjgsu.szw.coursecloud.catalog.dto.SeatReservation;
+import com.zjgsu.szw.coursecloud.catalog.event.CourseChangeAppliedEvent;
+import com.zjgsu.szw.coursecloud.catalog.exception.ResourceNotFoundException;
+import com.zjgsu.szw.coursecloud.catalog.model.Course;
+import com.zjgsu.szw.coursecloud.catalog.model.CourseChangeType;
+import com.zjgsu.szw.coursecloud.catalog.repository.CourseRepository;
+import com.zjgsu.szw.coursecloud.catalog.repository.SeatLedgerLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 座位账本（可选模式，catalog.seat-ledger.enabled=true 时生效）
+ *
+ * 每门课程的已选人数保存在内存中的无锁计数器里，占座/释放通过CAS完成，不再竞争数据库行锁；
+ * 各课程的净增量由定时任务在一个事务内批量回写 courses.enrolled。
+ * 启动时以 enrollment-service 的活跃选课记录为准重建计数，因此进程崩溃时尚未回写的增量不会造成永久偏差。
+ *
+ * 账本是进程内的真实来源，多个实例各自开启会重复放行同一批座位，因此启动时先抢占数据库租约
+ * （seat_ledger_lease），租约已被其他实例持有时启动失败；持有者定期续约，续约失败或超过有效期后
+ * 不再授予座位、不再回写，由接管的实例重新恢复计数。查询接口返回的 enrolled 最多落后一个回写周期。
+ * 课程新建、容量修改、删除在事务提交后（CourseChangeAppliedEvent）才同步到账本，回滚的修改不会进入账本。
+ */
+@Component
+public class SeatLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatLedger.class);
+
+    private static final String LEASE_NAME = "seat-ledger";
+
+    private final SeatLedgerProperties properties;
+    private final CourseRepository courseRepository;
+    private final SeatLedgerLeaseRepository leaseRepository;
+    private final RestTemplate restTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersion catalogVersion;
+
+    private final ConcurrentHashMap<String, SeatCounter> counters = new ConcurrentHashMap<>();
+    private final CountDownLatch ready = new CountDownLatch(1);
+    private final AtomicLong flushCount = new AtomicLong();
+    private volatile LocalDateTime lastFlushAt;
+
+    private final String leaseHolder = UUID.randomUUID().toString();
+    private volatile long leaseValidUntil;
+    private volatile boolean leaseLost;
+
+    public SeatLedger(SeatLedgerProperties properties,
+                      CourseRepository courseRepository,
+                      SeatLedgerLeaseRepository leaseRepository,
+                      RestTemplate restTemplate,
+                      PlatformTransactionManager transactionManager,
+                      CatalogVersion catalogVersion) {
+        this.properties = properties;
+        this.courseRepository = courseRepository;
+        this.leaseRepository = leaseRepository;
+        this.restTemplate = restTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.catalogVersion = catalogVersion;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 启动恢复：先取得单写者租约，再从数据库加载课程容量，并以活跃选课记录数校正已选人数
+     * 租约由其他实例持有时抛出异常使本实例启动失败，不会覆盖正在授予座位的实例写入的已选人数
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (!tryAcquireLease()) {
+            throw new IllegalStateException("Seat ledger lease is held by another catalog instance; "
+                    + "only one instance may run with catalog.seat-ledger.enabled=true");
+        }
+        logger.info("已取得座位账本租约: {}", leaseHolder);
+        Map<String, Long> activeCounts = fetchActiveCounts();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Course course : courseRepository.findAll()) {
+                int enrolled = course.getEnrolled();
+                if (activeCounts != null) {
+                    int actual = activeCounts.getOrDefault(course.getId(), 0L).intValue();
+                    if (actual != enrolled) {
+                        logger.warn("座位账本校正已选人数: {} {} -> {}", course.getId(), enrolled, actual);
+                        courseRepository.setEnrolled(course.getId(), actual);
+                        catalogVersion.recordChange(course.getId(), CourseChangeType.SEATS);
+                        enrolled = actual;
+                    }
+                }
+                counters.put(course.getId(), new SeatCounter(course.getCapacity(), enrolled));
+            }
+        });
+        ready.countDown();
+        logger.info("座位账本已就绪，课程数: {}", counters.size());
+    }
+
+    /**
+     * 占座，剩余座位不足时按剩余数量部分授予，课程已满时返回 success=false
+     */
+    public SeatReservation reserve(String courseId, int seats) {
+        SeatCounter counter = counter(courseId);
+        int[] result = counter.tryAcquire(seats);
+        return new SeatReservation(courseId, seats, result[0], counter.capacity, result[1]);
+    }
+
+    /**
+     * 释放座位，已选人数不足时返回 success=false
+     */
+    public SeatReservation release(String courseId, int seats) {
+        SeatCounter counter = counter(courseId);
+        int[] result = counter.tryRelease(seats);
+        return new SeatReservation(courseId, seats, result[0], counter.capacity, result[1]);
+    }
+
+    /**
+     * 批量调整已选人数，增加时不超过容量，减少时不低于0
+     *
+     * @return 各课程请求与实际生效的增量，不存在的课程不出现在结果中
+     */
+    public Map<String, EnrolledDeltaResult> applyDeltas(Map<String, Integer> deltas) {
+        Map<String, EnrolledDeltaResult> results = new LinkedHashMap<>();
+        deltas.forEach((courseId, delta) -> {
+            if (delta == null || delta == 0) {
+                return;
+            }
+            SeatCounter counter;
+            try {
+                counter = counter(courseId);
+            } catch (ResourceNotFoundException e) {
+                return;
+            }
+            int[] result = delta > 0 ? counter.tryAcquire(delta) : counter.releaseUpTo(-delta);
+            int applied = delta > 0 ? result[0] : -result[0];
+            results.put(courseId, new EnrolledDeltaResult(courseId, delta, applied, counter.capacity, result[1]));
+        });
+        return results;
+    }
+
+    /**
+     * 无条件增加已选人数（兼容旧的 increment 接口）
+     */
+    public void increment(String courseId) {
+        SeatCounter counter = counter(courseId);
+        counter.enrolled.incrementAndGet();
+        counter.pending.incrementAndGet();
+    }
+
+    /**
+     * 课程新建、修改、删除提交后同步到账本：新建时登记，修改时更新容量，删除时移除（未回写的增量一并丢弃）
+     * 事件在事务提交后发布（其他实例的修改在轮询到时发布），回滚的修改不会改变账本；已选人数变化由账本自身产生，忽略
+     */
+    @EventListener
+    public void onCourseChangeApplied(CourseChangeAppliedEvent event) {
+        if (!properties.isEnabled() || event.type() == CourseChangeType.SEATS) {
+            return;
+        }
+        String courseId = event.courseId();
+        if (event.type() == CourseChangeType.DELETE) {
+            counters.remove(courseId);
+            return;
+        }
+        Course course;
+        try {
+            course = courseRepository.findByIdBypassingCache(courseId).orElse(null);
+        } catch (Exception e) {
+            logger.warn("读取变更课程失败，座位账本容量未更新: {} {}", courseId, e.getMessage());
+            return;
+        }
+        if (course == null) {
+            counters.remove(courseId);
+            return;
+        }
+        SeatCounter counter = counters.putIfAbsent(courseId, new SeatCounter(course.getCapacity(), course.getEnrolled()));
+        if (counter != null) {
+            counter.capacity = course.getCapacity();
+        }
+    }
+
+    /**
+     * 定期续约；租约已被其他实例接管时停止授予座位和回写
+     */
+    @Scheduled(fixedDelayString = "${catalog.seat-ledger.lease-renew-interval-ms:5000}")
+    public void renewLease() {
+        if (!properties.isEnabled() || ready.getCount() > 0 || leaseLost) {
+            return;
+        }
+        try {
+            if (!tryAcquireLease()) {
+                leaseLost = true;
+                logger.error("座位账本租约已被其他实例接管，本实例停止授予座位: {}", leaseHolder);
+            }
+        } catch (Exception e) {
+            logger.warn("座位账本续约失败，租约有效期内重试: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 将各课程的净增量批量回写数据库，失败时把增量放回计数器等待下次回写
+     */
+    @Scheduled(fixedDelayString = "${catalog.seat-ledger.flush-interval-ms:200}")
+    public void flush() {
+        if (!properties.isEnabled() || ready.getCount() > 0 || !holdsLease()) {
+            return;
+        }
+        Map<String, Integer> deltas = new HashMap<>();
+        counters.forEach((courseId, counter) -> {
+            int delta = counter.pending.getAndSet(0);
+            if (delta != 0) {
+                deltas.put(courseId, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            // 回写时才记录变更：查询接口读的是数据库，ETag 与回写后的数据同步变化
+            transactionTemplate.executeWithoutResult(status -> {
+                deltas.forEach(courseRepository::addEnrolled);
+                catalogVersion.recordChanges(deltas.keySet(), CourseChangeType.SEATS);
+            });
+            flushCount.incrementAndGet();
+            lastFlushAt = LocalDateTime.now();
+            logger.debug("座位账本回写完成，课程数: {}", deltas.size());
+        } catch (Exception e) {
+            logger.error("座位账本回写失败，将在下次重试: {}", e.getMessage());
+            deltas.forEach((courseId, delta) -> {
+                SeatCounter counter = counters.get(courseId);
+                if (counter != null) {
+                    counter.pending.addAndGet(delta);
+                }
+            });
+        }
+    }
+
+    /**
+     * 正常停机前回写剩余增量并释放租约
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        if (properties.isEnabled() && holdsLease()) {
+            try {
+                leaseRepository.release(LEASE_NAME, leaseHolder);
+            } catch (Exception e) {
+                logger.warn("释放座位账本租约失败，等待其过期: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 账本运行状态
+     */
+    public Map<String, Object> stats() {
+        long pending = 0;
+        for (SeatCounter counter : counters.values()) {
+            pending += Math.abs(counter.pending.get());
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("ready", ready.getCount() == 0);
+        stats.put("leaseHeld", holdsLease());
+        stats.put("courses", counters.size());
+        stats.put("pendingSeats", pending);
+        stats.put("flushCount", flushCount.get());
+        stats.put("lastFlushAt", lastFlushAt);
+        return stats;
+    }
+
+    private SeatCounter counter(String courseId) {
+        awaitReady();
+        if (!holdsLease()) {
+            throw new IllegalStateException("Seat ledger lease is not held by this instance");
+        }
+        SeatCounter counter = counters.get(courseId);
+        if (counter != null) {
+            return counter;
+        }
+        // 账本中没有的课程（例如恢复之后由其他途径写入）按数据库当前值登记
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + courseId));
+        SeatCounter loaded = new SeatCounter(course.getCapacity(), course.getEnrolled());
+        SeatCounter existing = counters.putIfAbsent(courseId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private void awaitReady() {
+        try {
+            if (ready.await(properties.getReadyTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new IllegalStateException("Seat ledger is still recovering");
+    }
+
+    /**
+     * 创建、续约或接管租约，成功时延长本地有效期（以发起请求的时刻起算，保守估计）
+     */
+    private boolean tryAcquireLease() {
+        long startedAt = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusNanos(properties.getLeaseTtlMs() * 1_000_000);
+        boolean acquired = leaseRepository.insertIfAbsent(LEASE_NAME, leaseHolder, expiresAt) == 1
+                || leaseRepository.renewOrTakeOver(LEASE_NAME, leaseHolder, expiresAt, now) == 1;
+        if (acquired) {
+            leaseValidUntil = startedAt + properties.getLeaseTtlMs();
+        }
+        return acquired;
+    }
+
+    private boolean holdsLease() {
+        return !leaseLost && System.currentTimeMillis() < leaseValidUntil;
+    }
+
+    private Map<String, Long> fetchActiveCounts() {
+        try {
+            ResponseEntity<ApiResponse<Map<String, Long>>> response = restTemplate.exchange(
+                    properties.getEnrollmentCountsUrl(), HttpMethod.GET, null,
+                    new ParameterizedTypeReference<ApiResponse<Map<String, Long>>>() {
+                    });
+            if (response.getBody() != null && response.getBody().getData() != null) {
+                return response.getBody().getData();
+            }
+            logger.warn("enrollment-service未返回活跃选课统计，使用数据库中的已选人数");
+        } catch (Exception e) {
+            logger.warn("获取活跃选课统计失败，使用数据库中的已选人数: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * 单门课程的座位计数器
+     */
+    private static final class SeatCounter {
+        private volatile int capacity;
+        private final AtomicInteger enrolled;
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private SeatCounter(int capacity, int enrolled) {
+            this.capacity = capacity;
+            this.enrolled = new AtomicInteger(enrolled);
+        }
+
+        /**
+         * @return [实际占用座位数, 操作后的已选人数]
+         */
+        private int[] tryAcquire(int seats) {
+            while (true) {
+                int current = enrolled.get();
+                int granted = Math.min(seats, capacity - current);
+                if (granted <= 0) {
+                    return new int[] { 0, current };
+                }
+                if (enrolled.compareAndSet(current, current + granted)) {
+                    pending.addAndGet(granted);
+                    return new int[] { granted, current + granted };
+                }
+            }
+        }
+
+        /**
+         * @return [实际释放座位数, 操作后的已选人数]，已选人数不足时不释放
+         */
+        private int[] tryRelease(int seats) {
+            while (true) {
+                int current = enrolled.get();
+                if (current < seats) {
+                    return new int[] { 0, current };
+                }
+                if (enrolled.compareAndSet(current, current - seats)) {
+                    pending.addAndGet(-seats);
+                    return new int[] { seats, current - seats };
+                }
+            }
+        }
+
+        /**
+         * 最多释放 seats 个座位，已选人数不足时减到0
+         *
+         * @return [实际释放座位数, 操作后的已选人数]
+         */
+        private int[] releaseUpTo(int seats) {
+            while (true) {
+                int current = enrolled.get();
+                int released = Math.min(seats, current);
+                if (released <= 0) {
+                    return new int[] { 0, current };
+                }
+                if (enrolled.compareAndSet(current, current - released)) {
+                    pending.addAndGet(-released);
+                    return new int[] { released, current - released };
+                }
+            }
+        }
+    }
+}
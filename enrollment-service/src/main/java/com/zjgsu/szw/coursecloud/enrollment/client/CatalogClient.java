@@ -2,10 +2,16 @@ package com.zjgsu.szw.coursecloud.enrollment.client;
 
 import com.zjgsu.szw.coursecloud.enrollment.client.dto.ApiResponseWrapper;
 import com.zjgsu.szw.coursecloud.enrollment.client.dto.CourseDTO;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.CourseSlotResultDTO;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.CursorPageDTO;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.EnrolledDeltaResultDTO;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.SeatReservationDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
 import java.util.Map;
@@ -36,6 +42,33 @@ public interface CatalogClient {
     @GetMapping("/api/courses")
     ApiResponseWrapper<List<CourseDTO>> getAllCourses();
 
+    /**
+     * 游标分页获取课程列表，将返回的 nextCursor 传入下一次调用，首页 cursor 为空
+     * GET /api/courses?size=n&cursor=...
+     */
+    @GetMapping("/api/courses")
+    ApiResponseWrapper<CursorPageDTO<CourseDTO>> getCoursePage(@RequestParam("size") int size,
+                                                               @RequestParam(value = "cursor", required = false) String cursor);
+
+    /**
+     * 根据ID批量获取课程信息（不存在的ID不会出现在结果中）
+     * POST /api/courses/lookup
+     */
+    @PostMapping("/api/courses/lookup")
+    ApiResponseWrapper<List<CourseDTO>> getCoursesByIds(@RequestBody List<String> courseIds);
+
+    /**
+     * 查询与给定占用时段不冲突且有剩余座位的课程
+     * GET /api/courses/non-conflicting?busy=480-575,...&days=&from=&to=&limit=
+     */
+    @GetMapping("/api/courses/non-conflicting")
+    ApiResponseWrapper<CourseSlotResultDTO> getNonConflictingCourses(
+            @RequestParam(value = "busy", required = false) String busy,
+            @RequestParam(value = "days", required = false) String days,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "limit", required = false) Integer limit);
+
     /**
      * 根据课程代码获取课程信息
      * GET /api/courses/code/{code}
@@ -57,6 +90,41 @@ public interface CatalogClient {
     @PostMapping("/api/courses/{courseId}/decrement")
     ApiResponseWrapper<Void> decrementEnrolled(@PathVariable("courseId") String courseId);
 
+    /**
+     * 批量调整已选人数（课程ID -> 有符号增量），增加时不超过容量，减少时不低于0
+     * POST /api/courses/enrolled-deltas
+     * 返回各课程请求与实际生效的增量以及调整后的已选人数；同一 batchId 已生效过时返回409
+     */
+    @PostMapping("/api/courses/enrolled-deltas")
+    ApiResponseWrapper<Map<String, EnrolledDeltaResultDTO>> applyEnrolledDeltas(
+            @RequestParam("batchId") String batchId,
+            @RequestBody Map<String, Integer> deltas);
+
+    /**
+     * 原子占座（课程已满时 data.success=false，余量不足时 data.granted 小于 seats）
+     * POST /api/courses/{id}/reserve?seats=n&reservationId=
+     * catalog-service 记录该 reservationId 授予的座位数，同一 reservationId 重试返回首次结果
+     */
+    @PostMapping("/api/courses/{courseId}/reserve")
+    ApiResponseWrapper<SeatReservationDTO> reserveSeats(@PathVariable("courseId") String courseId,
+                                                        @RequestParam("seats") int seats,
+                                                        @RequestParam("reservationId") String reservationId);
+
+    /**
+     * 查询按 reservationId 记录的占座结果，占座未生效时返回404
+     * GET /api/courses/reservations/{reservationId}
+     */
+    @GetMapping("/api/courses/reservations/{reservationId}")
+    ApiResponseWrapper<SeatReservationDTO> getReservation(@PathVariable("reservationId") String reservationId);
+
+    /**
+     * 释放座位
+     * POST /api/courses/{id}/release?seats=n
+     */
+    @PostMapping("/api/courses/{courseId}/release")
+    ApiResponseWrapper<SeatReservationDTO> releaseSeats(@PathVariable("courseId") String courseId,
+                                                        @RequestParam("seats") int seats);
+
     /**
      * 获取服务端口信息（用于测试负载均衡）
      * GET /api/courses/port
@@ -2,6 +2,10 @@ package com.zjgsu.szw.coursecloud.enrollment.client;
 
 import com.zjgsu.szw.coursecloud.enrollment.client.dto.ApiResponseWrapper;
 import com.zjgsu.szw.coursecloud.enrollment.client.dto.CourseDTO;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.CourseSlotResultDTO;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.CursorPageDTO;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.EnrolledDeltaResultDTO;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.SeatReservationDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cloud.openfeign.FallbackFactory;
@@ -45,6 +49,38 @@ public class CatalogClientFallbackFactory implements FallbackFactory<CatalogClie
                 return response;
             }
 
+            @Override
+            public ApiResponseWrapper<CursorPageDTO<CourseDTO>> getCoursePage(int size, String cursor) {
+                logger.error("Fallback: getCoursePage, size: {}", size);
+                ApiResponseWrapper<CursorPageDTO<CourseDTO>> response = new ApiResponseWrapper<>();
+                response.setCode(503);
+                response.setMessage("Catalog service is unavailable: " + cause.getMessage());
+                response.setData(null);
+                return response;
+            }
+
+            @Override
+            public ApiResponseWrapper<List<CourseDTO>> getCoursesByIds(List<String> courseIds) {
+                logger.error("Fallback: getCoursesByIds, size: {}", courseIds.size());
+                ApiResponseWrapper<List<CourseDTO>> response = new ApiResponseWrapper<>();
+                response.setCode(503);
+                response.setMessage("Catalog service is unavailable: " + cause.getMessage());
+                response.setData(Collections.emptyList());
+                return response;
+            }
+
+            @Override
+            public ApiResponseWrapper<CourseSlotResultDTO> getNonConflictingCourses(String busy, String days,
+                                                                                     String from, String to,
+                                                                                     Integer limit) {
+                logger.error("Fallback: getNonConflictingCourses");
+                ApiResponseWrapper<CourseSlotResultDTO> response = new ApiResponseWrapper<>();
+                response.setCode(503);
+                response.setMessage("Catalog service is unavailable: " + cause.getMessage());
+                response.setData(null);
+                return response;
+            }
+
             @Override
             public ApiResponseWrapper<CourseDTO> getCourseByCode(String code) {
                 logger.error("Fallback: getCourseByCode for code: {}", code);
@@ -73,6 +109,45 @@ public class CatalogClientFallbackFactory implements FallbackFactory<CatalogClie
                 return response;
             }
 
+            @Override
+            public ApiResponseWrapper<Map<String, EnrolledDeltaResultDTO>> applyEnrolledDeltas(
+                    String batchId, Map<String, Integer> deltas) {
+                logger.error("Fallback: applyEnrolledDeltas for {} courses", deltas.size());
+                ApiResponseWrapper<Map<String, EnrolledDeltaResultDTO>> response = new ApiResponseWrapper<>();
+                response.setCode(503);
+                response.setMessage("Catalog service is unavailable: " + cause.getMessage());
+                response.setData(Collections.emptyMap());
+                return response;
+            }
+
+            @Override
+            public ApiResponseWrapper<SeatReservationDTO> reserveSeats(String courseId, int seats,
+                                                                       String reservationId) {
+                logger.error("Fallback: reserveSeats for courseId: {}, seats: {}", courseId, seats);
+                ApiResponseWrapper<SeatReservationDTO> response = new ApiResponseWrapper<>();
+                response.setCode(503);
+                response.setMessage("Catalog service is unavailable: " + cause.getMessage());
+                return response;
+            }
+
+            @Override
+            public ApiResponseWrapper<SeatReservationDTO> getReservation(String reservationId) {
+                logger.error("Fallback: getReservation for reservationId: {}", reservationId);
+                ApiResponseWrapper<SeatReservationDTO> response = new ApiResponseWrapper<>();
+                response.setCode(503);
+                response.setMessage("Catalog service is unavailable: " + cause.getMessage());
+                return response;
+            }
+
+            @Override
+            public ApiResponseWrapper<SeatReservationDTO> releaseSeats(String courseId, int seats) {
+                logger.error("Fallback: releaseSeats for courseId: {}, seats: {}", courseId, seats);
+                ApiResponseWrapper<SeatReservationDTO> response = new ApiResponseWrapper<>();
+                response.setCode(503);
+                response.setMessage("Catalog service is unavailable: " + cause.getMessage());
+                return response;
+            }
+
             @Override
             public ApiResponseWrapper<Map<String, String>> getServicePort() {
                 logger.error("Fallback: getServicePort");
@@ -1,10 +1,14 @@
 package com.zjgsu.szw.coursecloud.enrollment.client;
 
 import com.zjgsu.szw.coursecloud.enrollment.client.dto.ApiResponseWrapper;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.CursorPageDTO;
 import com.zjgsu.szw.coursecloud.enrollment.client.dto.UserDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
 import java.util.Map;
@@ -18,9 +22,22 @@ public interface UserClient {
     @GetMapping("/api/users/{idOrStudentId}")
     ApiResponseWrapper<UserDTO> getUserByIdOrStudentId(@PathVariable("idOrStudentId") String idOrStudentId);
 
-    @GetMapping("/api/users")
+    /**
+     * 一次加载全部用户，对应 GET /api/users?all=true；不带 all 参数时该接口返回游标分页
+     */
+    @GetMapping(value = "/api/users", params = "all=true")
     ApiResponseWrapper<List<UserDTO>> getAllUsers();
 
+    /**
+     * 游标分页获取用户，将返回的 nextCursor 传入下一次调用，首页 cursor 为空
+     */
+    @GetMapping("/api/users")
+    ApiResponseWrapper<CursorPageDTO<UserDTO>> getUserPage(@RequestParam("size") int size,
+                                                           @RequestParam(value = "cursor", required = false) String cursor);
+
+    @PostMapping("/api/users/lookup")
+    ApiResponseWrapper<List<UserDTO>> getUsersByStudentIds(@RequestBody List<String> studentIds);
+
     @GetMapping("/api/users/port")
     ApiResponseWrapper<Map<String, String>> getServicePort();
 }
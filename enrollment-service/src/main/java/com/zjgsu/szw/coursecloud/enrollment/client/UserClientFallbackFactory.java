@@ -1,6 +1,7 @@
 package com.zjgsu.szw.coursecloud.enrollment.client;
 
 import com.zjgsu.szw.coursecloud.enrollment.client.dto.ApiResponseWrapper;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.CursorPageDTO;
 import com.zjgsu.szw.coursecloud.enrollment.client.dto.UserDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +51,26 @@ public class UserClientFallbackFactory implements FallbackFactory<UserClient> {
                 return response;
             }
 
+            @Override
+            public ApiResponseWrapper<CursorPageDTO<UserDTO>> getUserPage(int size, String cursor) {
+                logger.error("Fallback: getUserPage, size {}", size);
+                ApiResponseWrapper<CursorPageDTO<UserDTO>> response = new ApiResponseWrapper<>();
+                response.setCode(503);
+                response.setMessage("User service is unavailable: " + cause.getMessage());
+                response.setData(null);
+                return response;
+            }
+
+            @Override
+            public ApiResponseWrapper<List<UserDTO>> getUsersByStudentIds(List<String> studentIds) {
+                logger.error("Fallback: getUsersByStudentIds, size {}", studentIds.size());
+                ApiResponseWrapper<List<UserDTO>> response = new ApiResponseWrapper<>();
+                response.setCode(503);
+                response.setMessage("User service is unavailable: " + cause.getMessage());
+                response.setData(Collections.emptyList());
+                return response;
+            }
+
             @Override
             public ApiResponseWrapper<Map<String, String>> getServicePort() {
                 ApiResponseWrapper<Map<String, String>> response = new ApiResponseWrapper<>();
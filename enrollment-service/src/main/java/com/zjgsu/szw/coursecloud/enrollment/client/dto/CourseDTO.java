@@ -15,6 +15,7 @@ public class CourseDTO {
     private int capacity;
     private int enrolled;
     private LocalDateTime createdAt;
+    private Long version;
 
     public CourseDTO() {
     }
@@ -92,6 +93,14 @@ public class CourseDTO {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     /**
      * 检查课程是否可选（有剩余容量）
      */
@@ -0,0 +1,104 @@
+package com.zjgsu.szw.coursecloud.enrollment.client.dto;
+
+/**
+ * 时间不冲突且有余量的课程DTO - 用于接收catalog-service的响应
+ */
+public class CourseSlotHitDTO {
+    private String id;
+    private String code;
+    private String title;
+    private String instructorName;
+    private String dayOfWeek;
+    private String startTime;
+    private String endTime;
+    private int capacity;
+    private int enrolled;
+
+    public CourseSlotHitDTO() {
+    }
+
+    public CourseSlotHitDTO(String id, String code, String title, String instructorName, String dayOfWeek,
+                         String startTime, String endTime, int capacity, int enrolled) {
+        this.id = id;
+        this.code = code;
+        this.title = title;
+        this.instructorName = instructorName;
+        this.dayOfWeek = dayOfWeek;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.capacity = capacity;
+        this.enrolled = enrolled;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getInstructorName() {
+        return instructorName;
+    }
+
+    public void setInstructorName(String instructorName) {
+        this.instructorName = instructorName;
+    }
+
+    public String getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public void setDayOfWeek(String dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    public String getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(String startTime) {
+        this.startTime = startTime;
+    }
+
+    public String getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(String endTime) {
+        this.endTime = endTime;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getEnrolled() {
+        return enrolled;
+    }
+
+    public void setEnrolled(int enrolled) {
+        this.enrolled = enrolled;
+    }
+}
@@ -0,0 +1,46 @@
+package com.zjgsu.szw.coursecloud.enrollment.client.dto;
+
+import java.util.List;
+
+/**
+ * 时间不冲突课程查询结果DTO - 用于接收catalog-service的响应
+ * total 为全部符合条件的课程数，courses 为按上课时间排序的前 limit 门，tookMicros 为索引查询耗时（微秒）
+ */
+public class CourseSlotResultDTO {
+    private int total;
+    private long tookMicros;
+    private List<CourseSlotHitDTO> courses;
+
+    public CourseSlotResultDTO() {
+    }
+
+    public CourseSlotResultDTO(int total, long tookMicros, List<CourseSlotHitDTO> courses) {
+        this.total = total;
+        this.tookMicros = tookMicros;
+        this.courses = courses;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public long getTookMicros() {
+        return tookMicros;
+    }
+
+    public void setTookMicros(long tookMicros) {
+        this.tookMicros = tookMicros;
+    }
+
+    public List<CourseSlotHitDTO> getCourses() {
+        return courses;
+    }
+
+    public void setCourses(List<CourseSlotHitDTO> courses) {
+        this.courses = courses;
+    }
+}
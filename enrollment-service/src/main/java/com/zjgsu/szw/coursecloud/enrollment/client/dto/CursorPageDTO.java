@@ -0,0 +1,46 @@
+package com.zjgsu.szw.coursecloud.enrollment.client.dto;
+
+import java.util.List;
+
+/**
+ * 游标分页结果（catalog-service / user-service 分页接口的响应）
+ * 将 nextCursor 原样传给下一次请求，hasMore=false 时表示已是最后一页
+ */
+public class CursorPageDTO<T> {
+    private List<T> items;
+    private int size;
+    private boolean hasMore;
+    private String nextCursor;
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,66 @@
+package com.zjgsu.szw.coursecloud.enrollment.client.dto;
+
+/**
+ * 已选人数调整结果DTO - 用于接收catalog-service批量调整已选人数的响应
+ * applied 与 requested 不同（clamped=true）表示调整被容量或0截断
+ */
+public class EnrolledDeltaResultDTO {
+    private String courseId;
+    private int requested;
+    private int applied;
+    private boolean clamped;
+    private int capacity;
+    private int enrolled;
+
+    public EnrolledDeltaResultDTO() {
+    }
+
+    // Getters and Setters
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(String courseId) {
+        this.courseId = courseId;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getApplied() {
+        return applied;
+    }
+
+    public void setApplied(int applied) {
+        this.applied = applied;
+    }
+
+    public boolean isClamped() {
+        return clamped;
+    }
+
+    public void setClamped(boolean clamped) {
+        this.clamped = clamped;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getEnrolled() {
+        return enrolled;
+    }
+
+    public void setEnrolled(int enrolled) {
+        this.enrolled = enrolled;
+    }
+}
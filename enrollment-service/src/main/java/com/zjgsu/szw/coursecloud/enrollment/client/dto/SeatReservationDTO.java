@@ -0,0 +1,92 @@
+package com.zjgsu.szw.coursecloud.enrollment.client.dto;
+
+/**
+ * 占座结果DTO - 用于接收catalog-service的占座/释放座位响应
+ */
+public class SeatReservationDTO {
+    private String courseId;
+    private boolean success;
+    private int requested;
+    private int granted;
+    private boolean full;
+    private int capacity;
+    private int enrolled;
+    private int remaining;
+    private Long courseVersion;
+
+    public SeatReservationDTO() {
+    }
+
+    // Getters and Setters
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(String courseId) {
+        this.courseId = courseId;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getGranted() {
+        return granted;
+    }
+
+    public void setGranted(int granted) {
+        this.granted = granted;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public void setFull(boolean full) {
+        this.full = full;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getEnrolled() {
+        return enrolled;
+    }
+
+    public void setEnrolled(int enrolled) {
+        this.enrolled = enrolled;
+    }
+
+    public int getRemaining() {
+        return remaining;
+    }
+
+    public void setRemaining(int remaining) {
+        this.remaining = remaining;
+    }
+
+    public Long getCourseVersion() {
+        return courseVersion;
+    }
+
+    public void setCourseVersion(Long courseVersion) {
+        this.courseVersion = courseVersion;
+    }
+}
@@ -0,0 +1,64 @@
+package com.zjgsu.szw.coursecloud.enrollment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 课程信息近端缓存配置类
+ */
+@Configuration
+@ConfigurationProperties(prefix = "enrollment.course-cache")
+public class CourseCacheProperties {
+
+    /**
+     * 是否启用缓存，关闭后每次都调用catalog-service
+     */
+    private boolean enabled = true;
+
+    /**
+     * 最多缓存的课程数量
+     */
+    private long maxEntries = 10000;
+
+    /**
+     * 缓存条目的新鲜期（秒），过期后下次校验会重新查询catalog-service
+     */
+    private long ttlSeconds = 60;
+
+    /**
+     * catalog-service不可用时允许使用的最旧条目（秒），超过后按服务不可用处理
+     */
+    private long maxStaleSeconds = 3600;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public long getMaxStaleSeconds() {
+        return maxStaleSeconds;
+    }
+
+    public void setMaxStaleSeconds(long maxStaleSeconds) {
+        this.maxStaleSeconds = maxStaleSeconds;
+    }
+}
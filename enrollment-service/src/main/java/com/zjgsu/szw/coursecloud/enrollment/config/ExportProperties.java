@@ -0,0 +1,65 @@
+package com.zjgsu.szw.coursecloud.enrollment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 选课记录流式导出配置类
+ */
+@Configuration
+@ConfigurationProperties(prefix = "enrollment.export")
+public class ExportProperties {
+
+    /**
+     * JDBC fetch size；0 表示使用 MySQL 驱动的逐行流式读取（Integer.MIN_VALUE），
+     * 大于0时需要在连接串中开启 useCursorFetch=true 才会按批从服务端游标读取
+     */
+    private int fetchSize = 0;
+
+    /**
+     * 每写出多少行刷新一次输出流
+     */
+    private int flushEveryRows = 1000;
+
+    /**
+     * 同时进行的导出数量上限（每个导出在整个传输期间占用一个数据库连接）
+     */
+    private int maxConcurrent = 2;
+
+    /**
+     * 输出缓冲区大小（字节）
+     */
+    private int bufferBytes = 65536;
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public int getFlushEveryRows() {
+        return flushEveryRows;
+    }
+
+    public void setFlushEveryRows(int flushEveryRows) {
+        this.flushEveryRows = flushEveryRows;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public int getBufferBytes() {
+        return bufferBytes;
+    }
+
+    public void setBufferBytes(int bufferBytes) {
+        this.bufferBytes = bufferBytes;
+    }
+}
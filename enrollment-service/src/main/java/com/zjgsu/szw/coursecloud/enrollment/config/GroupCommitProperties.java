@@ -0,0 +1,105 @@
+package com.zjgsu.szw.coursecloud.enrollment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 选课组提交配置类
+ * 同一课程的选课请求在短时间窗口内聚合为一批，统一查重、占座与写入
+ */
+@Configuration
+@ConfigurationProperties(prefix = "enrollment.group-commit")
+public class GroupCommitProperties {
+
+    /**
+     * 是否开启组提交（关闭时每个请求在调用线程内单独提交）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 聚合窗口（毫秒），课程队列收到第一个请求后等待该时间再提交
+     */
+    private long windowMs = 5;
+
+    /**
+     * 单批最大请求数
+     */
+    private int maxBatchSize = 200;
+
+    /**
+     * 提交线程数（同一课程的批次串行提交，不同课程并行）
+     */
+    private int committerThreads = 8;
+
+    /**
+     * 请求等待所在批次提交的最长时间（毫秒），超时后返回503，选课结果以选课记录为准
+     */
+    private long commitTimeoutMs = 30000;
+
+    /**
+     * 占座意向的保留时间（毫秒）：超过后仍未删除的意向视为占座结果未知或写入失败，由对账任务释放座位；
+     * 需长于一次占座调用加写入选课记录的最长耗时
+     */
+    private long reservationHoldMs = 120000;
+
+    /**
+     * 占座意向对账间隔（毫秒）
+     */
+    private long reconcileIntervalMs = 30000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    public void setWindowMs(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int getCommitterThreads() {
+        return committerThreads;
+    }
+
+    public void setCommitterThreads(int committerThreads) {
+        this.committerThreads = committerThreads;
+    }
+
+    public long getCommitTimeoutMs() {
+        return commitTimeoutMs;
+    }
+
+    public void setCommitTimeoutMs(long commitTimeoutMs) {
+        this.commitTimeoutMs = commitTimeoutMs;
+    }
+
+    public long getReservationHoldMs() {
+        return reservationHoldMs;
+    }
+
+    public void setReservationHoldMs(long reservationHoldMs) {
+        this.reservationHoldMs = reservationHoldMs;
+    }
+
+    public long getReconcileIntervalMs() {
+        return reconcileIntervalMs;
+    }
+
+    public void setReconcileIntervalMs(long reconcileIntervalMs) {
+        this.reconcileIntervalMs = reconcileIntervalMs;
+    }
+}
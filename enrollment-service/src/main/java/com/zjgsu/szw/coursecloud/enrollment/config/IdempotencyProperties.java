@@ -0,0 +1,78 @@
+package com.zjgsu.szw.coursecloud.enrollment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 选课幂等键配置类
+ */
+@Configuration
+@ConfigurationProperties(prefix = "enrollment.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * 幂等记录保留时间（秒），过期后同一个键会被当作新请求
+     */
+    private long ttlSeconds = 86400;
+
+    /**
+     * 本地缓存最多保留的键数量，超出后按访问频率淘汰（数据库中仍有记录）
+     */
+    private long maxEntries = 100000;
+
+    /**
+     * 清理过期记录的间隔（毫秒）
+     */
+    private long purgeIntervalMs = 600000;
+
+    /**
+     * 执行中（PENDING）记录的有效期（秒），需长于一次选课的最长耗时；
+     * 执行实例崩溃后，同一个键在此之后可以被重新执行
+     */
+    private long pendingTimeoutSeconds = 60;
+
+    /**
+     * 同一个键正在其他实例执行时的最长等待时间（毫秒），超时返回409
+     */
+    private long inProgressWaitMs = 3000;
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getPurgeIntervalMs() {
+        return purgeIntervalMs;
+    }
+
+    public void setPurgeIntervalMs(long purgeIntervalMs) {
+        this.purgeIntervalMs = purgeIntervalMs;
+    }
+
+    public long getPendingTimeoutSeconds() {
+        return pendingTimeoutSeconds;
+    }
+
+    public void setPendingTimeoutSeconds(long pendingTimeoutSeconds) {
+        this.pendingTimeoutSeconds = pendingTimeoutSeconds;
+    }
+
+    public long getInProgressWaitMs() {
+        return inProgressWaitMs;
+    }
+
+    public void setInProgressWaitMs(long inProgressWaitMs) {
+        this.inProgressWaitMs = inProgressWaitMs;
+    }
+}
@@ -0,0 +1,45 @@
+package com.zjgsu.szw.coursecloud.enrollment.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 选课前置校验线程池配置类
+ * 平台线程模式：有界线程池 + 有界队列，饱和时由调用线程执行，不会无限堆积任务；
+ * 启用虚拟线程（spring.threads.virtual.enabled）时改为每任务一个虚拟线程
+ */
+@Configuration
+public class LookupExecutorConfig {
+
+    @Bean(name = "lookupExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService lookupExecutor(LookupProperties properties,
+                                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            // 虚拟线程模式下每个查询一个虚拟线程，并发上限由下游服务与连接池决定
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("lookup-", 1).factory());
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "lookup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                properties.getThreads(), properties.getThreads(),
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(properties.getQueueCapacity()),
+                threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,51 @@
+package com.zjgsu.szw.coursecloud.enrollment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 选课前置校验（学生/课程并行查询）配置类
+ */
+@Configuration
+@ConfigurationProperties(prefix = "enrollment.lookup")
+public class LookupProperties {
+
+    /**
+     * 并行查询线程数
+     */
+    private int threads = 32;
+
+    /**
+     * 等待队列容量，队列满时在调用线程内直接执行（退化为串行）
+     */
+    private int queueCapacity = 200;
+
+    /**
+     * 学生与课程查询共享的截止时间（毫秒）
+     */
+    private long timeoutMs = 6000;
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+}
@@ -0,0 +1,91 @@
+package com.zjgsu.szw.coursecloud.enrollment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 已选人数发件箱中继配置类
+ */
+@Configuration
+@ConfigurationProperties(prefix = "enrollment.outbox")
+public class OutboxProperties {
+
+    /**
+     * 是否开启后台中继（关闭时发件箱只写不推送，可用于排查）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 轮询间隔（毫秒）
+     */
+    private long pollIntervalMs = 500;
+
+    /**
+     * 每批领取的最大记录数
+     */
+    private int batchSize = 500;
+
+    /**
+     * 领取租约（毫秒）：领取的记录在此期间不会被其他中继领取，需长于一次推送的超时时间；
+     * 中继在推送途中退出时，记录在租约到期后以同一批次ID重发
+     */
+    private long leaseMs = 30000;
+
+    /**
+     * 推送失败后的首次重试间隔（毫秒），之后按指数退避
+     */
+    private long initialBackoffMs = 1000;
+
+    /**
+     * 最大重试间隔（毫秒）
+     */
+    private long maxBackoffMs = 60000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getPollIntervalMs() {
+        return pollIntervalMs;
+    }
+
+    public void setPollIntervalMs(long pollIntervalMs) {
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getLeaseMs() {
+        return leaseMs;
+    }
+
+    public void setLeaseMs(long leaseMs) {
+        this.leaseMs = leaseMs;
+    }
+
+    public long getInitialBackoffMs() {
+        return initialBackoffMs;
+    }
+
+    public void setInitialBackoffMs(long initialBackoffMs) {
+        this.initialBackoffMs = initialBackoffMs;
+    }
+
+    public long getMaxBackoffMs() {
+        return maxBackoffMs;
+    }
+
+    public void setMaxBackoffMs(long maxBackoffMs) {
+        this.maxBackoffMs = maxBackoffMs;
+    }
+}
@@ -0,0 +1,51 @@
+package com.zjgsu.szw.coursecloud.enrollment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 选课时间冲突检测（学生周课表位图）配置类
+ */
+@Configuration
+@ConfigurationProperties(prefix = "enrollment.timetable")
+public class TimetableProperties {
+
+    /**
+     * 是否检测上课时间冲突
+     */
+    private boolean enabled = true;
+
+    /**
+     * 最多缓存的学生课表数量
+     */
+    private long maxEntries = 50000;
+
+    /**
+     * 课表缓存时间（秒），已选课程的上课时间调整后最多在此时间内仍按旧时间检测
+     */
+    private long ttlSeconds = 600;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+}
@@ -0,0 +1,64 @@
+package com.zjgsu.szw.coursecloud.enrollment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 学生信息近端缓存配置类
+ */
+@Configuration
+@ConfigurationProperties(prefix = "enrollment.user-cache")
+public class UserCacheProperties {
+
+    /**
+     * 是否启用缓存，关闭后每次都调用user-service
+     */
+    private boolean enabled = true;
+
+    /**
+     * 最多缓存的学生数量，超出后按 W-TinyLFU 淘汰
+     */
+    private long maxEntries = 50000;
+
+    /**
+     * 学生信息缓存时间（秒）
+     */
+    private long ttlSeconds = 600;
+
+    /**
+     * 学生不存在（404）结果的缓存时间（秒）
+     */
+    private long negativeTtlSeconds = 30;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public long getNegativeTtlSeconds() {
+        return negativeTtlSeconds;
+    }
+
+    public void setNegativeTtlSeconds(long negativeTtlSeconds) {
+        this.negativeTtlSeconds = negativeTtlSeconds;
+    }
+}
@@ -2,18 +2,40 @@ package com.zjgsu.szw.coursecloud.enrollment.controller;
 
 import com.zjgsu.szw.coursecloud.enrollment.client.CatalogClient;
 import com.zjgsu.szw.coursecloud.enrollment.client.dto.ApiResponseWrapper;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.CourseSlotResultDTO;
 import com.zjgsu.szw.coursecloud.enrollment.common.ApiResponse;
+import com.zjgsu.szw.coursecloud.enrollment.dto.BatchEnrollmentReport;
+import com.zjgsu.szw.coursecloud.enrollment.dto.BatchEnrollmentRequest;
+import com.zjgsu.szw.coursecloud.enrollment.dto.CursorPage;
+import com.zjgsu.szw.coursecloud.enrollment.dto.EnrollmentExportFilter;
+import com.zjgsu.szw.coursecloud.enrollment.dto.ExportFormat;
 import com.zjgsu.szw.coursecloud.enrollment.model.Enrollment;
+import com.zjgsu.szw.coursecloud.enrollment.model.EnrollmentStatus;
+import com.zjgsu.szw.coursecloud.enrollment.service.BatchEnrollmentService;
+import com.zjgsu.szw.coursecloud.enrollment.service.CounterOutboxRelay;
+import com.zjgsu.szw.coursecloud.enrollment.service.CourseLookupService;
+import com.zjgsu.szw.coursecloud.enrollment.service.EnrollmentCommitter;
+import com.zjgsu.szw.coursecloud.enrollment.service.EnrollmentExportService;
 import com.zjgsu.szw.coursecloud.enrollment.service.EnrollmentService;
+import com.zjgsu.szw.coursecloud.enrollment.service.IdempotencyService;
+import com.zjgsu.szw.coursecloud.enrollment.service.TimetableService;
+import com.zjgsu.szw.coursecloud.enrollment.service.UserLookupService;
 import org.springframework.beans.factory.annotation.Value;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * 选课管理Controller
@@ -25,25 +47,99 @@ public class EnrollmentController {
 
     private final EnrollmentService enrollmentService;
     private final CatalogClient catalogClient;
+    private final EnrollmentCommitter enrollmentCommitter;
+    private final BatchEnrollmentService batchEnrollmentService;
+    private final CounterOutboxRelay counterOutboxRelay;
+    private final IdempotencyService idempotencyService;
+    private final UserLookupService userLookupService;
+    private final CourseLookupService courseLookupService;
+    private final EnrollmentExportService enrollmentExportService;
+    private final TimetableService timetableService;
 
     @Value("${server.port}")
     private String serverPort;
 
-    public EnrollmentController(EnrollmentService enrollmentService, CatalogClient catalogClient) {
+    public EnrollmentController(EnrollmentService enrollmentService, CatalogClient catalogClient,
+                                EnrollmentCommitter enrollmentCommitter,
+                                BatchEnrollmentService batchEnrollmentService,
+                                CounterOutboxRelay counterOutboxRelay,
+                                IdempotencyService idempotencyService,
+                                UserLookupService userLookupService,
+                                CourseLookupService courseLookupService,
+                                EnrollmentExportService enrollmentExportService,
+                                TimetableService timetableService) {
         this.enrollmentService = enrollmentService;
         this.catalogClient = catalogClient;
+        this.enrollmentCommitter = enrollmentCommitter;
+        this.batchEnrollmentService = batchEnrollmentService;
+        this.counterOutboxRelay = counterOutboxRelay;
+        this.idempotencyService = idempotencyService;
+        this.userLookupService = userLookupService;
+        this.courseLookupService = courseLookupService;
+        this.enrollmentExportService = enrollmentExportService;
+        this.timetableService = timetableService;
     }
 
     /**
-     * 查询所有选课记录
-     * GET /api/enrollments
+     * 查询所有选课记录（一次加载全表，需显式 all=true；全量导出请使用 /export 流式接口）
+     * GET /api/enrollments?all=true
      */
-    @GetMapping
+    @GetMapping(params = "all=true")
     public ResponseEntity<ApiResponse<List<Enrollment>>> getAllEnrollments() {
         List<Enrollment> enrollments = enrollmentService.findAll();
         return ResponseEntity.ok(ApiResponse.success(enrollments));
     }
 
+    /**
+     * 游标分页查询选课记录，不带参数时返回第一页
+     * GET /api/enrollments?size=50&cursor=...
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<CursorPage<Enrollment>>> getEnrollmentPage(
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return ResponseEntity.ok(ApiResponse.success(enrollmentService.findPage(cursor, size)));
+    }
+
+    /**
+     * 流式导出选课记录（期末全量导出）
+     * GET /api/enrollments/export?format=ndjson|csv&courseId=&status=&from=&to=&gzip=true
+     * from/to 为 ISO 日期时间（如 2025-09-01T00:00:00），区间左闭右开；边读库边写出，内存占用恒定
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportEnrollments(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "courseId", required = false) String courseId,
+            @RequestParam(value = "status", required = false) EnrollmentStatus status,
+            @RequestParam(value = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        EnrollmentExportFilter filter = new EnrollmentExportFilter(courseId, status, from, to);
+        StreamingResponseBody body = enrollmentExportService.export(filter, exportFormat, gzip);
+
+        String filename = "enrollments." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        MediaType contentType = gzip
+                ? MediaType.parseMediaType("application/gzip")
+                : MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8");
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    /**
+     * 导出运行状态
+     * GET /api/enrollments/stats/export
+     */
+    @GetMapping("/stats/export")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getExportStats() {
+        return ResponseEntity.ok(ApiResponse.success(enrollmentExportService.stats()));
+    }
+
     /**
      * 测试端点：返回服务端口号
      * GET /api/enrollments/port
@@ -138,6 +234,99 @@ public class EnrollmentController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    /**
+     * 按课程统计活跃选课人数
+     * GET /api/enrollments/stats/active-counts
+     */
+    @GetMapping("/stats/active-counts")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> getActiveCountsByCourse() {
+        return ResponseEntity.ok(ApiResponse.success(enrollmentService.countActiveByCourse()));
+    }
+
+    /**
+     * 组提交运行状态（批次数、平均批大小等）
+     * GET /api/enrollments/stats/group-commit
+     */
+    @GetMapping("/stats/group-commit")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getGroupCommitStats() {
+        return ResponseEntity.ok(ApiResponse.success(enrollmentCommitter.stats()));
+    }
+
+    /**
+     * 已选人数发件箱中继运行状态
+     * GET /api/enrollments/stats/outbox
+     */
+    @GetMapping("/stats/outbox")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getOutboxStats() {
+        return ResponseEntity.ok(ApiResponse.success(counterOutboxRelay.stats()));
+    }
+
+    /**
+     * 选课请求并发状态（在途/峰值请求数、是否使用虚拟线程）
+     * GET /api/enrollments/stats/in-flight
+     */
+    @GetMapping("/stats/in-flight")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getInFlightStats() {
+        return ResponseEntity.ok(ApiResponse.success(enrollmentService.inFlightStats()));
+    }
+
+    /**
+     * 学生信息近端缓存统计（命中、未命中、淘汰）
+     * GET /api/enrollments/stats/user-cache
+     */
+    @GetMapping("/stats/user-cache")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getUserCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(userLookupService.stats()));
+    }
+
+    /**
+     * 失效单个学生的缓存（学生信息变更后调用）
+     * DELETE /api/enrollments/cache/users/{studentId}
+     */
+    @DeleteMapping("/cache/users/{studentId}")
+    public ResponseEntity<ApiResponse<Void>> invalidateUserCache(@PathVariable String studentId) {
+        userLookupService.invalidate(studentId);
+        return ResponseEntity.ok(ApiResponse.success("User cache invalidated: " + studentId));
+    }
+
+    /**
+     * 清空学生缓存
+     * DELETE /api/enrollments/cache/users
+     */
+    @DeleteMapping("/cache/users")
+    public ResponseEntity<ApiResponse<Void>> invalidateAllUserCache() {
+        userLookupService.invalidateAll();
+        return ResponseEntity.ok(ApiResponse.success("User cache cleared"));
+    }
+
+    /**
+     * 课程信息近端缓存统计（命中、未命中、stale-if-error 兜底次数、版本失效次数）
+     * GET /api/enrollments/stats/course-cache
+     */
+    @GetMapping("/stats/course-cache")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCourseCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(courseLookupService.stats()));
+    }
+
+    /**
+     * 上课时间冲突检测统计（检测次数、冲突次数、课表重建次数）
+     * GET /api/enrollments/stats/timetable
+     */
+    @GetMapping("/stats/timetable")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getTimetableStats() {
+        return ResponseEntity.ok(ApiResponse.success(timetableService.stats()));
+    }
+
+    /**
+     * 失效单门课程的缓存
+     * DELETE /api/enrollments/cache/courses/{courseId}
+     */
+    @DeleteMapping("/cache/courses/{courseId}")
+    public ResponseEntity<ApiResponse<Void>> invalidateCourseCache(@PathVariable String courseId) {
+        courseLookupService.invalidate(courseId);
+        return ResponseEntity.ok(ApiResponse.success("Course cache invalidated: " + courseId));
+    }
+
     /**
      * 根据ID查询选课记录
      * GET /api/enrollments/{id}
@@ -170,26 +359,70 @@ public class EnrollmentController {
         return ResponseEntity.ok(ApiResponse.success(enrollments));
     }
 
+    /**
+     * 为学生推荐可选课程（有剩余座位且与其已选课程时间不冲突，按上课时间排序）
+     * GET /api/enrollments/student/{studentId}/suggestions?days=MONDAY,WEDNESDAY&from=08:00&to=12:00&limit=50
+     */
+    @GetMapping("/student/{studentId}/suggestions")
+    public ResponseEntity<ApiResponse<CourseSlotResultDTO>> getCourseSuggestions(
+            @PathVariable String studentId,
+            @RequestParam(value = "days", required = false) String days,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(ApiResponse.success(enrollmentService.suggestCourses(studentId, days, from, to, limit)));
+    }
+
+    /**
+     * 批量选课（教务整班导入）
+     * POST /api/enrollments/batch
+     * 请求体: {"items": [{"studentId": "...", "courseId": "..."}]}，单次最多 10000 条，返回逐条结果
+     * 不做上课时间冲突检测（由教务排课保证）
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchEnrollmentReport>> batchEnroll(@RequestBody BatchEnrollmentRequest request) {
+        BatchEnrollmentReport report = batchEnrollmentService.enroll(request.getItems());
+        return ResponseEntity.ok(ApiResponse.success(report));
+    }
+
     /**
      * 学生选课
      * POST /api/enrollments
-     * 支持从Gateway传递的请求头读取用户信息
+     * 支持从Gateway传递的请求头读取用户信息；
+     * 携带 Idempotency-Key 时，重复提交直接返回首次成功的 201 结果（响应头 Idempotent-Replayed: true）
      */
     @PostMapping
     public ResponseEntity<ApiResponse<Enrollment>> createEnrollment(
             @RequestHeader(value = "X-User-Id", required = false) String userId,
             @RequestHeader(value = "X-Username", required = false) String username,
             @RequestHeader(value = "X-User-Role", required = false) String userRole,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody Enrollment enrollment) {
         
         // 如果请求头中有用户信息，且enrollment中没有设置studentId，则使用请求头中的用户ID
         if (userId != null && (enrollment.getStudentId() == null || enrollment.getStudentId().isEmpty())) {
             enrollment.setStudentId(userId);
         }
-        
-        Enrollment created = enrollmentService.createEnrollment(enrollment);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.created(created));
+
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            Enrollment created = enrollmentService.createEnrollment(enrollment);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.created(created));
+        }
+
+        Optional<Enrollment> replayed = idempotencyService.lookup(idempotencyKey, enrollment);
+        if (replayed.isPresent()) {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header("Idempotent-Replayed", "true")
+                    .body(ApiResponse.created(replayed.get()));
+        }
+        IdempotencyService.Result result = idempotencyService.execute(idempotencyKey, enrollment,
+                () -> enrollmentService.createEnrollment(enrollment));
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+        if (result.replayed()) {
+            response.header("Idempotent-Replayed", "true");
+        }
+        return response.body(ApiResponse.created(result.enrollment()));
     }
 
     /**
@@ -0,0 +1,67 @@
+package com.zjgsu.szw.coursecloud.enrollment.dto;
+
+import java.util.List;
+
+/**
+ * 批量选课结果报告
+ * results 与请求中的 items 一一对应（按 index 排列）
+ */
+public class BatchEnrollmentReport {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private long durationMs;
+    private List<BatchEnrollmentResult> results;
+
+    public BatchEnrollmentReport() {
+    }
+
+    public BatchEnrollmentReport(List<BatchEnrollmentResult> results, long durationMs) {
+        this.results = results;
+        this.total = results.size();
+        this.succeeded = (int) results.stream().filter(BatchEnrollmentResult::isSuccess).count();
+        this.failed = total - succeeded;
+        this.durationMs = durationMs;
+    }
+
+    // Getters and Setters
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public List<BatchEnrollmentResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchEnrollmentResult> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,53 @@
+package com.zjgsu.szw.coursecloud.enrollment.dto;
+
+import java.util.List;
+
+/**
+ * 批量选课请求
+ */
+public class BatchEnrollmentRequest {
+    private List<Item> items;
+
+    public BatchEnrollmentRequest() {
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+
+    /**
+     * 单条选课：学生学号 + 课程ID
+     */
+    public static class Item {
+        private String studentId;
+        private String courseId;
+
+        public Item() {
+        }
+
+        public Item(String studentId, String courseId) {
+            this.studentId = studentId;
+            this.courseId = courseId;
+        }
+
+        public String getStudentId() {
+            return studentId;
+        }
+
+        public void setStudentId(String studentId) {
+            this.studentId = studentId;
+        }
+
+        public String getCourseId() {
+            return courseId;
+        }
+
+        public void setCourseId(String courseId) {
+            this.courseId = courseId;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.zjgsu.szw.coursecloud.enrollment.dto;
+
+/**
+ * 批量选课中单条请求的处理结果
+ */
+public class BatchEnrollmentResult {
+
+    /**
+     * 单条结果状态
+     */
+    public enum Status {
+        ENROLLED,
+        INVALID,
+        DUPLICATE,
+        STUDENT_NOT_FOUND,
+        COURSE_NOT_FOUND,
+        COURSE_FULL,
+        FAILED
+    }
+
+    private int index;
+    private String studentId;
+    private String courseId;
+    private Status status;
+    private String enrollmentId;
+    private String message;
+
+    public BatchEnrollmentResult() {
+    }
+
+    public BatchEnrollmentResult(int index, String studentId, String courseId, Status status,
+                                 String enrollmentId, String message) {
+        this.index = index;
+        this.studentId = studentId;
+        this.courseId = courseId;
+        this.status = status;
+        this.enrollmentId = enrollmentId;
+        this.message = message;
+    }
+
+    public boolean isSuccess() {
+        return status == Status.ENROLLED;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(String studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(String courseId) {
+        this.courseId = courseId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getEnrollmentId() {
+        return enrollmentId;
+    }
+
+    public void setEnrollmentId(String enrollmentId) {
+        this.enrollmentId = enrollmentId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
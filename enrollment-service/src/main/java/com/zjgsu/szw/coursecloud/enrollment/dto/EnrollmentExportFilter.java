@@ -0,0 +1,17 @@
+package com.zjgsu.szw.coursecloud.enrollment.dto;
+
+import com.zjgsu.szw.coursecloud.enrollment.model.EnrollmentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * 选课记录导出条件，各字段为空时不过滤
+ *
+ * @param courseId 课程ID
+ * @param status   选课状态
+ * @param from     选课时间下限（含）
+ * @param to       选课时间上限（不含）
+ */
+public record EnrollmentExportFilter(String courseId, EnrollmentStatus status,
+                                     LocalDateTime from, LocalDateTime to) {
+}
@@ -0,0 +1,41 @@
+package com.zjgsu.szw.coursecloud.enrollment.dto;
+
+/**
+ * 导出格式
+ */
+public enum ExportFormat {
+    /**
+     * 每行一个JSON对象
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * 带表头的CSV
+     */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormat from(String value) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + value);
+    }
+}
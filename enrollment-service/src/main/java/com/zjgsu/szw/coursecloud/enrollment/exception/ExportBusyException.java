@@ -0,0 +1,10 @@
+package com.zjgsu.szw.coursecloud.enrollment.exception;
+
+/**
+ * 同时进行的导出数量已达上限
+ */
+public class ExportBusyException extends RuntimeException {
+    public ExportBusyException(String message) {
+        super(message);
+    }
+}
@@ -45,6 +45,46 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.badRequest(ex.getMessage()));
     }
 
+    /**
+     * 处理幂等键冲突异常
+     */
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<ApiResponse<Void>> handleIdempotencyKeyConflict(IdempotencyKeyConflictException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error(409, ex.getMessage()));
+    }
+
+    /**
+     * 处理幂等键处理中异常（同一个键的首个请求尚未完成）
+     */
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<ApiResponse<Void>> handleIdempotencyKeyInProgress(IdempotencyKeyInProgressException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error(409, ex.getMessage()));
+    }
+
+    /**
+     * 处理上课时间冲突异常
+     */
+    @ExceptionHandler(ScheduleConflictException.class)
+    public ResponseEntity<ApiResponse<Void>> handleScheduleConflict(ScheduleConflictException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error(409, ex.getMessage()));
+    }
+
+    /**
+     * 处理导出并发已满异常
+     */
+    @ExceptionHandler(ExportBusyException.class)
+    public ResponseEntity<ApiResponse<Void>> handleExportBusy(ExportBusyException ex) {
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .body(ApiResponse.error(429, ex.getMessage()));
+    }
+
     /**
      * 处理Catalog服务不可用异常
      */
@@ -0,0 +1,12 @@
+package com.zjgsu.szw.coursecloud.enrollment.exception;
+
+/**
+ * 幂等键冲突异常
+ * 同一个 Idempotency-Key 被用于不同的选课请求时抛出此异常
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    public IdempotencyKeyConflictException(String key) {
+        super("Idempotency-Key already used for a different request: " + key);
+    }
+}
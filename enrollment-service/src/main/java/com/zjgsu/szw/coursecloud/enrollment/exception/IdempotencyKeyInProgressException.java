@@ -0,0 +1,12 @@
+package com.zjgsu.szw.coursecloud.enrollment.exception;
+
+/**
+ * 幂等键处理中异常
+ * 同一个 Idempotency-Key 的首个请求仍在执行（可能在另一个实例上），等待超时后抛出此异常
+ */
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException(String key) {
+        super("Request with this Idempotency-Key is still in progress, retry later: " + key);
+    }
+}
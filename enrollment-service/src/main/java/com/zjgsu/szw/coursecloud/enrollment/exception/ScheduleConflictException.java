@@ -0,0 +1,18 @@
+package com.zjgsu.szw.coursecloud.enrollment.exception;
+
+/**
+ * 上课时间冲突异常：所选课程与学生已选的某门课程时间重叠
+ */
+public class ScheduleConflictException extends RuntimeException {
+
+    private final String conflictingCourseId;
+
+    public ScheduleConflictException(String conflictingCourseId, String message) {
+        super(message);
+        this.conflictingCourseId = conflictingCourseId;
+    }
+
+    public String getConflictingCourseId() {
+        return conflictingCourseId;
+    }
+}
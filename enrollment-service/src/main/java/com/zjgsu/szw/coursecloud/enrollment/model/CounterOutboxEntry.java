@@ -0,0 +1,116 @@
+package com.zjgsu.szw.coursecloud.enrollment.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 课程已选人数变更发件箱
+ * 与选课记录的删除/补偿在同一事务内写入，由后台中继合并后推送给catalog-service；
+ * 首次领取时分配推送批次ID，之后重发始终使用同一批次ID和同一组记录，catalog据此去重
+ */
+@Entity
+@Table(name = "course_counter_outbox", indexes = {
+        @Index(name = "idx_outbox_next_attempt", columnList = "next_attempt_at"),
+        @Index(name = "idx_outbox_batch_id", columnList = "batch_id")
+})
+public class CounterOutboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "course_id", nullable = false, length = 36)
+    private String courseId;
+
+    @Column(nullable = false)
+    private int delta; // 有符号增量，退课为 -1
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "batch_id", length = 36)
+    private String batchId; // 尚未领取过时为空
+
+    public CounterOutboxEntry() {
+    }
+
+    public CounterOutboxEntry(String courseId, int delta) {
+        this.courseId = courseId;
+        this.delta = delta;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(String courseId) {
+        this.courseId = courseId;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public void setDelta(int delta) {
+        this.delta = delta;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(String batchId) {
+        this.batchId = batchId;
+    }
+}
@@ -0,0 +1,139 @@
+package com.zjgsu.szw.coursecloud.enrollment.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 选课幂等记录
+ * 首个请求执行前以 PENDING 状态插入（主键即跨实例的互斥），成功后补全首次选课结果并标记为 COMPLETED，
+ * 重放请求直接返回该结果；执行失败时删除，PENDING 记录的过期时间较短，实例崩溃后可被后续请求接管
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_expires_at", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "idem_key", length = 128)
+    private String key;
+
+    @Column(name = "student_id", nullable = false, length = 50)
+    private String studentId;
+
+    @Column(name = "course_id", nullable = false, length = 36)
+    private String courseId;
+
+    @Column(name = "enrollment_id", length = 36)
+    private String enrollmentId; // PENDING 时为空
+
+    @Column(name = "enrolled_at")
+    private LocalDateTime enrolledAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20)
+    private EnrollmentStatus status;
+
+    // 旧版本写入的记录没有状态，均为已完成
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", length = 20)
+    private IdempotencyState state;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String key, Enrollment enrollment, LocalDateTime expiresAt) {
+        this.key = key;
+        this.studentId = enrollment.getStudentId();
+        this.courseId = enrollment.getCourseId();
+        this.enrollmentId = enrollment.getId();
+        this.enrolledAt = enrollment.getEnrolledAt();
+        this.status = enrollment.getStatus();
+        this.state = IdempotencyState.COMPLETED;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * 首个请求是否已完成（PENDING 记录没有可重放的结果）
+     */
+    public boolean isCompleted() {
+        return state != IdempotencyState.PENDING;
+    }
+
+    /**
+     * 还原首次请求返回的选课记录
+     */
+    public Enrollment toEnrollment() {
+        Enrollment enrollment = new Enrollment(enrollmentId, courseId, studentId);
+        enrollment.setEnrolledAt(enrolledAt);
+        enrollment.setStatus(status);
+        return enrollment;
+    }
+
+    // Getters and Setters
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(String studentId) {
+        this.studentId = studentId;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(String courseId) {
+        this.courseId = courseId;
+    }
+
+    public String getEnrollmentId() {
+        return enrollmentId;
+    }
+
+    public void setEnrollmentId(String enrollmentId) {
+        this.enrollmentId = enrollmentId;
+    }
+
+    public LocalDateTime getEnrolledAt() {
+        return enrolledAt;
+    }
+
+    public void setEnrolledAt(LocalDateTime enrolledAt) {
+        this.enrolledAt = enrolledAt;
+    }
+
+    public EnrollmentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(EnrollmentStatus status) {
+        this.status = status;
+    }
+
+    public IdempotencyState getState() {
+        return state;
+    }
+
+    public void setState(IdempotencyState state) {
+        this.state = state;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,16 @@
+package com.zjgsu.szw.coursecloud.enrollment.model;
+
+/**
+ * 幂等记录状态枚举
+ */
+public enum IdempotencyState {
+    /**
+     * 首个请求正在执行（占用该键，其他实例的同键请求等待或返回409）
+     */
+    PENDING,
+
+    /**
+     * 已成功完成，记录了首次选课结果
+     */
+    COMPLETED
+}
@@ -0,0 +1,71 @@
+package com.zjgsu.szw.coursecloud.enrollment.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 占座意向
+ * 调用catalog-service占座之前写入，与占座成功后的选课记录在同一事务内删除；
+ * 残留的意向表示占座结果未知或选课记录未能写入，由对账任务按catalog记录的授予数释放座位
+ */
+@Entity
+@Table(name = "seat_reservation_intents", indexes = {
+        @Index(name = "idx_reservation_intent_created_at", columnList = "created_at")
+})
+public class SeatReservationIntent {
+    @Id
+    @Column(name = "reservation_id", length = 36)
+    private String reservationId;
+
+    @Column(name = "course_id", nullable = false, length = 36)
+    private String courseId;
+
+    @Column(nullable = false)
+    private int seats;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public SeatReservationIntent() {
+    }
+
+    public SeatReservationIntent(String reservationId, String courseId, int seats) {
+        this.reservationId = reservationId;
+        this.courseId = courseId;
+        this.seats = seats;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(String courseId) {
+        this.courseId = courseId;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public void setSeats(int seats) {
+        this.seats = seats;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,36 @@
+package com.zjgsu.szw.coursecloud.enrollment.repository;
+
+import com.zjgsu.szw.coursecloud.enrollment.model.CounterOutboxEntry;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 已选人数变更发件箱数据访问层
+ */
+@Repository
+public interface CounterOutboxRepository extends JpaRepository<CounterOutboxEntry, Long> {
+
+    /**
+     * 锁定一批到期的发件箱记录（FOR UPDATE SKIP LOCKED）
+     * 多个enrollment-service实例同时中继时各自领取不同的记录，不会重复推送
+     */
+    @Query(value = "SELECT * FROM course_counter_outbox WHERE next_attempt_at <= :now "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<CounterOutboxEntry> lockDueBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * 锁定指定推送批次的全部记录（FOR UPDATE，会等待而不是跳过）
+     * 重发批次时补齐被 lockDueBatch 的 LIMIT 截断的同批记录，保证同一批次ID推送的增量始终相同
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM CounterOutboxEntry e WHERE e.batchId IN :batchIds")
+    List<CounterOutboxEntry> findByBatchIdInForUpdate(@Param("batchIds") Collection<String> batchIds);
+}
@@ -0,0 +1,87 @@
+package com.zjgsu.szw.coursecloud.enrollment.repository;
+
+import com.zjgsu.szw.coursecloud.enrollment.config.ExportProperties;
+import com.zjgsu.szw.coursecloud.enrollment.dto.EnrollmentExportFilter;
+import com.zjgsu.szw.coursecloud.enrollment.model.Enrollment;
+import com.zjgsu.szw.coursecloud.enrollment.model.EnrollmentStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 选课记录流式读取（JdbcTemplate + 游标）
+ * 结果集逐行交给回调处理，不进入JPA持久化上下文，内存占用与总行数无关
+ */
+@Repository
+public class EnrollmentExportRepository {
+
+    private static final String SELECT_SQL =
+            "SELECT id, course_id, student_id, enrolled_at, status FROM enrollments";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExportProperties properties;
+
+    public EnrollmentExportRepository(JdbcTemplate jdbcTemplate, ExportProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * 按条件逐行读取选课记录，回调抛出的异常会中止读取并原样抛出
+     *
+     * @return 读取的行数
+     */
+    public long stream(EnrollmentExportFilter filter, Consumer<Enrollment> consumer) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        if (filter.courseId() != null) {
+            conditions.add("course_id = ?");
+            args.add(filter.courseId());
+        }
+        if (filter.status() != null) {
+            conditions.add("status = ?");
+            args.add(filter.status().name());
+        }
+        if (filter.from() != null) {
+            conditions.add("enrolled_at >= ?");
+            args.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            conditions.add("enrolled_at < ?");
+            args.add(Timestamp.valueOf(filter.to()));
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+
+        long[] rows = { 0 };
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL 驱动默认把整个结果集读入内存，Integer.MIN_VALUE 切换为逐行流式读取
+            ps.setFetchSize(properties.getFetchSize() > 0 ? properties.getFetchSize() : Integer.MIN_VALUE);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, rs -> {
+            Enrollment enrollment = new Enrollment();
+            enrollment.setId(rs.getString(1));
+            enrollment.setCourseId(rs.getString(2));
+            enrollment.setStudentId(rs.getString(3));
+            Timestamp enrolledAt = rs.getTimestamp(4);
+            enrollment.setEnrolledAt(enrolledAt != null ? enrolledAt.toLocalDateTime() : null);
+            enrollment.setStatus(EnrollmentStatus.valueOf(rs.getString(5)));
+            consumer.accept(enrollment);
+            rows[0]++;
+        });
+        return rows[0];
+    }
+}
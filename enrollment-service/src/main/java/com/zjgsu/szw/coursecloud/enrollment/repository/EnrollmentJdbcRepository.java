@@ -0,0 +1,62 @@
+package com.zjgsu.szw.coursecloud.enrollment.repository;
+
+import com.zjgsu.szw.coursecloud.enrollment.model.Enrollment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * 选课记录批量写入（JdbcTemplate）
+ * 绕过JPA逐条 merge/flush，配合连接参数 rewriteBatchedStatements=true 由驱动改写为多行INSERT
+ */
+@Repository
+public class EnrollmentJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO enrollments (id, course_id, student_id, enrolled_at, status) VALUES (?, ?, ?, ?, ?)";
+
+    /**
+     * 每次发送给驱动的批大小，大批量写入按此切分但仍在同一事务内
+     */
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EnrollmentJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 在一个事务内批量插入选课记录，任一条失败则整批回滚
+     */
+    @Transactional
+    public void batchInsert(List<Enrollment> enrollments) {
+        if (enrollments.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, enrollments, BATCH_SIZE, (ps, enrollment) -> {
+            ps.setString(1, enrollment.getId());
+            ps.setString(2, enrollment.getCourseId());
+            ps.setString(3, enrollment.getStudentId());
+            ps.setTimestamp(4, Timestamp.valueOf(enrollment.getEnrolledAt()));
+            ps.setString(5, enrollment.getStatus().name());
+        });
+    }
+
+    /**
+     * 插入单条选课记录，不开启事务，加入调用方已有的事务
+     * 违反唯一约束只回滚这一条语句（InnoDB语句级回滚），抛出的 DuplicateKeyException
+     * 不会把调用方事务标记为 rollback-only，调用方可以跳过该记录继续写入
+     */
+    public void insert(Enrollment enrollment) {
+        jdbcTemplate.update(INSERT_SQL,
+                enrollment.getId(),
+                enrollment.getCourseId(),
+                enrollment.getStudentId(),
+                Timestamp.valueOf(enrollment.getEnrolledAt()),
+                enrollment.getStatus().name());
+    }
+}
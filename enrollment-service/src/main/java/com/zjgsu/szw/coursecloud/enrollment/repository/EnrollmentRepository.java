@@ -2,10 +2,13 @@ package com.zjgsu.szw.coursecloud.enrollment.repository;
 
 import com.zjgsu.szw.coursecloud.enrollment.model.Enrollment;
 import com.zjgsu.szw.coursecloud.enrollment.model.EnrollmentStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -15,6 +18,11 @@ import java.util.List;
 @Repository
 public interface EnrollmentRepository extends JpaRepository<Enrollment, String> {
 
+    /**
+     * 按主键游标翻页：查询主键大于 afterId 的选课记录（主键索引定位，不使用 OFFSET）
+     */
+    List<Enrollment> findByIdGreaterThanOrderByIdAsc(String afterId, Limit limit);
+
     /**
      * 根据课程ID查询选课记录
      */
@@ -25,11 +33,32 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, String>
      */
     List<Enrollment> findByStudentId(String studentId);
 
+    /**
+     * 查询学生所有活跃选课的课程ID（时间冲突检测使用，走 student_id 索引）
+     */
+    @Query("SELECT e.courseId FROM Enrollment e WHERE e.studentId = :studentId AND e.status = 'ACTIVE'")
+    List<String> findActiveCourseIdsByStudentId(@Param("studentId") String studentId);
+
     /**
      * 检查学生是否已选某门课程
      */
     boolean existsByCourseIdAndStudentId(String courseId, String studentId);
 
+    /**
+     * 查询某课程中已选课的学生（组提交时一次性查重）
+     */
+    @Query("SELECT e.studentId FROM Enrollment e WHERE e.courseId = :courseId AND e.studentId IN :studentIds")
+    List<String> findStudentIdsByCourseIdAndStudentIdIn(@Param("courseId") String courseId,
+                                                        @Param("studentIds") Collection<String> studentIds);
+
+    /**
+     * 查询若干课程与若干学生之间已存在的选课记录（批量选课一次性查重）
+     * 返回 [courseId, studentId] 数组列表，调用方按 (课程, 学生) 组合过滤
+     */
+    @Query("SELECT e.courseId, e.studentId FROM Enrollment e WHERE e.courseId IN :courseIds AND e.studentId IN :studentIds")
+    List<Object[]> findPairsByCourseIdInAndStudentIdIn(@Param("courseIds") Collection<String> courseIds,
+                                                       @Param("studentIds") Collection<String> studentIds);
+
     /**
      * 统计某课程的选课人数
      */
@@ -55,4 +84,11 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, String>
      */
     @Query("SELECT COUNT(e) FROM Enrollment e WHERE e.courseId = ?1 AND e.status = 'ACTIVE'")
     long countActiveByCourseId(String courseId);
+
+    /**
+     * 按课程分组统计活跃选课人数
+     * 返回 [courseId, count] 数组列表
+     */
+    @Query("SELECT e.courseId, COUNT(e) FROM Enrollment e WHERE e.status = 'ACTIVE' GROUP BY e.courseId")
+    List<Object[]> countActiveGroupByCourseId();
 }
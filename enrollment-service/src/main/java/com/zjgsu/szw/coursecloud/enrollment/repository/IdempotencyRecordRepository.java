@@ -0,0 +1,55 @@
+package com.zjgsu.szw.coursecloud.enrollment.repository;
+
+import com.zjgsu.szw.coursecloud.enrollment.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * 选课幂等记录数据访问层
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * 删除已过期的幂等记录
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    /**
+     * 以 PENDING 状态占用幂等键（INSERT IGNORE），键已存在时不报错
+     *
+     * @return 1 表示占用成功，0 表示键已被占用或已完成
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO idempotency_keys (idem_key, student_id, course_id, state, expires_at) "
+            + "VALUES (:key, :studentId, :courseId, 'PENDING', :expiresAt)", nativeQuery = true)
+    int insertPending(@Param("key") String key, @Param("studentId") String studentId,
+                      @Param("courseId") String courseId, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * 删除已过期的单个幂等键（包括执行中实例崩溃后遗留的 PENDING 记录），之后可以重新占用
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.expiresAt < :now")
+    int deleteExpiredKey(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    /**
+     * 释放执行失败的幂等键（只删除 PENDING 记录）
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key "
+            + "AND r.state = com.zjgsu.szw.coursecloud.enrollment.model.IdempotencyState.PENDING")
+    int deletePending(@Param("key") String key);
+}
@@ -0,0 +1,32 @@
+package com.zjgsu.szw.coursecloud.enrollment.repository;
+
+import com.zjgsu.szw.coursecloud.enrollment.model.SeatReservationIntent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 占座意向数据访问层
+ */
+@Repository
+public interface SeatReservationIntentRepository extends JpaRepository<SeatReservationIntent, String> {
+
+    /**
+     * 查询早于指定时间写入、仍未删除的占座意向（待对账）
+     */
+    List<SeatReservationIntent> findByCreatedAtBeforeOrderByCreatedAtAsc(LocalDateTime before, Limit limit);
+
+    /**
+     * 删除占座意向，必须在调用方事务内执行
+     * 选课写入与对账任务都通过它认领意向，返回0表示已被另一方处理
+     */
+    @Modifying
+    @Query("DELETE FROM SeatReservationIntent i WHERE i.reservationId = :reservationId")
+    int deleteByReservationId(@Param("reservationId") String reservationId);
+}
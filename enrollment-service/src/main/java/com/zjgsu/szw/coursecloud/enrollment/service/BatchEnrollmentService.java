@@ -0,0 +1,317 @@
+package com.zjgsu.szw.coursecloud.enrollment.service;
+
+import com.zjgsu.szw.coursecloud.enrollment.client.CatalogClient;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.ApiResponseWrapper;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.CourseDTO;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.SeatReservationDTO;
+import com.zjgsu.szw.coursecloud.enrollment.dto.BatchEnrollmentReport;
+import com.zjgsu.szw.coursecloud.enrollment.dto.BatchEnrollmentRequest;
+import com.zjgsu.szw.coursecloud.enrollment.dto.BatchEnrollmentResult;
+import com.zjgsu.szw.coursecloud.enrollment.dto.BatchEnrollmentResult.Status;
+import com.zjgsu.szw.coursecloud.enrollment.exception.CatalogServiceUnavailableException;
+import com.zjgsu.szw.coursecloud.enrollment.model.Enrollment;
+import com.zjgsu.szw.coursecloud.enrollment.model.EnrollmentStatus;
+import com.zjgsu.szw.coursecloud.enrollment.repository.EnrollmentJdbcRepository;
+import com.zjgsu.szw.coursecloud.enrollment.repository.EnrollmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 批量选课
+ *
+ * 面向教务整班导入：学生、课程各一次批量查询校验，选课记录一次查询查重，
+ * 每门课程一次占座调用，最后在一个事务内用JDBC批量写入。
+ * 单条失败（学生/课程不存在、重复、课程已满）只影响该条，结果按请求顺序逐条返回。
+ * 每门课程占座前写入占座意向，与选课记录在同一事务内删除；写入失败时由 SeatReservationTracker 对账释放座位。
+ * 不做上课时间冲突检测（TimetableService）：整班导入按教务排定的课表执行，冲突由教务排课保证。
+ */
+@Service
+public class BatchEnrollmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchEnrollmentService.class);
+
+    /**
+     * 单次请求允许的最大条数
+     */
+    public static final int MAX_ITEMS = 10000;
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final EnrollmentJdbcRepository enrollmentJdbcRepository;
+    private final CatalogClient catalogClient;
+    private final UserLookupService userLookupService;
+    private final CourseSeatService courseSeatService;
+    private final CounterOutboxRelay counterOutboxRelay;
+    private final SeatReservationTracker seatReservationTracker;
+    private final TransactionTemplate transactionTemplate;
+
+    public BatchEnrollmentService(EnrollmentRepository enrollmentRepository,
+                                  EnrollmentJdbcRepository enrollmentJdbcRepository,
+                                  CatalogClient catalogClient,
+                                  UserLookupService userLookupService,
+                                  CourseSeatService courseSeatService,
+                                  CounterOutboxRelay counterOutboxRelay,
+                                  SeatReservationTracker seatReservationTracker,
+                                  PlatformTransactionManager transactionManager) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.enrollmentJdbcRepository = enrollmentJdbcRepository;
+        this.catalogClient = catalogClient;
+        this.userLookupService = userLookupService;
+        this.courseSeatService = courseSeatService;
+        this.counterOutboxRelay = counterOutboxRelay;
+        this.seatReservationTracker = seatReservationTracker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 批量选课
+     * 学生或课程服务不可用时整批失败（尚未写入任何数据）；其余错误记录在对应条目的结果中
+     */
+    public BatchEnrollmentReport enroll(List<BatchEnrollmentRequest.Item> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Batch items are required");
+        }
+        if (items.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("Batch size exceeds limit: " + items.size() + " > " + MAX_ITEMS);
+        }
+        long start = System.currentTimeMillis();
+        logger.info("开始批量选课 - 条数: {}", items.size());
+
+        BatchEnrollmentResult[] results = new BatchEnrollmentResult[items.size()];
+
+        // 1. 基本校验与批内去重
+        List<Integer> pending = new ArrayList<>();
+        Set<String> seenPairs = new HashSet<>();
+        Set<String> studentIds = new LinkedHashSet<>();
+        Set<String> courseIds = new LinkedHashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            BatchEnrollmentRequest.Item item = items.get(i);
+            if (item == null || isBlank(item.getStudentId()) || isBlank(item.getCourseId())) {
+                results[i] = fail(i, item, Status.INVALID, "studentId and courseId are required");
+            } else if (!seenPairs.add(pairKey(item.getCourseId(), item.getStudentId()))) {
+                results[i] = fail(i, item, Status.DUPLICATE, "Duplicate item in batch");
+            } else {
+                pending.add(i);
+                studentIds.add(item.getStudentId());
+                courseIds.add(item.getCourseId());
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            // 2. 学生、课程各一次批量查询
+            Set<String> existingStudents = fetchExistingStudents(studentIds);
+            Set<String> existingCourses = fetchExistingCourses(courseIds);
+
+            // 3. 一次查询找出已存在的选课记录
+            Set<String> enrolledPairs = new HashSet<>();
+            for (Object[] row : enrollmentRepository.findPairsByCourseIdInAndStudentIdIn(courseIds, studentIds)) {
+                enrolledPairs.add(pairKey((String) row[0], (String) row[1]));
+            }
+
+            Map<String, List<Integer>> byCourse = new LinkedHashMap<>();
+            for (int i : pending) {
+                BatchEnrollmentRequest.Item item = items.get(i);
+                if (!existingStudents.contains(item.getStudentId())) {
+                    results[i] = fail(i, item, Status.STUDENT_NOT_FOUND,
+                            "Student not found with studentId: " + item.getStudentId());
+                } else if (!existingCourses.contains(item.getCourseId())) {
+                    results[i] = fail(i, item, Status.COURSE_NOT_FOUND,
+                            "Course not found with id: " + item.getCourseId());
+                } else if (enrolledPairs.contains(pairKey(item.getCourseId(), item.getStudentId()))) {
+                    results[i] = fail(i, item, Status.DUPLICATE, "Already enrolled in this course");
+                } else {
+                    byCourse.computeIfAbsent(item.getCourseId(), k -> new ArrayList<>()).add(i);
+                }
+            }
+
+            // 4. 每门课程先写入占座意向再占座，余量不足的条目按请求顺序拒绝
+            List<Integer> accepted = new ArrayList<>();
+            List<Enrollment> records = new ArrayList<>();
+            List<String> reservationIds = new ArrayList<>();
+            byCourse.forEach((courseId, indexes) -> {
+                SeatReservationDTO reservation;
+                String reservationId;
+                try {
+                    reservationId = seatReservationTracker.begin(courseId, indexes.size());
+                    reservation = courseSeatService.reserveSeats(courseId, indexes.size(), reservationId);
+                } catch (RuntimeException e) {
+                    for (int i : indexes) {
+                        results[i] = fail(i, items.get(i), Status.FAILED, e.getMessage());
+                    }
+                    return;
+                }
+                int granted = Math.max(0, Math.min(reservation.getGranted(), indexes.size()));
+                if (granted > 0) {
+                    reservationIds.add(reservationId);
+                } else {
+                    seatReservationTracker.discard(reservationId);
+                }
+                for (int n = 0; n < indexes.size(); n++) {
+                    int i = indexes.get(n);
+                    if (n >= granted) {
+                        results[i] = fail(i, items.get(i), Status.COURSE_FULL, String.format(
+                                "课程已满或不可选: %s (容量: %d, 已选: %d)",
+                                courseId, reservation.getCapacity(), reservation.getEnrolled()));
+                        continue;
+                    }
+                    accepted.add(i);
+                    records.add(newEnrollment(items.get(i)));
+                }
+            });
+
+            // 5. 一个事务内批量写入
+            insert(items, accepted, records, reservationIds, results);
+        }
+
+        BatchEnrollmentReport report = new BatchEnrollmentReport(Arrays.asList(results),
+                System.currentTimeMillis() - start);
+        logger.info("批量选课完成 - 条数: {}, 成功: {}, 失败: {}, 耗时: {}ms",
+                report.getTotal(), report.getSucceeded(), report.getFailed(), report.getDurationMs());
+        return report;
+    }
+
+    /**
+     * 批量写入选课记录并删除占座意向（同一事务）；整批违反唯一约束（例如与并发请求撞上）时逐条写入，
+     * 写入失败的座位在同一事务内写入发件箱释放。其他异常使事务回滚、不写入任何记录，座位由对账任务释放
+     */
+    private void insert(List<BatchEnrollmentRequest.Item> items, List<Integer> accepted,
+                        List<Enrollment> records, List<String> reservationIds,
+                        BatchEnrollmentResult[] results) {
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                enrollmentJdbcRepository.batchInsert(records);
+                reservationIds.forEach(seatReservationTracker::complete);
+            });
+            for (int n = 0; n < records.size(); n++) {
+                int i = accepted.get(n);
+                results[i] = success(i, records.get(n));
+            }
+            return;
+        } catch (DuplicateKeyException e) {
+            logger.warn("批量写入失败，逐条重试: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            failAll(items, accepted, results, e);
+            return;
+        }
+
+        boolean[] duplicate = new boolean[records.size()];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, Integer> failedSeats = new HashMap<>();
+                for (int n = 0; n < records.size(); n++) {
+                    Enrollment record = records.get(n);
+                    try {
+                        // 不带事务的单条写入：重复记录只回滚该语句，不会使整批事务提交失败
+                        enrollmentJdbcRepository.insert(record);
+                        duplicate[n] = false;
+                    } catch (DuplicateKeyException e) {
+                        duplicate[n] = true;
+                        failedSeats.merge(record.getCourseId(), 1, Integer::sum);
+                    }
+                }
+                if (!failedSeats.isEmpty()) {
+                    releaseSeats(failedSeats);
+                }
+                reservationIds.forEach(seatReservationTracker::complete);
+            });
+        } catch (RuntimeException e) {
+            failAll(items, accepted, results, e);
+            return;
+        }
+        for (int n = 0; n < records.size(); n++) {
+            int i = accepted.get(n);
+            results[i] = duplicate[n]
+                    ? fail(i, items.get(i), Status.DUPLICATE, "Already enrolled in this course")
+                    : success(i, records.get(n));
+        }
+    }
+
+    /**
+     * 写入事务回滚，所有已占座的条目失败；占座意向保留，由对账任务释放座位
+     */
+    private void failAll(List<BatchEnrollmentRequest.Item> items, List<Integer> accepted,
+                         BatchEnrollmentResult[] results, RuntimeException e) {
+        logger.warn("批量写入选课记录失败，占座意向留待对账: {}", e.getMessage());
+        for (int i : accepted) {
+            results[i] = fail(i, items.get(i), Status.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * 写入失败的座位通过发件箱释放（随调用方事务提交），由中继合并后推送
+     */
+    private void releaseSeats(Map<String, Integer> failedSeats) {
+        Map<String, Integer> deltas = new HashMap<>();
+        failedSeats.forEach((courseId, seats) -> deltas.put(courseId, -seats));
+        counterOutboxRelay.enqueue(deltas);
+    }
+
+    private Set<String> fetchExistingStudents(Set<String> studentIds) {
+        return userLookupService.findExisting(studentIds);
+    }
+
+    private Set<String> fetchExistingCourses(Set<String> courseIds) {
+        ApiResponseWrapper<List<CourseDTO>> response;
+        try {
+            response = catalogClient.getCoursesByIds(new ArrayList<>(courseIds));
+        } catch (Exception e) {
+            throw new CatalogServiceUnavailableException("调用课程服务失败: " + e.getMessage(), e);
+        }
+        if (response.getCode() == 503) {
+            throw new CatalogServiceUnavailableException(response.getMessage());
+        }
+        if (!response.isSuccess() || response.getData() == null) {
+            throw new CatalogServiceUnavailableException("批量查询课程失败: " + response.getMessage());
+        }
+        Set<String> existing = new HashSet<>();
+        for (CourseDTO course : response.getData()) {
+            existing.add(course.getId());
+        }
+        return existing;
+    }
+
+    private static Enrollment newEnrollment(BatchEnrollmentRequest.Item item) {
+        Enrollment enrollment = new Enrollment(UUID.randomUUID().toString(), item.getCourseId(), item.getStudentId());
+        enrollment.setStatus(EnrollmentStatus.ACTIVE);
+        enrollment.setEnrolledAt(LocalDateTime.now());
+        return enrollment;
+    }
+
+    private static BatchEnrollmentResult success(int index, Enrollment enrollment) {
+        return new BatchEnrollmentResult(index, enrollment.getStudentId(), enrollment.getCourseId(),
+                Status.ENROLLED, enrollment.getId(), null);
+    }
+
+    private static BatchEnrollmentResult fail(int index, BatchEnrollmentRequest.Item item, Status status, String message) {
+        return new BatchEnrollmentResult(index,
+                item != null ? item.getStudentId() : null,
+                item != null ? item.getCourseId() : null,
+                status, null, message);
+    }
+
+    private static String pairKey(String courseId, String studentId) {
+        return courseId + '\n' + studentId;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,220 @@
+package com.zjgsu.szw.coursecloud.enrollment.service;
+
+import com.zjgsu.szw.coursecloud.enrollment.config.OutboxProperties;
+import com.zjgsu.szw.coursecloud.enrollment.model.CounterOutboxEntry;
+import com.zjgsu.szw.coursecloud.enrollment.repository.CounterOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 已选人数发件箱中继（事务性发件箱模式）
+ *
+ * 退课、写入失败补偿等需要修改课程已选人数的操作不再同步调用catalog-service，
+ * 而是在本地事务内写一条发件箱记录；后台中继按批领取记录、按课程合并增量，
+ * 通过一次 enrolled-deltas 调用推送，成功后删除记录，失败时按指数退避重试。
+ *
+ * 领取、推送、删除分为三步：领取在一个短事务内用 FOR UPDATE SKIP LOCKED 选出到期记录，
+ * 分配推送批次ID并把下次尝试时间推到租约到期，提交后行锁即释放；远程调用在事务之外进行，
+ * 成功后再用一个短事务删除记录。catalog-service 在调整已选人数的同一事务内登记批次ID并拒绝重复批次，
+ * 因此推送成功但删除失败、调用超时但已生效、中继在推送途中退出（租约到期后被重新领取）
+ * 等情况下重发同一批次都不会重复调整。
+ */
+@Component
+public class CounterOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(CounterOutboxRelay.class);
+
+    private final OutboxProperties properties;
+    private final CounterOutboxRepository outboxRepository;
+    private final CourseSeatService courseSeatService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong relayedEntries = new AtomicLong();
+    private final AtomicLong relayedBatches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong duplicateBatches = new AtomicLong();
+    private volatile LocalDateTime lastRelayAt;
+    private volatile String lastError;
+
+    public CounterOutboxRelay(OutboxProperties properties,
+                              CounterOutboxRepository outboxRepository,
+                              CourseSeatService courseSeatService,
+                              PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.outboxRepository = outboxRepository;
+        this.courseSeatService = courseSeatService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 写入已选人数变更，若调用方处于事务中则随该事务一起提交
+     */
+    public void enqueue(String courseId, int delta) {
+        outboxRepository.save(new CounterOutboxEntry(courseId, delta));
+    }
+
+    /**
+     * 批量写入已选人数变更（课程ID -> 有符号增量）
+     */
+    public void enqueue(Map<String, Integer> deltas) {
+        List<CounterOutboxEntry> entries = new ArrayList<>();
+        deltas.forEach((courseId, delta) -> {
+            if (delta != null && delta != 0) {
+                entries.add(new CounterOutboxEntry(courseId, delta));
+            }
+        });
+        outboxRepository.saveAll(entries);
+    }
+
+    /**
+     * 定时中继：连续处理到期记录，直到不足一批或推送失败
+     */
+    @Scheduled(fixedDelayString = "${enrollment.outbox.poll-interval-ms:500}")
+    public void relay() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            int claimed;
+            boolean failed;
+            do {
+                Collection<List<CounterOutboxEntry>> batches = transactionTemplate.execute(status -> claim());
+                claimed = 0;
+                failed = false;
+                for (List<CounterOutboxEntry> batch : batches) {
+                    claimed += batch.size();
+                    failed |= !relayBatch(batch);
+                }
+            } while (!failed && claimed >= properties.getBatchSize());
+        } catch (Exception e) {
+            logger.error("发件箱中继异常: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 中继运行状态
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("pendingEntries", outboxRepository.count());
+        stats.put("relayedEntries", relayedEntries.get());
+        stats.put("relayedBatches", relayedBatches.get());
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("duplicateBatches", duplicateBatches.get());
+        stats.put("lastRelayAt", lastRelayAt);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+
+    /**
+     * 在当前事务内领取一批到期记录并按推送批次分组
+     * 尚未推送过的记录分配新的批次ID；重发的批次补齐同批的全部记录，保证同一批次ID推送的增量始终相同。
+     * 所有领取的记录把下次尝试时间推到租约到期，事务提交后其他中继不会再领取它们
+     */
+    private Collection<List<CounterOutboxEntry>> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<CounterOutboxEntry> due = outboxRepository.lockDueBatch(now, properties.getBatchSize());
+        if (due.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, CounterOutboxEntry> claimed = new LinkedHashMap<>();
+        Set<String> resent = new HashSet<>();
+        for (CounterOutboxEntry entry : due) {
+            claimed.put(entry.getId(), entry);
+            if (entry.getBatchId() != null) {
+                resent.add(entry.getBatchId());
+            }
+        }
+        if (!resent.isEmpty()) {
+            for (CounterOutboxEntry entry : outboxRepository.findByBatchIdInForUpdate(resent)) {
+                claimed.putIfAbsent(entry.getId(), entry);
+            }
+        }
+
+        String newBatchId = UUID.randomUUID().toString();
+        LocalDateTime leaseUntil = now.plusNanos(properties.getLeaseMs() * 1_000_000);
+        Map<String, List<CounterOutboxEntry>> batches = new LinkedHashMap<>();
+        for (CounterOutboxEntry entry : claimed.values()) {
+            if (entry.getBatchId() == null) {
+                entry.setBatchId(newBatchId);
+            }
+            entry.setNextAttemptAt(leaseUntil);
+            batches.computeIfAbsent(entry.getBatchId(), k -> new ArrayList<>()).add(entry);
+        }
+        return batches.values();
+    }
+
+    /**
+     * 在事务之外推送一个批次，之后用短事务删除记录或记录重试信息
+     *
+     * @return 推送成功（包括该批次已生效过）时返回 true
+     */
+    private boolean relayBatch(List<CounterOutboxEntry> entries) {
+        String batchId = entries.get(0).getBatchId();
+        Map<String, Integer> deltas = new LinkedHashMap<>();
+        List<Long> ids = new ArrayList<>(entries.size());
+        for (CounterOutboxEntry entry : entries) {
+            deltas.merge(entry.getCourseId(), entry.getDelta(), Integer::sum);
+            ids.add(entry.getId());
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+
+        try {
+            if (!deltas.isEmpty() && courseSeatService.applyEnrolledDeltas(batchId, deltas) == null) {
+                duplicateBatches.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            // 批次ID保持不变：调用可能已经生效，重发时由catalog去重
+            LocalDateTime now = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status -> {
+                for (CounterOutboxEntry entry : outboxRepository.findAllById(ids)) {
+                    int attempts = entry.getAttempts() + 1;
+                    entry.setAttempts(attempts);
+                    entry.setNextAttemptAt(now.plusNanos(backoffMs(attempts) * 1_000_000));
+                    entry.setLastError(truncate(e.getMessage()));
+                }
+            });
+            failedBatches.incrementAndGet();
+            lastError = e.getMessage();
+            logger.warn("发件箱推送失败，批次 {} 的 {} 条记录将退避重试: {}", batchId, entries.size(), e.getMessage());
+            return false;
+        }
+
+        // 删除失败时记录在租约到期后以同一批次ID重发，catalog会拒绝重复批次
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.deleteAllByIdInBatch(ids));
+        relayedEntries.addAndGet(entries.size());
+        relayedBatches.incrementAndGet();
+        lastRelayAt = LocalDateTime.now();
+        logger.debug("发件箱推送完成 - 批次: {}, 记录: {}, 课程: {}", batchId, entries.size(), deltas.size());
+        return true;
+    }
+
+    private long backoffMs(int attempts) {
+        long backoff = properties.getInitialBackoffMs() << Math.min(attempts - 1, 20);
+        return Math.min(backoff, properties.getMaxBackoffMs());
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= 500) {
+            return message;
+        }
+        return message.substring(0, 500);
+    }
+}
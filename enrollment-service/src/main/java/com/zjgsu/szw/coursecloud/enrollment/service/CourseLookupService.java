@@ -0,0 +1,248 @@
+package com.zjgsu.szw.coursecloud.enrollment.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zjgsu.szw.coursecloud.enrollment.client.CatalogClient;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.ApiResponseWrapper;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.CourseDTO;
+import com.zjgsu.szw.coursecloud.enrollment.config.CourseCacheProperties;
+import com.zjgsu.szw.coursecloud.enrollment.exception.CatalogServiceUnavailableException;
+import com.zjgsu.szw.coursecloud.enrollment.exception.CourseNotFoundException;
+import feign.FeignException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 课程信息查询（带版本号的近端缓存）
+ *
+ * 选课校验只需要课程的静态信息（代码、名称、教师、时间、容量），座位状态由占座调用负责，
+ * 因此按课程ID缓存课程信息及其版本号：新鲜期内直接使用缓存，不再调用catalog-service。
+ * 占座响应携带课程当前版本号，版本变化时立即失效对应条目。
+ *
+ * catalog-service不可用（降级返回503或调用异常）时，使用 max-stale-seconds 内最后一次成功的结果（stale-if-error），
+ * 没有可用条目时才按服务不可用处理。缓存中的 enrolled 字段不保证最新，不能用于座位判断。
+ */
+@Service
+public class CourseLookupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseLookupService.class);
+
+    private final CatalogClient catalogClient;
+    private final CourseCacheProperties properties;
+    private final Cache<String, CachedCourse> courses;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleServed = new AtomicLong();
+    private final AtomicLong versionInvalidations = new AtomicLong();
+
+    public CourseLookupService(CatalogClient catalogClient, CourseCacheProperties properties) {
+        this.catalogClient = catalogClient;
+        this.properties = properties;
+        this.courses = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(Duration.ofSeconds(Math.max(properties.getMaxStaleSeconds(), properties.getTtlSeconds())))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 查询课程信息
+     *
+     * @throws CourseNotFoundException 课程不存在
+     * @throws CatalogServiceUnavailableException catalog-service不可用且没有可用的缓存条目
+     */
+    public CourseDTO getCourse(String courseId) {
+        CachedCourse cached = properties.isEnabled() ? courses.getIfPresent(courseId) : null;
+        if (cached != null && cached.isFresh(properties.getTtlSeconds())) {
+            hits.incrementAndGet();
+            return cached.course;
+        }
+        misses.incrementAndGet();
+
+        try {
+            CourseDTO course = fetch(courseId);
+            if (properties.isEnabled()) {
+                courses.put(courseId, new CachedCourse(course));
+            }
+            return course;
+        } catch (CourseNotFoundException e) {
+            courses.invalidate(courseId);
+            throw e;
+        } catch (CatalogServiceUnavailableException e) {
+            if (cached != null) {
+                staleServed.incrementAndGet();
+                logger.warn("catalog-service不可用，使用缓存的课程信息: {} (版本: {}, 缓存时长: {}s)",
+                        courseId, cached.course.getVersion(), cached.ageSeconds());
+                return cached.course;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 批量查询课程信息，缓存未命中的课程合并为一次 POST /api/courses/lookup 调用
+     * 不存在的课程不出现在结果中；catalog-service不可用时用缓存条目兜底，仍有缺失时抛出服务不可用
+     */
+    public Map<String, CourseDTO> getCourses(Collection<String> courseIds) {
+        Map<String, CourseDTO> result = new LinkedHashMap<>();
+        Map<String, CachedCourse> stale = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String courseId : courseIds) {
+            CachedCourse cached = properties.isEnabled() ? courses.getIfPresent(courseId) : null;
+            if (cached != null && cached.isFresh(properties.getTtlSeconds())) {
+                hits.incrementAndGet();
+                result.put(courseId, cached.course);
+                continue;
+            }
+            misses.incrementAndGet();
+            missing.add(courseId);
+            if (cached != null) {
+                stale.put(courseId, cached);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        try {
+            for (CourseDTO course : fetchAll(missing)) {
+                result.put(course.getId(), course);
+                if (properties.isEnabled()) {
+                    courses.put(course.getId(), new CachedCourse(course));
+                }
+            }
+        } catch (CatalogServiceUnavailableException e) {
+            for (String courseId : missing) {
+                CachedCourse cached = stale.get(courseId);
+                if (cached == null) {
+                    throw e;
+                }
+                staleServed.incrementAndGet();
+                result.put(courseId, cached.course);
+            }
+            logger.warn("catalog-service不可用，使用缓存的课程信息: {} 门", missing.size());
+        }
+        return result;
+    }
+
+    /**
+     * 根据占座响应中的课程版本号校验缓存，版本变化时失效条目
+     */
+    public void observeVersion(String courseId, Long version) {
+        if (version == null) {
+            return;
+        }
+        CachedCourse cached = courses.getIfPresent(courseId);
+        if (cached != null && !version.equals(cached.course.getVersion())) {
+            courses.invalidate(courseId);
+            versionInvalidations.incrementAndGet();
+            logger.info("课程版本已变化，失效缓存: {} ({} -> {})", courseId, cached.course.getVersion(), version);
+        }
+    }
+
+    /**
+     * 失效单门课程的缓存
+     */
+    public void invalidate(String courseId) {
+        courses.invalidate(courseId);
+        logger.info("已失效课程缓存: {}", courseId);
+    }
+
+    /**
+     * 缓存命中/未命中/过期兜底统计
+     */
+    public Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("size", courses.estimatedSize());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", hitCount + missCount == 0 ? 0 : (double) hitCount / (hitCount + missCount));
+        stats.put("staleServed", staleServed.get());
+        stats.put("versionInvalidations", versionInvalidations.get());
+        stats.put("evictions", courses.stats().evictionCount());
+        return stats;
+    }
+
+    private CourseDTO fetch(String courseId) {
+        logger.debug("调用catalog-service获取课程信息: {}", courseId);
+        try {
+            ApiResponseWrapper<CourseDTO> response = catalogClient.getCourseById(courseId);
+
+            // 检查服务是否可用
+            if (response.getCode() == 503) {
+                logger.error("Catalog服务不可用: {}", response.getMessage());
+                throw new CatalogServiceUnavailableException(response.getMessage());
+            }
+
+            // 检查课程是否存在
+            if (response.getCode() == 404 || response.getData() == null) {
+                logger.warn("课程不存在: {}", courseId);
+                throw new CourseNotFoundException(courseId);
+            }
+
+            // 检查响应是否成功
+            if (!response.isSuccess()) {
+                logger.error("获取课程信息失败: {}", response.getMessage());
+                throw new RuntimeException("Failed to get course from catalog service: " + response.getMessage());
+            }
+
+            logger.debug("成功从catalog-service获取课程: {}", response.getData());
+            return response.getData();
+
+        } catch (FeignException.NotFound e) {
+            // catalog-service 对不存在的课程返回 HTTP 404，Feign 以异常形式抛出
+            logger.warn("课程不存在: {}", courseId);
+            throw new CourseNotFoundException(courseId);
+        } catch (CourseNotFoundException | CatalogServiceUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("调用catalog-service异常: {}", e.getMessage(), e);
+            throw new CatalogServiceUnavailableException("调用课程服务失败: " + e.getMessage(), e);
+        }
+    }
+
+    private List<CourseDTO> fetchAll(List<String> courseIds) {
+        ApiResponseWrapper<List<CourseDTO>> response;
+        try {
+            response = catalogClient.getCoursesByIds(courseIds);
+        } catch (Exception e) {
+            throw new CatalogServiceUnavailableException("调用课程服务失败: " + e.getMessage(), e);
+        }
+        if (!response.isSuccess() || response.getData() == null) {
+            throw new CatalogServiceUnavailableException("批量获取课程信息失败: " + response.getMessage());
+        }
+        return response.getData();
+    }
+
+    private static final class CachedCourse {
+        private final CourseDTO course;
+        private final long fetchedAt = System.nanoTime();
+
+        private CachedCourse(CourseDTO course) {
+            this.course = course;
+        }
+
+        private boolean isFresh(long ttlSeconds) {
+            return System.nanoTime() - fetchedAt < TimeUnit.SECONDS.toNanos(ttlSeconds);
+        }
+
+        private long ageSeconds() {
+            return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - fetchedAt);
+        }
+    }
+}
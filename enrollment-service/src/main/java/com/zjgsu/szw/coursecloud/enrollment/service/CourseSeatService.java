@@ -0,0 +1,122 @@
+package com.zjgsu.szw.coursecloud.enrollment.service;
+
+import com.zjgsu.szw.coursecloud.enrollment.client.CatalogClient;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.ApiResponseWrapper;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.EnrolledDeltaResultDTO;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.SeatReservationDTO;
+import com.zjgsu.szw.coursecloud.enrollment.exception.CatalogServiceUnavailableException;
+import com.zjgsu.szw.coursecloud.enrollment.exception.CourseNotFoundException;
+import feign.FeignException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * 课程座位操作
+ * 封装对catalog-service占座与批量调整已选人数接口的调用与错误映射
+ */
+@Service
+public class CourseSeatService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseSeatService.class);
+
+    private final CatalogClient catalogClient;
+    private final CourseLookupService courseLookupService;
+
+    public CourseSeatService(CatalogClient catalogClient, CourseLookupService courseLookupService) {
+        this.catalogClient = catalogClient;
+        this.courseLookupService = courseLookupService;
+    }
+
+    /**
+     * 原子占用多个座位
+     * 余量不足时按剩余数量部分授予（granted 可能小于 seats，课程已满时为0），由调用方决定如何拒绝；
+     * 响应中的课程版本号用于校验课程信息缓存
+     *
+     * @param reservationId 占座意向ID，catalog-service 据此记录授予的座位数，供对账时查询
+     */
+    public SeatReservationDTO reserveSeats(String courseId, int seats, String reservationId) {
+        logger.debug("调用catalog-service占座: {} x{} ({})", courseId, seats, reservationId);
+        ApiResponseWrapper<SeatReservationDTO> response;
+        try {
+            response = catalogClient.reserveSeats(courseId, seats, reservationId);
+        } catch (FeignException.NotFound e) {
+            throw new CourseNotFoundException(courseId);
+        } catch (Exception e) {
+            logger.error("调用catalog-service占座异常: {}", e.getMessage(), e);
+            throw new CatalogServiceUnavailableException("调用课程服务占座失败: " + e.getMessage(), e);
+        }
+
+        if (response.getCode() == 503) {
+            throw new CatalogServiceUnavailableException(response.getMessage());
+        }
+        if (response.getCode() == 404) {
+            throw new CourseNotFoundException(courseId);
+        }
+        if (!response.isSuccess() || response.getData() == null) {
+            throw new CatalogServiceUnavailableException("占座失败: " + response.getMessage());
+        }
+
+        SeatReservationDTO reservation = response.getData();
+        courseLookupService.observeVersion(courseId, reservation.getCourseVersion());
+        logger.info("占座完成: {} (请求: {}, 授予: {}, 剩余: {})",
+                courseId, seats, reservation.getGranted(), reservation.getRemaining());
+        return reservation;
+    }
+
+    /**
+     * 查询按 reservationId 记录的占座结果
+     *
+     * @return 占座结果；catalog-service 没有该记录（占座未生效）时返回 null
+     * @throws CatalogServiceUnavailableException catalog-service 不可用，无法确认
+     */
+    public SeatReservationDTO findReservation(String reservationId) {
+        ApiResponseWrapper<SeatReservationDTO> response;
+        try {
+            response = catalogClient.getReservation(reservationId);
+        } catch (FeignException.NotFound e) {
+            return null;
+        } catch (Exception e) {
+            throw new CatalogServiceUnavailableException("调用课程服务查询占座失败: " + e.getMessage(), e);
+        }
+        if (!response.isSuccess() || response.getData() == null) {
+            throw new CatalogServiceUnavailableException("查询占座失败: " + response.getMessage());
+        }
+        return response.getData();
+    }
+
+    /**
+     * 批量调整多门课程的已选人数，一次远程调用
+     *
+     * @param batchId 推送批次ID，重发同一批次时必须相同，catalog-service 据此去重
+     * @return 各课程请求与实际生效的增量，被截断的调整记录警告日志；该批次已生效过时返回 null
+     */
+    public Map<String, EnrolledDeltaResultDTO> applyEnrolledDeltas(String batchId, Map<String, Integer> deltas) {
+        logger.debug("调用catalog-service批量调整选课人数: {} {}", batchId, deltas);
+        ApiResponseWrapper<Map<String, EnrolledDeltaResultDTO>> response;
+        try {
+            response = catalogClient.applyEnrolledDeltas(batchId, deltas);
+        } catch (FeignException.Conflict e) {
+            logger.info("选课人数调整批次已生效过: {}", batchId);
+            return null;
+        } catch (Exception e) {
+            throw new CatalogServiceUnavailableException("调用课程服务调整选课人数失败: " + e.getMessage(), e);
+        }
+        if (response.getCode() == 503) {
+            throw new CatalogServiceUnavailableException(response.getMessage());
+        }
+        if (!response.isSuccess() || response.getData() == null) {
+            throw new CatalogServiceUnavailableException("调整选课人数失败: " + response.getMessage());
+        }
+        for (EnrolledDeltaResultDTO result : response.getData().values()) {
+            if (result.isClamped()) {
+                logger.warn("选课人数调整被截断 - 课程: {}, 请求: {}, 实际: {}",
+                        result.getCourseId(), result.getRequested(), result.getApplied());
+            }
+        }
+        logger.info("成功批量调整选课人数: {} 门课程", deltas.size());
+        return response.getData();
+    }
+}
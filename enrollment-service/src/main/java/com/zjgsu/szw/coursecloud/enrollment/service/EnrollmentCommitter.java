@@ -0,0 +1,356 @@
+package com.zjgsu.szw.coursecloud.enrollment.service;
+
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.SeatReservationDTO;
+import com.zjgsu.szw.coursecloud.enrollment.config.GroupCommitProperties;
+import com.zjgsu.szw.coursecloud.enrollment.exception.CatalogServiceUnavailableException;
+import com.zjgsu.szw.coursecloud.enrollment.exception.CourseNotAvailableException;
+import com.zjgsu.szw.coursecloud.enrollment.model.Enrollment;
+import com.zjgsu.szw.coursecloud.enrollment.model.EnrollmentStatus;
+import com.zjgsu.szw.coursecloud.enrollment.repository.EnrollmentJdbcRepository;
+import com.zjgsu.szw.coursecloud.enrollment.repository.EnrollmentRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 选课组提交引擎
+ *
+ * 同一课程的选课请求先进入该课程的队列，等待一个很短的聚合窗口后作为一批提交：
+ * 一次 IN 查询完成查重，一次远程调用占用 n 个座位，一次批量 INSERT 写入选课记录；
+ * 写入失败的座位通过已选人数发件箱异步释放。
+ * 每个请求仍各自得到成功结果或拒绝原因（重复选课、课程已满、服务不可用等）。
+ *
+ * 占座之前先写入占座意向，选课记录、补偿发件箱与删除意向在同一个本地事务内提交；
+ * 占座结果未知或本地事务失败时意向残留，由 SeatReservationTracker 对账释放座位，不会泄漏。
+ *
+ * 同一课程的批次串行提交（热点课程的座位行本来就只能串行更新），提交期间到达的请求自然积累成下一批，
+ * 因此热点课程的吞吐随批大小增长，而不是停留在单行锁的上限。
+ */
+@Component
+public class EnrollmentCommitter {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnrollmentCommitter.class);
+
+    private final GroupCommitProperties properties;
+    private final EnrollmentRepository enrollmentRepository;
+    private final EnrollmentJdbcRepository enrollmentJdbcRepository;
+    private final CourseSeatService courseSeatService;
+    private final CounterOutboxRelay counterOutboxRelay;
+    private final SeatReservationTracker seatReservationTracker;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<String, CourseQueue> queues = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService committers;
+
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong itemCount = new AtomicLong();
+    private final AtomicInteger maxBatchObserved = new AtomicInteger();
+
+    public EnrollmentCommitter(GroupCommitProperties properties,
+                               EnrollmentRepository enrollmentRepository,
+                               EnrollmentJdbcRepository enrollmentJdbcRepository,
+                               CourseSeatService courseSeatService,
+                               CounterOutboxRelay counterOutboxRelay,
+                               SeatReservationTracker seatReservationTracker,
+                               PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.enrollmentRepository = enrollmentRepository;
+        this.enrollmentJdbcRepository = enrollmentJdbcRepository;
+        this.courseSeatService = courseSeatService;
+        this.counterOutboxRelay = counterOutboxRelay;
+        this.seatReservationTracker = seatReservationTracker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory("group-commit-timer"));
+        this.committers = Executors.newFixedThreadPool(properties.getCommitterThreads(),
+                threadFactory("group-commit"));
+    }
+
+    /**
+     * 提交一条选课记录，阻塞直到其所在批次完成（最多等待 commitTimeoutMs）
+     * 关闭组提交时在调用线程内按单条批次提交，查重/占座/写入逻辑完全一致
+     */
+    public Enrollment commit(Enrollment enrollment) {
+        PendingEnrollment pending = new PendingEnrollment(enrollment);
+        if (!properties.isEnabled()) {
+            commitBatch(enrollment.getCourseId(), List.of(pending));
+        } else {
+            // 在 compute 内入队，与 drain 移除空闲队列互斥，请求不会落入已移除的队列
+            CourseQueue queue = queues.compute(enrollment.getCourseId(), (courseId, existing) -> {
+                CourseQueue target = existing != null ? existing : new CourseQueue(courseId);
+                target.items.add(pending);
+                return target;
+            });
+            if (queue.scheduled.compareAndSet(false, true)) {
+                scheduler.schedule(() -> committers.execute(() -> drain(queue)),
+                        properties.getWindowMs(), TimeUnit.MILLISECONDS);
+            }
+        }
+        try {
+            return pending.result.orTimeout(properties.getCommitTimeoutMs(), TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                // 批次仍可能在之后提交成功，结果以选课记录为准
+                logger.warn("等待组提交超时: {} / {}", enrollment.getCourseId(), enrollment.getStudentId());
+                throw new CatalogServiceUnavailableException("选课提交超时，结果未知，请查询选课记录后重试");
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 组提交运行状态
+     */
+    public Map<String, Object> stats() {
+        long batches = batchCount.get();
+        long items = itemCount.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("windowMs", properties.getWindowMs());
+        stats.put("maxBatchSize", properties.getMaxBatchSize());
+        stats.put("batches", batches);
+        stats.put("items", items);
+        stats.put("avgBatchSize", batches == 0 ? 0 : (double) items / batches);
+        stats.put("maxBatchObserved", maxBatchObserved.get());
+        stats.put("activeQueues", queues.size());
+        stats.put("reservations", seatReservationTracker.stats());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        committers.shutdown();
+        try {
+            if (!committers.awaitTermination(5, TimeUnit.SECONDS)) {
+                committers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            committers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 连续提交课程队列中的请求，直到队列为空；队列排空后从映射中移除，避免为每门课程常驻一个队列
+     */
+    private void drain(CourseQueue queue) {
+        while (true) {
+            List<PendingEnrollment> batch = new ArrayList<>();
+            PendingEnrollment next;
+            while (batch.size() < properties.getMaxBatchSize() && (next = queue.items.poll()) != null) {
+                batch.add(next);
+            }
+            if (batch.isEmpty()) {
+                queue.scheduled.set(false);
+                if (removeIfIdle(queue)) {
+                    return;
+                }
+                // 释放标记后再检查一次，避免与刚入队的请求错过彼此
+                if (queue.items.isEmpty() || !queue.scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            commitBatch(queue.courseId, batch);
+        }
+    }
+
+    /**
+     * 队列仍为空时从映射中移除；与 commit 的入队在同一个 compute 中判断，之后的请求会创建新队列
+     */
+    private boolean removeIfIdle(CourseQueue queue) {
+        AtomicBoolean removed = new AtomicBoolean();
+        queues.computeIfPresent(queue.courseId, (courseId, existing) -> {
+            if (existing == queue && queue.items.isEmpty()) {
+                removed.set(true);
+                return null;
+            }
+            return existing;
+        });
+        return removed.get();
+    }
+
+    /**
+     * 提交一批同课程的选课请求，保证每个请求的结果都被完成
+     */
+    private void commitBatch(String courseId, List<PendingEnrollment> batch) {
+        try {
+            doCommitBatch(courseId, batch);
+        } catch (RuntimeException e) {
+            for (PendingEnrollment pending : batch) {
+                pending.result.completeExceptionally(e);
+            }
+        }
+        batchCount.incrementAndGet();
+        itemCount.addAndGet(batch.size());
+        maxBatchObserved.accumulateAndGet(batch.size(), Math::max);
+    }
+
+    private void doCommitBatch(String courseId, List<PendingEnrollment> batch) {
+        // 1. 批内去重：同一学生只保留第一个请求
+        Map<String, PendingEnrollment> candidates = new LinkedHashMap<>();
+        for (PendingEnrollment pending : batch) {
+            if (candidates.putIfAbsent(pending.enrollment.getStudentId(), pending) != null) {
+                pending.result.completeExceptionally(new IllegalArgumentException("Already enrolled in this course"));
+            }
+        }
+
+        // 2. 一次 IN 查询完成与已有记录的查重
+        Set<String> enrolled = new HashSet<>(
+                enrollmentRepository.findStudentIdsByCourseIdAndStudentIdIn(courseId, candidates.keySet()));
+        for (String studentId : enrolled) {
+            PendingEnrollment duplicate = candidates.remove(studentId);
+            if (duplicate != null) {
+                logger.warn("重复选课: 学生 {} 已选择课程 {}", studentId, courseId);
+                duplicate.result.completeExceptionally(new IllegalArgumentException("Already enrolled in this course"));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // 3. 先写入占座意向，再一次远程调用占用整批座位，余量不足时按到达顺序授予
+        //    占座调用失败时意向保留，由对账任务按catalog记录的授予数释放
+        List<PendingEnrollment> accepted = new ArrayList<>(candidates.values());
+        String reservationId = seatReservationTracker.begin(courseId, accepted.size());
+        SeatReservationDTO reservation = courseSeatService.reserveSeats(courseId, accepted.size(), reservationId);
+        int granted = Math.max(0, Math.min(reservation.getGranted(), accepted.size()));
+        if (granted < accepted.size()) {
+            logger.warn("课程已满: {} (容量: {}, 已选: {}, 拒绝: {})", courseId,
+                    reservation.getCapacity(), reservation.getEnrolled(), accepted.size() - granted);
+            for (PendingEnrollment rejected : accepted.subList(granted, accepted.size())) {
+                rejected.result.completeExceptionally(new CourseNotAvailableException(
+                        courseId, reservation.getCapacity(), reservation.getEnrolled()));
+            }
+            accepted = accepted.subList(0, granted);
+        }
+        if (accepted.isEmpty()) {
+            seatReservationTracker.discard(reservationId);
+            return;
+        }
+
+        // 4. 批量写入选课记录并删除占座意向（同一事务），失败时逐条重试并释放写入失败的座位
+        List<Enrollment> records = new ArrayList<>(accepted.size());
+        for (PendingEnrollment pending : accepted) {
+            Enrollment enrollment = pending.enrollment;
+            enrollment.setId(UUID.randomUUID().toString());
+            enrollment.setStatus(EnrollmentStatus.ACTIVE);
+            enrollment.setEnrolledAt(LocalDateTime.now());
+            records.add(enrollment);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                enrollmentJdbcRepository.batchInsert(records);
+                seatReservationTracker.complete(reservationId);
+            });
+            for (PendingEnrollment pending : accepted) {
+                pending.result.complete(pending.enrollment);
+            }
+            logger.info("组提交成功 - 课程: {}, 写入: {}", courseId, records.size());
+        } catch (DuplicateKeyException e) {
+            logger.warn("批量写入失败，逐条重试: {} - {}", courseId, e.getMessage());
+            insertOneByOne(courseId, reservationId, accepted);
+        }
+    }
+
+    /**
+     * 在一个事务内逐条写入，跳过违反唯一约束的记录并通过发件箱释放它们占用的座位
+     * 逐条写入使用不带 @Transactional 的 insert，重复记录只回滚单条语句，不会使整个事务提交失败
+     * 其他异常（例如数据库不可用）使整个事务回滚，没有写入任何记录，占座意向保留给对账任务
+     */
+    private void insertOneByOne(String courseId, String reservationId, List<PendingEnrollment> accepted) {
+        List<PendingEnrollment> duplicates = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                duplicates.clear();
+                for (PendingEnrollment pending : accepted) {
+                    try {
+                        enrollmentJdbcRepository.insert(pending.enrollment);
+                    } catch (DuplicateKeyException e) {
+                        duplicates.add(pending);
+                    }
+                }
+                if (!duplicates.isEmpty()) {
+                    logger.warn("选课记录写入失败，释放已占座位: {} x{}", courseId, duplicates.size());
+                    counterOutboxRelay.enqueue(courseId, -duplicates.size());
+                }
+                seatReservationTracker.complete(reservationId);
+            });
+        } catch (RuntimeException e) {
+            logger.warn("逐条写入失败，占座意向留待对账: {} - {}", courseId, e.getMessage());
+            for (PendingEnrollment pending : accepted) {
+                pending.result.completeExceptionally(e);
+            }
+            return;
+        }
+        for (PendingEnrollment pending : accepted) {
+            if (duplicates.contains(pending)) {
+                pending.result.completeExceptionally(new IllegalArgumentException("Already enrolled in this course"));
+            } else {
+                pending.result.complete(pending.enrollment);
+            }
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 单门课程的待提交队列
+     * scheduled 为 true 表示已有定时任务或提交线程负责该队列
+     */
+    private static final class CourseQueue {
+        private final String courseId;
+        private final ConcurrentLinkedQueue<PendingEnrollment> items = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private CourseQueue(String courseId) {
+            this.courseId = courseId;
+        }
+    }
+
+    private static final class PendingEnrollment {
+        private final Enrollment enrollment;
+        private final CompletableFuture<Enrollment> result = new CompletableFuture<>();
+
+        private PendingEnrollment(Enrollment enrollment) {
+            this.enrollment = enrollment;
+        }
+    }
+}
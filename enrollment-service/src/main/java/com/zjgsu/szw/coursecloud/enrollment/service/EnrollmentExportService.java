@@ -0,0 +1,232 @@
+package com.zjgsu.szw.coursecloud.enrollment.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zjgsu.szw.coursecloud.enrollment.config.ExportProperties;
+import com.zjgsu.szw.coursecloud.enrollment.dto.EnrollmentExportFilter;
+import com.zjgsu.szw.coursecloud.enrollment.dto.ExportFormat;
+import com.zjgsu.szw.coursecloud.enrollment.exception.ExportBusyException;
+import com.zjgsu.szw.coursecloud.enrollment.model.Enrollment;
+import com.zjgsu.szw.coursecloud.enrollment.repository.EnrollmentExportRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 选课记录流式导出（期末全量导出）
+ *
+ * 数据库结果集逐行读取、逐行写入响应输出流，每 flushEveryRows 行刷新一次，
+ * 内存占用只有输出缓冲区，与导出行数无关。
+ * 导出在整个传输期间占用一个数据库连接，因此限制同时进行的导出数量。
+ */
+@Service
+public class EnrollmentExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnrollmentExportService.class);
+
+    private static final String CSV_HEADER = "id,course_id,student_id,enrolled_at,status\n";
+
+    private final EnrollmentExportRepository exportRepository;
+    private final ObjectMapper objectMapper;
+    private final ExportProperties properties;
+    private final Semaphore permits;
+
+    private final AtomicLong exportCount = new AtomicLong();
+    private final AtomicLong exportedRows = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    public EnrollmentExportService(EnrollmentExportRepository exportRepository,
+                                   ObjectMapper objectMapper,
+                                   ExportProperties properties) {
+        this.exportRepository = exportRepository;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.permits = new Semaphore(properties.getMaxConcurrent());
+    }
+
+    /**
+     * 占用一个导出名额并返回写出响应体的回调，名额在写出结束（含失败）后释放
+     *
+     * @throws ExportBusyException 同时进行的导出数量已达上限
+     */
+    public StreamingResponseBody export(EnrollmentExportFilter filter, ExportFormat format, boolean gzip) {
+        if (!permits.tryAcquire()) {
+            throw new ExportBusyException("Too many exports in progress, please retry later");
+        }
+        return outputStream -> {
+            long start = System.currentTimeMillis();
+            try {
+                long rows = write(filter, format, gzip, outputStream);
+                exportCount.incrementAndGet();
+                logger.info("选课记录导出完成: {} 行, 格式 {}, 耗时 {}ms", rows, format, System.currentTimeMillis() - start);
+            } catch (RuntimeException | IOException e) {
+                // 响应头已发出，无法再返回错误码；客户端会收到不完整的分块响应
+                failedCount.incrementAndGet();
+                logger.warn("选课记录导出中止: {}", e.getMessage());
+                throw e;
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    /**
+     * 导出运行状态
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("active", properties.getMaxConcurrent() - permits.availablePermits());
+        stats.put("maxConcurrent", properties.getMaxConcurrent());
+        stats.put("completed", exportCount.get());
+        stats.put("failed", failedCount.get());
+        stats.put("exportedRows", exportedRows.get());
+        return stats;
+    }
+
+    private long write(EnrollmentExportFilter filter, ExportFormat format, boolean gzip,
+                       OutputStream outputStream) throws IOException {
+        // syncFlush=true：周期性 flush 时把已压缩的数据真正推给客户端
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, 8192, true) : outputStream;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8),
+                properties.getBufferBytes());
+        RowWriter rowWriter = format == ExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        int flushEvery = Math.max(1, properties.getFlushEveryRows());
+        long[] written = { 0 };
+        try {
+            rowWriter.begin();
+            long rows = exportRepository.stream(filter, enrollment -> {
+                try {
+                    rowWriter.write(enrollment);
+                    if (++written[0] % flushEvery == 0) {
+                        rowWriter.flush();
+                        exportedRows.addAndGet(flushEvery);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            rowWriter.flush();
+            exportedRows.addAndGet(written[0] % flushEvery);
+            if (gzip) {
+                ((GZIPOutputStream) target).finish();
+            }
+            return rows;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 按行写出一种格式
+     */
+    private interface RowWriter {
+        void begin() throws IOException;
+
+        void write(Enrollment enrollment) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            // 行之间由换行分隔，不使用默认的空格根值分隔符；生成器关闭时不关闭底层输出流
+            this.generator.setRootValueSeparator(null);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void write(Enrollment enrollment) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("id", enrollment.getId());
+            generator.writeStringField("courseId", enrollment.getCourseId());
+            generator.writeStringField("studentId", enrollment.getStudentId());
+            generator.writeStringField("enrolledAt",
+                    enrollment.getEnrolledAt() != null ? enrollment.getEnrolledAt().toString() : null);
+            generator.writeStringField("status", enrollment.getStatus().name());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+            writer.flush();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        private CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write(CSV_HEADER);
+        }
+
+        @Override
+        public void write(Enrollment enrollment) throws IOException {
+            writeField(enrollment.getId());
+            writer.write(',');
+            writeField(enrollment.getCourseId());
+            writer.write(',');
+            writeField(enrollment.getStudentId());
+            writer.write(',');
+            writeField(enrollment.getEnrolledAt() != null ? enrollment.getEnrolledAt().toString() : "");
+            writer.write(',');
+            writeField(enrollment.getStatus().name());
+            writer.write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        /**
+         * 含逗号、引号或换行的字段加双引号，内部引号双写（RFC 4180）
+         */
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -1,27 +1,33 @@
 package com.zjgsu.szw.coursecloud.enrollment.service;
 
-import com.zjgsu.szw.coursecloud.enrollment.client.CatalogClient;
-import com.zjgsu.szw.coursecloud.enrollment.client.dto.ApiResponseWrapper;
 import com.zjgsu.szw.coursecloud.enrollment.client.dto.CourseDTO;
-import com.zjgsu.szw.coursecloud.enrollment.client.UserClient;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.CourseSlotResultDTO;
 import com.zjgsu.szw.coursecloud.enrollment.client.dto.UserDTO;
+import com.zjgsu.szw.coursecloud.enrollment.config.LookupProperties;
+import com.zjgsu.szw.coursecloud.enrollment.dto.CursorPage;
 import com.zjgsu.szw.coursecloud.enrollment.exception.CatalogServiceUnavailableException;
-import com.zjgsu.szw.coursecloud.enrollment.exception.CourseNotAvailableException;
-import com.zjgsu.szw.coursecloud.enrollment.exception.CourseNotFoundException;
 import com.zjgsu.szw.coursecloud.enrollment.exception.ResourceNotFoundException;
 import com.zjgsu.szw.coursecloud.enrollment.exception.UserServiceUnavailableException;
 import com.zjgsu.szw.coursecloud.enrollment.model.Enrollment;
-import com.zjgsu.szw.coursecloud.enrollment.model.EnrollmentStatus;
 import com.zjgsu.szw.coursecloud.enrollment.repository.EnrollmentRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 选课业务逻辑层
@@ -33,15 +39,33 @@ public class EnrollmentService {
     private static final Logger logger = LoggerFactory.getLogger(EnrollmentService.class);
 
     private final EnrollmentRepository enrollmentRepository;
-    private final CatalogClient catalogClient;
-    private final UserClient userClient;
+    private final CourseLookupService courseLookupService;
+    private final UserLookupService userLookupService;
+    private final EnrollmentCommitter enrollmentCommitter;
+    private final CounterOutboxRelay counterOutboxRelay;
+    private final ExecutorService lookupExecutor;
+    private final LookupProperties lookupProperties;
+    private final TimetableService timetableService;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
 
     public EnrollmentService(EnrollmentRepository enrollmentRepository,
-                             CatalogClient catalogClient,
-                             UserClient userClient) {
+                             CourseLookupService courseLookupService,
+                             UserLookupService userLookupService,
+                             EnrollmentCommitter enrollmentCommitter,
+                             CounterOutboxRelay counterOutboxRelay,
+                             @Qualifier("lookupExecutor") ExecutorService lookupExecutor,
+                             LookupProperties lookupProperties,
+                             TimetableService timetableService) {
         this.enrollmentRepository = enrollmentRepository;
-        this.catalogClient = catalogClient;
-        this.userClient = userClient;
+        this.courseLookupService = courseLookupService;
+        this.userLookupService = userLookupService;
+        this.enrollmentCommitter = enrollmentCommitter;
+        this.counterOutboxRelay = counterOutboxRelay;
+        this.lookupExecutor = lookupExecutor;
+        this.lookupProperties = lookupProperties;
+        this.timetableService = timetableService;
     }
 
     /**
@@ -51,6 +75,16 @@ public class EnrollmentService {
         return enrollmentRepository.findAll();
     }
 
+    /**
+     * 按主键游标分页查询选课记录
+     */
+    public CursorPage<Enrollment> findPage(String cursor, Integer size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        List<Enrollment> rows = enrollmentRepository.findByIdGreaterThanOrderByIdAsc(
+                CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, Enrollment::getId);
+    }
+
     /**
      * 根据ID查询选课记录
      */
@@ -72,72 +106,121 @@ public class EnrollmentService {
         return enrollmentRepository.findByStudentId(studentId);
     }
 
+    /**
+     * 为学生推荐可选课程：有剩余座位且与其当前课表不冲突
+     * 学生不存在时抛出 ResourceNotFoundException
+     */
+    public CourseSlotResultDTO suggestCourses(String studentId, String days, String from, String to, Integer limit) {
+        getUserFromUserService(studentId);
+        return timetableService.suggest(studentId, days, from, to, limit);
+    }
+
+    /**
+     * 按课程统计活跃选课人数
+     * 供catalog-service在座位账本恢复时作为已选人数的真实来源
+     */
+    public Map<String, Long> countActiveByCourse() {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : enrollmentRepository.countActiveGroupByCourseId()) {
+            counts.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    /**
+     * 选课请求并发状态：当前与峰值在途请求数，以及请求是否运行在虚拟线程上
+     */
+    public Map<String, Object> inFlightStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("virtualThreads", Thread.currentThread().isVirtual());
+        stats.put("inFlight", inFlight.get());
+        stats.put("peakInFlight", peakInFlight.get());
+        return stats;
+    }
+
     /**
      * 学生选课
-     * 使用OpenFeign调用catalog-service进行课程验证
+     * 使用OpenFeign并行调用user-service与catalog-service进行学生和课程验证，随后交给组提交引擎：
+     * 同一课程的请求聚合成批，统一查重、占座并批量写入，写入失败时释放座位。
+     * 方法本身不开启事务，避免在远程调用期间占用数据库连接。
      */
-    @Transactional
     public Enrollment createEnrollment(Enrollment enrollment) {
         String courseId = enrollment.getCourseId();
         String studentId = enrollment.getStudentId();
 
         logger.info("开始选课流程 - 学生: {}, 课程: {}", studentId, courseId);
 
-        // 1. 验证学生是否存在
-        UserDTO user = getUserFromUserService(studentId);
-        logger.info("成功获取学生信息: {} - {}", user.getStudentId(), user.getName());
-
-        // 2. 使用Feign Client调用catalog-service获取课程信息
-        CourseDTO course = getCourseFromCatalogService(courseId);
-        logger.info("成功获取课程信息: {} - {}", course.getCode(), course.getTitle());
-
-        // 3. 检查课程是否可选（有剩余容量）
-        if (!course.isAvailable()) {
-            logger.warn("课程已满: {} (容量: {}, 已选: {})", courseId, course.getCapacity(), course.getEnrolled());
-            throw new CourseNotAvailableException(courseId, course.getCapacity(), course.getEnrolled());
-        }
-
-        // 4. 检查是否重复选课
-        if (enrollmentRepository.existsByCourseIdAndStudentId(courseId, studentId)) {
-            logger.warn("重复选课: 学生 {} 已选择课程 {}", studentId, courseId);
-            throw new IllegalArgumentException("Already enrolled in this course");
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            return doCreateEnrollment(enrollment, studentId, courseId);
+        } finally {
+            inFlight.decrementAndGet();
         }
+    }
 
-        // 5. 创建选课记录
-        enrollment.setId(UUID.randomUUID().toString());
-        enrollment.setStatus(EnrollmentStatus.ACTIVE);
-        enrollment.setEnrolledAt(LocalDateTime.now());
-        Enrollment saved = enrollmentRepository.save(enrollment);
-        logger.info("选课记录已创建: {}", saved.getId());
+    private Enrollment doCreateEnrollment(Enrollment enrollment, String studentId, String courseId) {
+        // 1-2. 并行验证学生与课程是否存在（Feign调用user-service与catalog-service）
+        Lookups lookups = lookupStudentAndCourse(studentId, courseId);
+        UserDTO user = lookups.user();
+        CourseDTO course = lookups.course();
+        logger.info("成功获取学生信息: {} - {}", user.getStudentId(), user.getName());
+        logger.info("成功获取课程信息: {} - {}", course.getCode(), course.getTitle());
 
-        // 6. 使用Feign Client更新课程的已选人数
-        incrementCourseEnrolledCount(courseId);
+        // 3. 检测上课时间冲突，再查重、原子占座、写入选课记录（按课程组提交）
+        //    同一学生的检测与提交在学生锁内串行，避免两门冲突课程并发通过检测
+        Enrollment saved = timetableService.withStudentLock(studentId, () -> {
+            timetableService.checkConflict(studentId, course);
+            return enrollmentCommitter.commit(enrollment);
+        });
 
         logger.info("选课成功 - 学生: {}, 课程: {}, 选课记录: {}", studentId, courseId, saved.getId());
         return saved;
     }
 
-    private UserDTO getUserFromUserService(String studentId) {
-        logger.debug("调用user-service校验学生: {}", studentId);
+    /**
+     * 并行查询学生与课程
+     * 两个调用共享同一个截止时间；任一调用失败时立即取消另一个并抛出其原有异常
+     * （ResourceNotFoundException、CourseNotFoundException、*UnavailableException），超时按未完成的一方映射为服务不可用
+     */
+    private Lookups lookupStudentAndCourse(String studentId, String courseId) {
+        ExecutorCompletionService<Object> completion = new ExecutorCompletionService<>(lookupExecutor);
+        Future<Object> userFuture = completion.submit(() -> getUserFromUserService(studentId));
+        Future<Object> courseFuture = completion.submit(() -> getCourseFromCatalogService(courseId));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lookupProperties.getTimeoutMs());
         try {
-            ApiResponseWrapper<UserDTO> response = userClient.getUserByStudentId(studentId);
-            if (response.getCode() == 503) {
-                throw new UserServiceUnavailableException(response.getMessage());
-            }
-            if (response.getCode() == 404 || response.getData() == null) {
-                throw new ResourceNotFoundException("Student not found with studentId: " + studentId);
+            for (int i = 0; i < 2; i++) {
+                long remaining = deadline - System.nanoTime();
+                Future<Object> done = remaining > 0 ? completion.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (done == null) {
+                    if (!userFuture.isDone()) {
+                        throw new UserServiceUnavailableException("调用用户服务超时: " + studentId);
+                    }
+                    throw new CatalogServiceUnavailableException("调用课程服务超时: " + courseId);
+                }
+                done.get();
             }
-            if (!response.isSuccess()) {
-                throw new RuntimeException("Failed to get user from user-service: " + response.getMessage());
+            return new Lookups((UserDTO) userFuture.get(), (CourseDTO) courseFuture.get());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
-            return response.getData();
-        } catch (ResourceNotFoundException | UserServiceUnavailableException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new UserServiceUnavailableException("调用用户服务失败: " + e.getMessage(), e);
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Enrollment validation interrupted", e);
+        } finally {
+            userFuture.cancel(true);
+            courseFuture.cancel(true);
         }
     }
 
+    private record Lookups(UserDTO user, CourseDTO course) {
+    }
+
+    private UserDTO getUserFromUserService(String studentId) {
+        return userLookupService.getUser(studentId);
+    }
+
     /**
      * 学生退课
      */
@@ -150,13 +233,12 @@ public class EnrollmentService {
 
         String courseId = enrollment.getCourseId();
 
-        // 删除选课记录
+        // 删除选课记录，并在同一事务内写入已选人数变更（由发件箱中继异步推送给catalog-service）
         enrollmentRepository.deleteById(id);
+        counterOutboxRelay.enqueue(courseId, -1);
+        timetableService.invalidate(enrollment.getStudentId());
         logger.info("选课记录已删除: {}", id);
 
-        // 使用Feign Client更新课程选课人数
-        decrementCourseEnrolledCount(courseId);
-
         logger.info("退课成功 - 课程: {}", courseId);
     }
 
@@ -165,73 +247,6 @@ public class EnrollmentService {
      * 使用OpenFeign声明式调用，通过Spring Cloud LoadBalancer实现负载均衡
      */
     private CourseDTO getCourseFromCatalogService(String courseId) {
-        logger.debug("调用catalog-service获取课程信息: {}", courseId);
-        
-        try {
-            ApiResponseWrapper<CourseDTO> response = catalogClient.getCourseById(courseId);
-            
-            // 检查服务是否可用
-            if (response.getCode() == 503) {
-                logger.error("Catalog服务不可用: {}", response.getMessage());
-                throw new CatalogServiceUnavailableException(response.getMessage());
-            }
-            
-            // 检查课程是否存在
-            if (response.getCode() == 404 || response.getData() == null) {
-                logger.warn("课程不存在: {}", courseId);
-                throw new CourseNotFoundException(courseId);
-            }
-            
-            // 检查响应是否成功
-            if (!response.isSuccess()) {
-                logger.error("获取课程信息失败: {}", response.getMessage());
-                throw new RuntimeException("Failed to get course from catalog service: " + response.getMessage());
-            }
-            
-            logger.debug("成功从catalog-service获取课程: {}", response.getData());
-            return response.getData();
-            
-        } catch (CourseNotFoundException | CatalogServiceUnavailableException e) {
-            throw e;
-        } catch (Exception e) {
-            logger.error("调用catalog-service异常: {}", e.getMessage(), e);
-            throw new CatalogServiceUnavailableException("调用课程服务失败: " + e.getMessage(), e);
-        }
-    }
-
-    /**
-     * 增加课程选课人数
-     */
-    private void incrementCourseEnrolledCount(String courseId) {
-        logger.debug("调用catalog-service增加选课人数: {}", courseId);
-        try {
-            ApiResponseWrapper<Void> response = catalogClient.incrementEnrolled(courseId);
-            if (response.isSuccess()) {
-                logger.info("成功更新课程选课人数(+1): {}", courseId);
-            } else {
-                logger.warn("更新课程选课人数失败: {} - {}", courseId, response.getMessage());
-            }
-        } catch (Exception e) {
-            // 记录日志但不影响主流程（选课记录已创建）
-            logger.error("更新课程选课人数异常: {} - {}", courseId, e.getMessage());
-        }
-    }
-
-    /**
-     * 减少课程选课人数
-     */
-    private void decrementCourseEnrolledCount(String courseId) {
-        logger.debug("调用catalog-service减少选课人数: {}", courseId);
-        try {
-            ApiResponseWrapper<Void> response = catalogClient.decrementEnrolled(courseId);
-            if (response.isSuccess()) {
-                logger.info("成功更新课程选课人数(-1): {}", courseId);
-            } else {
-                logger.warn("更新课程选课人数失败: {} - {}", courseId, response.getMessage());
-            }
-        } catch (Exception e) {
-            // 记录日志但不影响主流程（退课记录已删除）
-            logger.error("更新课程选课人数异常: {} - {}", courseId, e.getMessage());
-        }
+        return courseLookupService.getCourse(courseId);
     }
 }
@@ -0,0 +1,254 @@
+package com.zjgsu.szw.coursecloud.enrollment.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zjgsu.szw.coursecloud.enrollment.config.IdempotencyProperties;
+import com.zjgsu.szw.coursecloud.enrollment.exception.IdempotencyKeyConflictException;
+import com.zjgsu.szw.coursecloud.enrollment.exception.IdempotencyKeyInProgressException;
+import com.zjgsu.szw.coursecloud.enrollment.model.Enrollment;
+import com.zjgsu.szw.coursecloud.enrollment.model.IdempotencyRecord;
+import com.zjgsu.szw.coursecloud.enrollment.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 选课幂等处理
+ *
+ * 以 Idempotency-Key 为键保存首次成功选课的结果：本地使用有界、带过期时间的Caffeine缓存，
+ * 数据库表 idempotency_keys 作为跨实例与重启后的后备。重放请求直接返回原结果，
+ * 不再调用user-service/catalog-service，也不会触碰选课唯一索引。
+ * 选课执行前先以 PENDING 状态插入幂等键，主键保证多个实例上同一个键只执行一次。
+ * 只记录成功结果，失败的请求（如课程已满）会释放幂等键，重试时重新执行。
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final long IN_PROGRESS_POLL_MS = 100;
+
+    private final IdempotencyProperties properties;
+    private final IdempotencyRecordRepository repository;
+    private final Cache<String, IdempotencyRecord> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<Enrollment>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyProperties properties, IdempotencyRecordRepository repository) {
+        this.properties = properties;
+        this.repository = repository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(Duration.ofSeconds(properties.getTtlSeconds()))
+                .build();
+    }
+
+    /**
+     * 查找已完成的请求
+     *
+     * @return 首次请求创建的选课记录；键未使用、已过期或首个请求仍在执行时为空
+     * @throws IdempotencyKeyConflictException 键已用于其他学生或课程
+     */
+    public Optional<Enrollment> lookup(String key, Enrollment request) {
+        validateKey(key);
+        IdempotencyRecord record = cache.getIfPresent(key);
+        if (record == null) {
+            record = repository.findById(key).orElse(null);
+            if (record == null || !record.isCompleted()) {
+                // 执行中的记录不放入本地缓存，由 execute 等待或返回409
+                return Optional.empty();
+            }
+            cache.put(key, record);
+        }
+        if (record.getExpiresAt().isBefore(LocalDateTime.now())) {
+            cache.invalidate(key);
+            return Optional.empty();
+        }
+        if (!matches(record.getStudentId(), record.getCourseId(), request)) {
+            throw new IdempotencyKeyConflictException(key);
+        }
+        logger.info("幂等重放 - 键: {}, 选课记录: {}", key, record.getEnrollmentId());
+        return Optional.of(record.toEnrollment());
+    }
+
+    /**
+     * 以幂等方式执行选课
+     * 同一实例内的并发请求只执行一次，其余请求等待并共享首个请求的结果；
+     * 跨实例由数据库主键互斥：执行前先以 PENDING 状态插入幂等键，插入失败说明键已被占用，
+     * 已完成则重放结果，仍在执行则等待一段时间后返回409，不会再次执行选课
+     *
+     * @return 选课记录及其是否为重放（共享同实例首个请求的结果或等到其他实例完成时为重放）
+     * @throws IdempotencyKeyInProgressException 同一个键的首个请求仍在其他实例上执行
+     */
+    public Result execute(String key, Enrollment request, Supplier<Enrollment> action) {
+        validateKey(key);
+        CompletableFuture<Enrollment> mine = new CompletableFuture<>();
+        CompletableFuture<Enrollment> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            Enrollment shared = join(running);
+            if (!matches(shared.getStudentId(), shared.getCourseId(), request)) {
+                throw new IdempotencyKeyConflictException(key);
+            }
+            return new Result(shared, true);
+        }
+
+        try {
+            long deadline = System.currentTimeMillis() + properties.getInProgressWaitMs();
+            Result result = null;
+            while (result == null) {
+                if (claim(key, request)) {
+                    result = new Result(run(key, action), false);
+                } else {
+                    // 返回空表示首个请求失败并释放了键，重新占用
+                    Enrollment owned = awaitOwner(key, request, deadline);
+                    result = owned != null ? new Result(owned, true) : null;
+                }
+            }
+            mine.complete(result.enrollment());
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * 定期清理数据库中已过期的幂等记录
+     */
+    @Scheduled(fixedDelayString = "${enrollment.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        try {
+            int deleted = repository.deleteExpired(LocalDateTime.now());
+            if (deleted > 0) {
+                logger.info("已清理过期幂等记录: {}", deleted);
+            }
+        } catch (Exception e) {
+            logger.warn("清理过期幂等记录失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 以 PENDING 状态占用幂等键；键已过期（包括崩溃实例遗留的 PENDING 记录）时删除后重新占用一次
+     */
+    private boolean claim(String key, Enrollment request) {
+        LocalDateTime pendingUntil = LocalDateTime.now().plusSeconds(properties.getPendingTimeoutSeconds());
+        if (repository.insertPending(key, request.getStudentId(), request.getCourseId(), pendingUntil) == 1) {
+            return true;
+        }
+        if (repository.deleteExpiredKey(key, LocalDateTime.now()) > 0) {
+            cache.invalidate(key);
+            return repository.insertPending(key, request.getStudentId(), request.getCourseId(), pendingUntil) == 1;
+        }
+        return false;
+    }
+
+    /**
+     * 已占用幂等键：执行选课，成功后把记录标记为已完成，失败时释放键以便重试
+     */
+    private Enrollment run(String key, Supplier<Enrollment> action) {
+        Enrollment created;
+        try {
+            created = action.get();
+        } catch (RuntimeException e) {
+            release(key);
+            throw e;
+        }
+        remember(key, created);
+        return created;
+    }
+
+    /**
+     * 键已被其他请求占用：等待首个请求完成并重放其结果，超时返回409
+     *
+     * @return 首次请求的选课记录；键已被释放时为空
+     */
+    private Enrollment awaitOwner(String key, Enrollment request, long deadline) {
+        while (true) {
+            IdempotencyRecord record = repository.findById(key).orElse(null);
+            if (record != null && !matches(record.getStudentId(), record.getCourseId(), request)) {
+                throw new IdempotencyKeyConflictException(key);
+            }
+            if (record != null && record.isCompleted()) {
+                cache.put(key, record);
+                logger.info("幂等重放 - 键: {}, 选课记录: {}", key, record.getEnrollmentId());
+                return record.toEnrollment();
+            }
+            if (record == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw new IdempotencyKeyInProgressException(key);
+            }
+            try {
+                Thread.sleep(IN_PROGRESS_POLL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyKeyInProgressException(key);
+            }
+        }
+    }
+
+    private void remember(String key, Enrollment created) {
+        IdempotencyRecord record = new IdempotencyRecord(key, created,
+                LocalDateTime.now().plusSeconds(properties.getTtlSeconds()));
+        cache.put(key, record);
+        try {
+            repository.save(record);
+        } catch (Exception e) {
+            // 选课已成功，幂等记录写库失败只影响跨实例重放：PENDING 记录过期前其他实例返回409，
+            // 过期后重新执行会被选课唯一索引拦截
+            logger.warn("保存幂等记录失败: {} - {}", key, e.getMessage());
+        }
+    }
+
+    private void release(String key) {
+        try {
+            repository.deletePending(key);
+        } catch (Exception e) {
+            // 释放失败时等待 PENDING 记录过期
+            logger.warn("释放幂等键失败: {} - {}", key, e.getMessage());
+        }
+    }
+
+    private static Enrollment join(CompletableFuture<Enrollment> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 幂等执行的结果
+     *
+     * @param enrollment 选课记录
+     * @param replayed   是否为重放的首次请求结果（本次请求没有执行选课）
+     */
+    public record Result(Enrollment enrollment, boolean replayed) {
+    }
+
+    private static boolean matches(String studentId, String courseId, Enrollment request) {
+        return Objects.equals(studentId, request.getStudentId()) && Objects.equals(courseId, request.getCourseId());
+    }
+
+    private static void validateKey(String key) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must not exceed " + MAX_KEY_LENGTH + " characters");
+        }
+    }
+}
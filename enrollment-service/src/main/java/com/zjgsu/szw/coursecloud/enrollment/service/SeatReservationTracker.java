@@ -0,0 +1,144 @@
+package com.zjgsu.szw.coursecloud.enrollment.service;
+
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.SeatReservationDTO;
+import com.zjgsu.szw.coursecloud.enrollment.config.GroupCommitProperties;
+import com.zjgsu.szw.coursecloud.enrollment.exception.CatalogServiceUnavailableException;
+import com.zjgsu.szw.coursecloud.enrollment.model.SeatReservationIntent;
+import com.zjgsu.szw.coursecloud.enrollment.repository.SeatReservationIntentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 占座意向与对账
+ *
+ * 占座调用之前先写入占座意向（reservationId 随占座请求发给catalog-service，由其记录授予的座位数），
+ * 选课记录写入成功后在同一事务内删除意向，因此残留的意向只有两种情况：
+ * 占座结果未知（超时、服务不可用），或占座成功但选课记录未能写入（本地数据库故障、写入事务回滚）。
+ * 两种情况下都没有写入任何选课记录，对账任务向catalog-service查询该 reservationId 实际授予的座位数，
+ * 在删除意向的同一事务内写入发件箱释放这些座位；catalog没有记录表示占座未生效，直接删除意向。
+ *
+ * 选课写入与对账任务都通过删除意向来认领它，删除返回0的一方放弃（写入方回滚选课记录），
+ * 座位不会既被写入选课记录又被释放。
+ */
+@Component
+public class SeatReservationTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatReservationTracker.class);
+
+    private static final int RECONCILE_BATCH_SIZE = 100;
+
+    private final GroupCommitProperties properties;
+    private final SeatReservationIntentRepository intentRepository;
+    private final CourseSeatService courseSeatService;
+    private final CounterOutboxRelay counterOutboxRelay;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong reconciled = new AtomicLong();
+    private final AtomicLong releasedSeats = new AtomicLong();
+
+    public SeatReservationTracker(GroupCommitProperties properties,
+                                  SeatReservationIntentRepository intentRepository,
+                                  CourseSeatService courseSeatService,
+                                  CounterOutboxRelay counterOutboxRelay,
+                                  PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.intentRepository = intentRepository;
+        this.courseSeatService = courseSeatService;
+        this.counterOutboxRelay = counterOutboxRelay;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 占座之前写入占座意向（独立事务），本地数据库不可用时直接失败，不会占座
+     *
+     * @return 本次占座的 reservationId
+     */
+    public String begin(String courseId, int seats) {
+        String reservationId = UUID.randomUUID().toString();
+        intentRepository.save(new SeatReservationIntent(reservationId, courseId, seats));
+        return reservationId;
+    }
+
+    /**
+     * 在调用方事务内认领并删除占座意向，与选课记录、补偿发件箱一起提交
+     *
+     * @throws CatalogServiceUnavailableException 意向已被对账任务处理（座位已释放），调用方事务必须回滚
+     */
+    public void complete(String reservationId) {
+        if (intentRepository.deleteByReservationId(reservationId) == 0) {
+            throw new CatalogServiceUnavailableException("占座已超时并被回收，请重试: " + reservationId);
+        }
+    }
+
+    /**
+     * 占座确定没有授予任何座位时删除意向；失败时留给对账任务
+     */
+    public void discard(String reservationId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> intentRepository.deleteByReservationId(reservationId));
+        } catch (RuntimeException e) {
+            logger.warn("删除占座意向失败，留待对账: {} - {}", reservationId, e.getMessage());
+        }
+    }
+
+    /**
+     * 对账：释放超过保留时间仍未完成的占座意向对应的座位
+     */
+    @Scheduled(fixedDelayString = "${enrollment.group-commit.reconcile-interval-ms:30000}")
+    public void reconcile() {
+        try {
+            LocalDateTime before = LocalDateTime.now().minusNanos(properties.getReservationHoldMs() * 1_000_000);
+            List<SeatReservationIntent> stale = intentRepository.findByCreatedAtBeforeOrderByCreatedAtAsc(
+                    before, Limit.of(RECONCILE_BATCH_SIZE));
+            for (SeatReservationIntent intent : stale) {
+                reconcile(intent);
+            }
+        } catch (Exception e) {
+            logger.warn("占座意向对账失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 占座意向运行状态
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pendingIntents", intentRepository.count());
+        stats.put("reconciledIntents", reconciled.get());
+        stats.put("releasedSeats", releasedSeats.get());
+        return stats;
+    }
+
+    private void reconcile(SeatReservationIntent intent) {
+        // catalog不可用时抛出异常，本轮对账结束，意向保留到下一轮
+        SeatReservationDTO reservation = courseSeatService.findReservation(intent.getReservationId());
+        int granted = reservation == null ? 0 : Math.max(0, Math.min(reservation.getGranted(), intent.getSeats()));
+        Boolean claimed = transactionTemplate.execute(status -> {
+            if (intentRepository.deleteByReservationId(intent.getReservationId()) == 0) {
+                return false;
+            }
+            if (granted > 0) {
+                counterOutboxRelay.enqueue(intent.getCourseId(), -granted);
+            }
+            return true;
+        });
+        if (Boolean.TRUE.equals(claimed)) {
+            reconciled.incrementAndGet();
+            releasedSeats.addAndGet(granted);
+            logger.warn("占座意向对账 - 课程: {}, 意向: {}, 请求: {}, 释放: {}",
+                    intent.getCourseId(), intent.getReservationId(), intent.getSeats(), granted);
+        }
+    }
+}
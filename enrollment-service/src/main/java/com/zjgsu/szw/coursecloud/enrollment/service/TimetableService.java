@@ -0,0 +1,347 @@
+package com.zjgsu.szw.coursecloud.enrollment.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zjgsu.szw.coursecloud.enrollment.client.CatalogClient;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.ApiResponseWrapper;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.CourseDTO;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.CourseSlotResultDTO;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.ScheduleSlotDTO;
+import com.zjgsu.szw.coursecloud.enrollment.config.TimetableProperties;
+import com.zjgsu.szw.coursecloud.enrollment.exception.CatalogServiceUnavailableException;
+import com.zjgsu.szw.coursecloud.enrollment.exception.ScheduleConflictException;
+import com.zjgsu.szw.coursecloud.enrollment.repository.EnrollmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 选课时间冲突检测（学生周课表位图）
+ *
+ * 一周按 7 天 × 288 个 5 分钟时段编号，共 2016 位（32 个 long）。学生的课表位图由其活跃选课
+ * 与课程上课时间（课程近端缓存）推导，并按学生缓存；新课程的时段只覆盖 1~2 个 long，
+ * 检测时只需对这几个字做 AND。位图按 5 分钟取整，只用于快速排除；有交集时再逐门课程按实际的
+ * 起止分钟比较，找出冲突的课程（09:00-09:47 与 09:48-10:30 落在同一个时段但不冲突）。
+ *
+ * 活跃选课的课程ID集合每次都从数据库读取（走 student_id 索引），与缓存的集合不一致时重建位图，
+ * 因此其他实例写入的选课、退课和批量选课都会被看到；已选课程调整上课时间后最多在 ttl 内按旧时间检测。
+ * 同一学生的检测与提交在本实例内串行执行（每个学生一把锁，不同学生互不阻塞）；
+ * 同一学生同时向不同实例提交两门冲突课程仍可能都成功。
+ * 批量选课（教务整班导入）不做冲突检测，由教务负责排课。
+ *
+ * 可选课程推荐把学生课表的占用区间交给 catalog-service 的时段索引，由其返回不冲突且有余量的课程。
+ */
+@Service
+public class TimetableService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimetableService.class);
+
+    private static final int SLOT_MINUTES = 5;
+    private static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    private static final int WORDS = (7 * SLOTS_PER_DAY + 63) / 64;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final CourseLookupService courseLookupService;
+    private final TimetableProperties properties;
+    private final CatalogClient catalogClient;
+    private final Cache<String, StudentTimetable> timetables;
+    private final ConcurrentHashMap<String, StudentLock> studentLocks = new ConcurrentHashMap<>();
+
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    public TimetableService(EnrollmentRepository enrollmentRepository,
+                            CourseLookupService courseLookupService,
+                            TimetableProperties properties,
+                            CatalogClient catalogClient) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.courseLookupService = courseLookupService;
+        this.properties = properties;
+        this.catalogClient = catalogClient;
+        this.timetables = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(Duration.ofSeconds(properties.getTtlSeconds()))
+                .build();
+    }
+
+    /**
+     * 在学生级别的锁内执行（冲突检测 + 提交选课），避免同一学生的两个并发请求都通过检测
+     * 每个学生一把锁，只在有请求持有或等待时存在，提交期间不会阻塞其他学生；
+     * 使用 ReentrantLock 而不是 synchronized，等待锁时不会占住虚拟线程的载体线程
+     */
+    public <T> T withStudentLock(String studentId, Supplier<T> action) {
+        if (!properties.isEnabled()) {
+            return action.get();
+        }
+        StudentLock lock = studentLocks.compute(studentId, (id, existing) -> {
+            StudentLock acquired = existing != null ? existing : new StudentLock();
+            acquired.holders++;
+            return acquired;
+        });
+        lock.lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.lock.unlock();
+            studentLocks.computeIfPresent(studentId, (id, existing) -> --existing.holders == 0 ? null : existing);
+        }
+    }
+
+    /**
+     * 检测所选课程与学生已选课程的上课时间是否重叠（首尾相接不算冲突）
+     *
+     * @throws ScheduleConflictException 与某门已选课程冲突，异常信息中包含该课程
+     */
+    public void checkConflict(String studentId, CourseDTO course) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Slot slot = Slot.of(course);
+        if (slot == null) {
+            return;
+        }
+        checks.incrementAndGet();
+        StudentTimetable timetable = timetable(studentId);
+        if (!timetable.intersects(slot)) {
+            return;
+        }
+        for (Slot existing : timetable.slots()) {
+            if (!existing.courseId().equals(course.getId()) && existing.overlaps(slot)) {
+                conflicts.incrementAndGet();
+                throw new ScheduleConflictException(existing.courseId(), String.format(
+                        "Schedule conflict with enrolled course %s %s (%s)",
+                        existing.code(), existing.title(), existing.describe()));
+            }
+        }
+    }
+
+    /**
+     * 查询与学生当前课表不冲突且有剩余座位的课程
+     *
+     * @param days  逗号分隔的星期（MONDAY..SUNDAY），为空时不限
+     * @param from  时间窗口开始 HH:mm，为空时不限
+     * @param to    时间窗口结束 HH:mm，为空时不限
+     * @param limit 返回条数（catalog-service 默认50，最大500）
+     */
+    public CourseSlotResultDTO suggest(String studentId, String days, String from, String to, Integer limit) {
+        // 参数在本地先校验，避免 catalog-service 的 400 经降级变成 503
+        validateWindow(days, from, to);
+        StringJoiner busy = new StringJoiner(",");
+        for (Slot slot : timetable(studentId).slots()) {
+            busy.add(slot.startMinute() + "-" + slot.endMinute());
+        }
+        ApiResponseWrapper<CourseSlotResultDTO> response;
+        try {
+            response = catalogClient.getNonConflictingCourses(busy.toString(), days, from, to, limit);
+        } catch (Exception e) {
+            throw new CatalogServiceUnavailableException("调用课程服务失败: " + e.getMessage(), e);
+        }
+        if (!response.isSuccess() || response.getData() == null) {
+            throw new CatalogServiceUnavailableException("查询可选课程失败: " + response.getMessage());
+        }
+        return response.getData();
+    }
+
+    /**
+     * 学生退课后丢弃其缓存课表（下次检测时按数据库重建）
+     */
+    public void invalidate(String studentId) {
+        timetables.invalidate(studentId);
+    }
+
+    /**
+     * 冲突检测统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("cachedStudents", timetables.estimatedSize());
+        stats.put("checks", checks.get());
+        stats.put("conflicts", conflicts.get());
+        stats.put("rebuilds", rebuilds.get());
+        return stats;
+    }
+
+    /**
+     * 取学生当前课表：缓存的课程集合与数据库中的活跃选课一致时直接复用，否则重建
+     */
+    private StudentTimetable timetable(String studentId) {
+        Set<String> courseIds = new HashSet<>(enrollmentRepository.findActiveCourseIdsByStudentId(studentId));
+        StudentTimetable cached = timetables.getIfPresent(studentId);
+        if (cached != null && cached.courseIds().equals(courseIds)) {
+            return cached;
+        }
+        rebuilds.incrementAndGet();
+        long[] bits = new long[WORDS];
+        List<Slot> slots = new ArrayList<>(courseIds.size());
+        if (!courseIds.isEmpty()) {
+            for (CourseDTO enrolled : courseLookupService.getCourses(courseIds).values()) {
+                Slot slot = Slot.of(enrolled);
+                if (slot != null) {
+                    slot.setBits(bits);
+                    slots.add(slot);
+                }
+            }
+        }
+        StudentTimetable timetable = new StudentTimetable(Set.copyOf(courseIds), bits, List.copyOf(slots));
+        timetables.put(studentId, timetable);
+        logger.debug("重建学生课表: {}，课程数: {}", studentId, slots.size());
+        return timetable;
+    }
+
+    /**
+     * 学生课表：活跃选课的课程ID、占用时段位图和各课程时段
+     */
+    private record StudentTimetable(Set<String> courseIds, long[] bits, List<Slot> slots) {
+
+        /**
+         * 只检查时段覆盖的字，每个字一次 AND
+         */
+        boolean intersects(Slot slot) {
+            for (int bit = slot.from(); bit < slot.to(); ) {
+                int word = bit >>> 6;
+                int end = Math.min(slot.to(), (word + 1) << 6);
+                if ((bits[word] & rangeMask(bit, end)) != 0) {
+                    return true;
+                }
+                bit = end;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 学生锁及其持有/等待者计数（计数只在 ConcurrentHashMap.compute 内修改），计数归零时移除
+     */
+    private static final class StudentLock {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int holders;
+    }
+
+    /**
+     * 一门课程在周时段编号上的区间 [from, to)，以及实际的周内起止分钟 [startMinute, endMinute)
+     */
+    private record Slot(String courseId, String code, String title, DayOfWeek day, int from, int to,
+                        int startMinute, int endMinute) {
+
+        /**
+         * 按课程上课时间计算区间，上课时间缺失或无法解析时返回null（不参与冲突检测）
+         */
+        static Slot of(CourseDTO course) {
+            ScheduleSlotDTO schedule = course.getSchedule();
+            if (schedule == null || schedule.getDayOfWeek() == null) {
+                return null;
+            }
+            try {
+                DayOfWeek day = DayOfWeek.valueOf(schedule.getDayOfWeek().trim().toUpperCase(Locale.ROOT));
+                int start = minuteOfDay(schedule.getStartTime());
+                int end = minuteOfDay(schedule.getEndTime());
+                if (end <= start) {
+                    return null;
+                }
+                int base = (day.getValue() - 1) * SLOTS_PER_DAY;
+                int minuteBase = (day.getValue() - 1) * MINUTES_PER_DAY;
+                // 开始时间向下、结束时间向上取整到 5 分钟，结束时段不含
+                int from = base + start / SLOT_MINUTES;
+                int to = base + (end + SLOT_MINUTES - 1) / SLOT_MINUTES;
+                return new Slot(course.getId(), course.getCode(), course.getTitle(), day, from, to,
+                        minuteBase + start, minuteBase + end);
+            } catch (RuntimeException e) {
+                logger.debug("课程上课时间无法解析，跳过冲突检测: {} {}", course.getId(), e.getMessage());
+                return null;
+            }
+        }
+
+        /**
+         * 按实际起止分钟判断是否重叠（首尾相接不算）
+         */
+        boolean overlaps(Slot other) {
+            return startMinute < other.endMinute && other.startMinute < endMinute;
+        }
+
+        void setBits(long[] bits) {
+            for (int bit = from; bit < to; ) {
+                int word = bit >>> 6;
+                int end = Math.min(to, (word + 1) << 6);
+                bits[word] |= rangeMask(bit, end);
+                bit = end;
+            }
+        }
+
+        String describe() {
+            int minuteBase = (day.getValue() - 1) * MINUTES_PER_DAY;
+            return day + " " + formatMinute(startMinute - minuteBase) + "-" + formatMinute(endMinute - minuteBase);
+        }
+    }
+
+    /**
+     * 同一个字内 [from, to) 位的掩码
+     */
+    private static long rangeMask(int from, int to) {
+        int length = to - from;
+        long mask = length == 64 ? -1L : (1L << length) - 1;
+        return mask << (from & 63);
+    }
+
+    /**
+     * 解析 "HH:mm"（允许 "24:00"）为当天的分钟数
+     */
+    private static int minuteOfDay(String time) {
+        String[] parts = time.trim().split(":");
+        int hour = Integer.parseInt(parts[0]);
+        int minute = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+        int value = hour * 60 + minute;
+        if (hour < 0 || minute < 0 || minute >= 60 || value > 24 * 60) {
+            throw new IllegalArgumentException("Invalid time: " + time);
+        }
+        return value;
+    }
+
+    private static void validateWindow(String days, String from, String to) {
+        if (days != null && !days.isBlank()) {
+            for (String day : days.split(",")) {
+                try {
+                    DayOfWeek.valueOf(day.trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid day of week: " + day);
+                }
+            }
+        }
+        int start = 0;
+        int end = 24 * 60;
+        try {
+            if (from != null && !from.isBlank()) {
+                start = minuteOfDay(from);
+            }
+            if (to != null && !to.isBlank()) {
+                end = minuteOfDay(to);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid time window: " + from + "-" + to);
+        }
+        if (end <= start) {
+            throw new IllegalArgumentException("Time window end must be after start");
+        }
+    }
+
+    private static String formatMinute(int minute) {
+        return String.format("%02d:%02d", minute / 60, minute % 60);
+    }
+}
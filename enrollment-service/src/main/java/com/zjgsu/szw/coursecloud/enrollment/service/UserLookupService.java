@@ -0,0 +1,196 @@
+package com.zjgsu.szw.coursecloud.enrollment.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.zjgsu.szw.coursecloud.enrollment.client.UserClient;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.ApiResponseWrapper;
+import com.zjgsu.szw.coursecloud.enrollment.client.dto.UserDTO;
+import com.zjgsu.szw.coursecloud.enrollment.config.UserCacheProperties;
+import com.zjgsu.szw.coursecloud.enrollment.exception.ResourceNotFoundException;
+import com.zjgsu.szw.coursecloud.enrollment.exception.UserServiceUnavailableException;
+import feign.FeignException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 学生信息查询（带近端缓存）
+ *
+ * 选课期间学生信息几乎不变，因此在UserClient前加一层有界缓存：Caffeine（W-TinyLFU淘汰）+ TTL，
+ * 学生不存在的结果单独做短时间的负缓存，避免错误学号反复打到user-service。
+ * 服务不可用等错误不缓存。学生信息变更后可通过管理端点失效单个学生。
+ *
+ * 未命中时不使用 Cache.get(key, loader)：加载函数在 ConcurrentHashMap 的桶锁内执行，
+ * 远程调用期间会阻塞同桶的其他键并钉住虚拟线程，同一学生的并发未命中只会多调用一次。
+ */
+@Service
+public class UserLookupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserLookupService.class);
+
+    private final UserClient userClient;
+    private final UserCacheProperties properties;
+    private final Cache<String, UserDTO> users;
+    private final Cache<String, Boolean> missing;
+
+    public UserLookupService(UserClient userClient, UserCacheProperties properties) {
+        this.userClient = userClient;
+        this.properties = properties;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(Duration.ofSeconds(properties.getTtlSeconds()))
+                .recordStats()
+                .build();
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(Duration.ofSeconds(properties.getNegativeTtlSeconds()))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 查询学生信息
+     *
+     * @throws ResourceNotFoundException 学生不存在
+     * @throws UserServiceUnavailableException user-service不可用
+     */
+    public UserDTO getUser(String studentId) {
+        if (properties.isEnabled()) {
+            UserDTO cached = users.getIfPresent(studentId);
+            if (cached != null) {
+                return cached;
+            }
+            if (missing.getIfPresent(studentId) != null) {
+                throw notFound(studentId);
+            }
+        }
+
+        logger.debug("调用user-service校验学生: {}", studentId);
+        ApiResponseWrapper<UserDTO> response;
+        try {
+            response = userClient.getUserByStudentId(studentId);
+        } catch (FeignException.NotFound e) {
+            // user-service 对不存在的学生返回 HTTP 404，Feign 以异常形式抛出
+            if (properties.isEnabled()) {
+                missing.put(studentId, Boolean.TRUE);
+            }
+            throw notFound(studentId);
+        } catch (Exception e) {
+            throw new UserServiceUnavailableException("调用用户服务失败: " + e.getMessage(), e);
+        }
+        if (response.getCode() == 503) {
+            throw new UserServiceUnavailableException(response.getMessage());
+        }
+        if (!response.isSuccess() || response.getData() == null) {
+            throw new UserServiceUnavailableException("查询学生失败: " + response.getMessage());
+        }
+        UserDTO user = response.getData();
+
+        if (properties.isEnabled()) {
+            users.put(studentId, user);
+        }
+        return user;
+    }
+
+    /**
+     * 批量查询存在的学生
+     * 命中缓存（包括负缓存）的学号不再查询，其余通过一次批量调用获取并回填缓存
+     *
+     * @return 存在的学号集合
+     */
+    public Set<String> findExisting(Collection<String> studentIds) {
+        Set<String> existing = new HashSet<>();
+        List<String> toFetch = new ArrayList<>();
+        for (String studentId : studentIds) {
+            if (properties.isEnabled() && users.getIfPresent(studentId) != null) {
+                existing.add(studentId);
+            } else if (!properties.isEnabled() || missing.getIfPresent(studentId) == null) {
+                toFetch.add(studentId);
+            }
+        }
+        if (toFetch.isEmpty()) {
+            return existing;
+        }
+
+        ApiResponseWrapper<List<UserDTO>> response;
+        try {
+            response = userClient.getUsersByStudentIds(toFetch);
+        } catch (Exception e) {
+            throw new UserServiceUnavailableException("调用用户服务失败: " + e.getMessage(), e);
+        }
+        if (response.getCode() == 503) {
+            throw new UserServiceUnavailableException(response.getMessage());
+        }
+        if (!response.isSuccess() || response.getData() == null) {
+            throw new UserServiceUnavailableException("批量查询学生失败: " + response.getMessage());
+        }
+
+        Set<String> fetched = new HashSet<>();
+        for (UserDTO user : response.getData()) {
+            fetched.add(user.getStudentId());
+            if (properties.isEnabled()) {
+                users.put(user.getStudentId(), user);
+            }
+        }
+        if (properties.isEnabled()) {
+            for (String studentId : toFetch) {
+                if (!fetched.contains(studentId)) {
+                    missing.put(studentId, Boolean.TRUE);
+                }
+            }
+        }
+        existing.addAll(fetched);
+        return existing;
+    }
+
+    /**
+     * 失效单个学生的缓存（包括负缓存）
+     */
+    public void invalidate(String studentId) {
+        users.invalidate(studentId);
+        missing.invalidate(studentId);
+        logger.info("已失效学生缓存: {}", studentId);
+    }
+
+    /**
+     * 清空全部学生缓存
+     */
+    public void invalidateAll() {
+        users.invalidateAll();
+        missing.invalidateAll();
+        logger.info("已清空学生缓存");
+    }
+
+    /**
+     * 缓存命中/未命中/淘汰统计
+     */
+    public Map<String, Object> stats() {
+        CacheStats positive = users.stats();
+        CacheStats negative = missing.stats();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("size", users.estimatedSize());
+        stats.put("hits", positive.hitCount());
+        stats.put("misses", positive.missCount());
+        stats.put("hitRate", positive.hitRate());
+        stats.put("evictions", positive.evictionCount());
+        stats.put("negativeSize", missing.estimatedSize());
+        stats.put("negativeHits", negative.hitCount());
+        stats.put("negativeEvictions", negative.evictionCount());
+        return stats;
+    }
+
+    private static ResourceNotFoundException notFound(String studentId) {
+        return new ResourceNotFoundException("Student not found with studentId: " + studentId);
+    }
+}
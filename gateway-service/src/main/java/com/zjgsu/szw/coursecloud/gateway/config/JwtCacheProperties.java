@@ -0,0 +1,38 @@
+package com.zjgsu.szw.coursecloud.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JWT声明缓存配置类
+ */
+@Configuration
+@ConfigurationProperties(prefix = "jwt.claims-cache")
+public class JwtCacheProperties {
+
+    /**
+     * 是否启用缓存，关闭后每个请求都重新验签和解析
+     */
+    private boolean enabled = true;
+
+    /**
+     * 最多缓存的令牌数量
+     */
+    private long maxEntries = 100000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+}
@@ -0,0 +1,133 @@
+package com.zjgsu.szw.coursecloud.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 网关响应缓存配置类
+ * 下游响应携带 Cache-Control 时以下游为准，否则使用这里的默认值
+ */
+@Configuration
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+    /**
+     * 是否启用响应缓存
+     */
+    private boolean enabled = true;
+
+    /**
+     * 需要缓存的GET路径（PathPattern写法）
+     */
+    private List<String> paths = new ArrayList<>();
+
+    /**
+     * 不缓存的路径，优先于 paths
+     */
+    private List<String> excludePaths = new ArrayList<>();
+
+    /**
+     * 默认新鲜期（秒）
+     */
+    private long ttlSeconds = 5;
+
+    /**
+     * 默认 stale-while-revalidate 窗口（秒）：过期后仍直接返回旧响应，同时后台刷新
+     */
+    private long staleWhileRevalidateSeconds = 30;
+
+    /**
+     * 默认 stale-if-error 窗口（秒）：下游出错或超时时返回旧响应
+     */
+    private long staleIfErrorSeconds = 600;
+
+    /**
+     * 缓存响应体总字节数上限
+     */
+    private long maxBytes = 64L * 1024 * 1024;
+
+    /**
+     * 单个响应体的字节数上限，超过的响应不缓存
+     */
+    private int maxEntryBytes = 1024 * 1024;
+
+    /**
+     * 后台刷新请求的超时时间（毫秒）
+     */
+    private long revalidateTimeoutMs = 5000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    public void setPaths(List<String> paths) {
+        this.paths = paths;
+    }
+
+    public List<String> getExcludePaths() {
+        return excludePaths;
+    }
+
+    public void setExcludePaths(List<String> excludePaths) {
+        this.excludePaths = excludePaths;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public long getStaleWhileRevalidateSeconds() {
+        return staleWhileRevalidateSeconds;
+    }
+
+    public void setStaleWhileRevalidateSeconds(long staleWhileRevalidateSeconds) {
+        this.staleWhileRevalidateSeconds = staleWhileRevalidateSeconds;
+    }
+
+    public long getStaleIfErrorSeconds() {
+        return staleIfErrorSeconds;
+    }
+
+    public void setStaleIfErrorSeconds(long staleIfErrorSeconds) {
+        this.staleIfErrorSeconds = staleIfErrorSeconds;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public void setMaxEntryBytes(int maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public long getRevalidateTimeoutMs() {
+        return revalidateTimeoutMs;
+    }
+
+    public void setRevalidateTimeoutMs(long revalidateTimeoutMs) {
+        this.revalidateTimeoutMs = revalidateTimeoutMs;
+    }
+}
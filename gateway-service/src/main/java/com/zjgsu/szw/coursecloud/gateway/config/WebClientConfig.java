@@ -0,0 +1,20 @@
+package com.zjgsu.szw.coursecloud.gateway.config;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * WebClient配置类
+ * 带负载均衡的 WebClient，用于网关自身发起的下游请求（如响应缓存的后台刷新）
+ */
+@Configuration
+public class WebClientConfig {
+
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder() {
+        return WebClient.builder();
+    }
+}
@@ -3,6 +3,7 @@ package com.zjgsu.szw.coursecloud.gateway.controller;
 import com.zjgsu.szw.coursecloud.gateway.common.ApiResponse;
 import com.zjgsu.szw.coursecloud.gateway.dto.LoginRequest;
 import com.zjgsu.szw.coursecloud.gateway.dto.LoginResponse;
+import com.zjgsu.szw.coursecloud.gateway.util.JwtClaimsCache;
 import com.zjgsu.szw.coursecloud.gateway.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +22,7 @@ import java.util.UUID;
 public class AuthController {
 
     private final JwtUtil jwtUtil;
+    private final JwtClaimsCache jwtClaimsCache;
 
     @Value("${jwt.expiration}")
     private Long expiration;
@@ -37,8 +39,9 @@ public class AuthController {
         MOCK_USERS.put("student2", new MockUser("stu002", "student2", "123456", "STUDENT"));
     }
 
-    public AuthController(JwtUtil jwtUtil) {
+    public AuthController(JwtUtil jwtUtil, JwtClaimsCache jwtClaimsCache) {
         this.jwtUtil = jwtUtil;
+        this.jwtClaimsCache = jwtClaimsCache;
     }
 
     /**
@@ -106,6 +109,15 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success("令牌有效", claims));
     }
 
+    /**
+     * JWT声明缓存统计（命中、未命中、淘汰）
+     * GET /api/auth/token-cache/stats
+     */
+    @GetMapping("/token-cache/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getTokenCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(jwtClaimsCache.stats()));
+    }
+
     /**
      * 获取当前用户信息
      * GET /api/auth/me
@@ -0,0 +1,44 @@
+package com.zjgsu.szw.coursecloud.gateway.controller;
+
+import com.zjgsu.szw.coursecloud.gateway.common.ApiResponse;
+import com.zjgsu.szw.coursecloud.gateway.filter.ResponseCacheFilter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 网关响应缓存管理接口
+ */
+@RestController
+@RequestMapping("/api/gateway/response-cache")
+public class ResponseCacheController {
+
+    private final ResponseCacheFilter responseCacheFilter;
+
+    public ResponseCacheController(ResponseCacheFilter responseCacheFilter) {
+        this.responseCacheFilter = responseCacheFilter;
+    }
+
+    /**
+     * 响应缓存统计（命中、过期命中、出错兜底、后台刷新）
+     * GET /api/gateway/response-cache/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStats() {
+        return ResponseEntity.ok(ApiResponse.success(responseCacheFilter.stats()));
+    }
+
+    /**
+     * 清空响应缓存
+     * DELETE /api/gateway/response-cache
+     */
+    @DeleteMapping
+    public ResponseEntity<ApiResponse<Map<String, Object>>> clear() {
+        responseCacheFilter.clear();
+        return ResponseEntity.ok(ApiResponse.success("响应缓存已清空", responseCacheFilter.stats()));
+    }
+}
@@ -1,8 +1,8 @@
 package com.zjgsu.szw.coursecloud.gateway.filter;
 
-import com.zjgsu.szw.coursecloud.gateway.config.AuthProperties;
-import com.zjgsu.szw.coursecloud.gateway.util.JwtUtil;
-import io.jsonwebtoken.Claims;
+import com.zjgsu.szw.coursecloud.gateway.util.JwtClaimsCache;
+import com.zjgsu.szw.coursecloud.gateway.util.VerifiedClaims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
@@ -13,12 +13,10 @@ import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
-import java.util.List;
 
 /**
  * JWT认证全局过滤器
@@ -27,22 +25,20 @@ import java.util.List;
 @Component
 public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
-    private final JwtUtil jwtUtil;
-    private final AuthProperties authProperties;
-    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final JwtClaimsCache jwtClaimsCache;
+    private final WhitelistMatcher whitelistMatcher;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, AuthProperties authProperties) {
-        this.jwtUtil = jwtUtil;
-        this.authProperties = authProperties;
+    public JwtAuthenticationFilter(JwtClaimsCache jwtClaimsCache, WhitelistMatcher whitelistMatcher) {
+        this.jwtClaimsCache = jwtClaimsCache;
+        this.whitelistMatcher = whitelistMatcher;
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
-        String path = request.getURI().getPath();
 
         // 1. 检查是否在白名单中
-        if (isWhitelisted(path)) {
+        if (whitelistMatcher.matches(request.getPath().pathWithinApplication())) {
             return chain.filter(exchange);
         }
 
@@ -57,39 +53,23 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
         // 4. 提取JWT令牌
         String token = authHeader.substring(7);
 
-        // 5. 验证JWT令牌
-        if (!jwtUtil.validateToken(token)) {
+        // 5. 验证JWT令牌（同一令牌的验签结果会被缓存，直到令牌过期）
+        VerifiedClaims claims;
+        try {
+            claims = jwtClaimsCache.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
             return unauthorizedResponse(exchange, "无效或过期的JWT令牌");
         }
 
-        // 6. 解析令牌获取用户信息
-        try {
-            Claims claims = jwtUtil.parseToken(token);
-            String userId = claims.getSubject();
-            String username = claims.get("username", String.class);
-            String role = claims.get("role", String.class);
-
-            // 7. 将用户信息添加到请求头中，传递给下游服务
-            ServerHttpRequest modifiedRequest = request.mutate()
-                    .header("X-User-Id", userId)
-                    .header("X-Username", username)
-                    .header("X-User-Role", role)
-                    .build();
-
-            // 8. 使用修改后的请求继续处理
-            return chain.filter(exchange.mutate().request(modifiedRequest).build());
-        } catch (Exception e) {
-            return unauthorizedResponse(exchange, "JWT令牌解析失败: " + e.getMessage());
-        }
-    }
+        // 6. 将用户信息添加到请求头中，传递给下游服务
+        ServerHttpRequest modifiedRequest = request.mutate()
+                .header("X-User-Id", claims.userId())
+                .header("X-Username", claims.username())
+                .header("X-User-Role", claims.role())
+                .build();
 
-    /**
-     * 检查请求路径是否在白名单中
-     */
-    private boolean isWhitelisted(String path) {
-        List<String> whitelist = authProperties.getWhitelist();
-        return whitelist.stream()
-                .anyMatch(pattern -> pathMatcher.match(pattern, path));
+        // 7. 使用修改后的请求继续处理
+        return chain.filter(exchange.mutate().request(modifiedRequest).build());
     }
 
     /**
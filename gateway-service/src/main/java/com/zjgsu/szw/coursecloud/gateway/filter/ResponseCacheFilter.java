@@ -0,0 +1,457 @@
+package com.zjgsu.szw.coursecloud.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.zjgsu.szw.coursecloud.gateway.config.ResponseCacheProperties;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 网关响应缓存全局过滤器
+ *
+ * 对配置路径的GET请求按“路径+查询串”缓存下游响应体字节，命中时直接写出缓存的字节，不经过下游也不重新序列化。
+ * 新鲜期、stale-while-revalidate 与 stale-if-error 窗口优先取下游的 Cache-Control，no-store/private 的响应不缓存。
+ *
+ * - 新鲜：直接返回（X-Cache: HIT）
+ * - 过期但在 stale-while-revalidate 窗口内：直接返回旧响应（X-Cache: STALE），并在后台用 If-None-Match 刷新，同一键同时只刷新一次
+ * - 其余情况转发下游；下游报错、超时或返回5xx时，在 stale-if-error 窗口内返回旧响应（X-Cache: STALE-IF-ERROR）
+ *
+ * 客户端携带的 If-None-Match 与缓存的 ETag 一致时直接返回 304。
+ * 下游可能按 Accept-Encoding 返回 gzip 压缩的响应，接受 gzip 与不接受的请求分别缓存，写出时带上原来的 Content-Encoding。
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheFilter.class);
+
+    private static final String X_CACHE = "X-Cache";
+
+    private final ResponseCacheProperties properties;
+    private final WebClient webClient;
+    private final Cache<String, CachedResponse> cache;
+    private final List<PathPattern> paths;
+    private final List<PathPattern> excludePaths;
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleOnError = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong revalidationFailures = new AtomicLong();
+
+    public ResponseCacheFilter(ResponseCacheProperties properties, WebClient.Builder webClientBuilder) {
+        this.properties = properties;
+        this.webClient = webClientBuilder.build();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxBytes())
+                .weigher((String key, CachedResponse response) -> key.length() + response.body().length)
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        long until = Math.max(response.staleUntil(), response.errorUntil());
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(until - System.currentTimeMillis(), 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, response, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        PathPatternParser parser = new PathPatternParser();
+        this.paths = properties.getPaths().stream().map(parser::parse).toList();
+        this.excludePaths = properties.getExcludePaths().stream().map(parser::parse).toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!properties.isEnabled() || request.getMethod() != HttpMethod.GET || !isCacheable(request.getPath().pathWithinApplication())) {
+            return chain.filter(exchange);
+        }
+
+        String target = target(request);
+        String key = acceptsGzip(request.getHeaders()) ? target + " gzip" : target;
+        long now = System.currentTimeMillis();
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null && now < cached.freshUntil()) {
+            hits.incrementAndGet();
+            return writeCached(exchange, cached, "HIT");
+        }
+        if (cached != null && now < cached.staleUntil()) {
+            staleHits.incrementAndGet();
+            revalidate(key, cached);
+            return writeCached(exchange, cached, "STALE");
+        }
+
+        misses.incrementAndGet();
+        CachedResponse fallback = cached != null && now < cached.errorUntil() ? cached : null;
+        URI origin = originUri(exchange, target);
+        ServerHttpResponse response = exchange.getResponse();
+        ServerHttpResponseDecorator decorated = new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpStatusCode status = getStatusCode();
+                if (status != null && status.is5xxServerError() && fallback != null) {
+                    staleOnError.incrementAndGet();
+                    return Flux.from(body).doOnNext(DataBufferUtils::release)
+                            .then(writeBody(getDelegate(), fallback, "STALE-IF-ERROR"));
+                }
+                if (status == null || status.value() != HttpStatus.OK.value() || origin == null
+                        || !isStorable(getHeaders())) {
+                    return super.writeWith(body);
+                }
+                return super.writeWith(capture(body, bufferFactory(), bytes -> {
+                    store(key, origin, getHeaders(), bytes);
+                    getHeaders().set(X_CACHE, "MISS");
+                }));
+            }
+        };
+
+        return chain.filter(exchange.mutate().response(decorated).build())
+                .onErrorResume(e -> {
+                    if (fallback == null || response.isCommitted()) {
+                        return Mono.error(e);
+                    }
+                    staleOnError.incrementAndGet();
+                    logger.warn("下游请求失败，返回缓存响应: {} - {}", key, e.getMessage());
+                    return writeBody(response, fallback, "STALE-IF-ERROR");
+                });
+    }
+
+    /**
+     * 缓存运行状态
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("entries", cache.estimatedSize());
+        stats.put("bytes", cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L));
+        stats.put("hits", hits.get());
+        stats.put("staleHits", staleHits.get());
+        stats.put("misses", misses.get());
+        stats.put("staleOnError", staleOnError.get());
+        stats.put("notModified", notModified.get());
+        stats.put("revalidations", revalidations.get());
+        stats.put("revalidationFailures", revalidationFailures.get());
+        return stats;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    private boolean isCacheable(PathContainer path) {
+        for (PathPattern pattern : excludePaths) {
+            if (pattern.matches(path)) {
+                return false;
+            }
+        }
+        for (PathPattern pattern : paths) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached, String state) {
+        String ifNoneMatch = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        ServerHttpResponse response = exchange.getResponse();
+        if (cached.etag() != null && cached.etag().equals(ifNoneMatch)) {
+            notModified.incrementAndGet();
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().setETag(cached.etag());
+            response.getHeaders().set(X_CACHE, state);
+            return response.setComplete();
+        }
+        return writeBody(response, cached, state);
+    }
+
+    private Mono<Void> writeBody(ServerHttpResponse response, CachedResponse cached, String state) {
+        HttpHeaders headers = response.getHeaders();
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        headers.remove(HttpHeaders.CACHE_CONTROL);
+        response.setStatusCode(HttpStatus.OK);
+        if (cached.contentType() != null) {
+            headers.setContentType(cached.contentType());
+        }
+        if (cached.etag() != null) {
+            headers.setETag(cached.etag());
+        } else {
+            headers.remove(HttpHeaders.ETAG);
+        }
+        if (cached.contentEncoding() != null) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, cached.contentEncoding());
+        } else {
+            headers.remove(HttpHeaders.CONTENT_ENCODING);
+        }
+        headers.setContentLength(cached.body().length);
+        headers.set(HttpHeaders.AGE, String.valueOf((System.currentTimeMillis() - cached.storedAt()) / 1000));
+        headers.set(X_CACHE, state);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    /**
+     * 后台刷新过期条目，ETag未变化（304）时只延长有效期
+     */
+    private void revalidate(String key, CachedResponse cached) {
+        if (!revalidating.add(key)) {
+            return;
+        }
+        revalidations.incrementAndGet();
+        WebClient.RequestHeadersSpec<?> spec = webClient.get().uri(cached.origin());
+        if (cached.etag() != null) {
+            spec = spec.header(HttpHeaders.IF_NONE_MATCH, cached.etag());
+        }
+        if (cached.contentEncoding() != null) {
+            spec = spec.header(HttpHeaders.ACCEPT_ENCODING, cached.contentEncoding());
+        }
+        spec.exchangeToMono(response -> {
+                    if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                        HttpHeaders headers = new HttpHeaders();
+                        headers.putAll(response.headers().asHttpHeaders());
+                        if (headers.getContentType() == null && cached.contentType() != null) {
+                            headers.setContentType(cached.contentType());
+                        }
+                        if (headers.getETag() == null && cached.etag() != null) {
+                            headers.setETag(cached.etag());
+                        }
+                        if (cached.contentEncoding() != null) {
+                            headers.set(HttpHeaders.CONTENT_ENCODING, cached.contentEncoding());
+                        }
+                        store(key, cached.origin(), headers, cached.body());
+                        return response.releaseBody();
+                    }
+                    if (response.statusCode().value() == HttpStatus.OK.value()
+                            && isStorable(response.headers().asHttpHeaders())) {
+                        return capture(response.bodyToFlux(DataBuffer.class), DefaultDataBufferFactory.sharedInstance,
+                                bytes -> store(key, cached.origin(), response.headers().asHttpHeaders(), bytes))
+                                .doOnNext(DataBufferUtils::release)
+                                .then();
+                    }
+                    return response.releaseBody();
+                })
+                .timeout(Duration.ofMillis(properties.getRevalidateTimeoutMs()))
+                .doFinally(signal -> revalidating.remove(key))
+                .subscribe(ignored -> {
+                }, e -> {
+                    revalidationFailures.incrementAndGet();
+                    logger.warn("后台刷新缓存失败: {} - {}", key, e.getMessage());
+                });
+    }
+
+    /**
+     * 累积下游响应体：不超过单条上限时在响应结束后整体交给 onComplete 并写出（写出前仍可修改响应头）；
+     * 超过上限时（例如没有 Content-Length 的分块响应）放弃缓存，已累积的与之后的数据块直接透传，不再缓冲
+     */
+    private Flux<DataBuffer> capture(Publisher<? extends DataBuffer> body, DataBufferFactory bufferFactory,
+                                     Consumer<byte[]> onComplete) {
+        return Flux.defer(() -> {
+            List<DataBuffer> held = new ArrayList<>();
+            long[] size = {0};
+            boolean[] passThrough = {false};
+            return Flux.<DataBuffer>from(body)
+                    .concatMap(buffer -> {
+                        if (passThrough[0]) {
+                            return Mono.just(buffer);
+                        }
+                        size[0] += buffer.readableByteCount();
+                        held.add(buffer);
+                        if (size[0] <= properties.getMaxEntryBytes()) {
+                            return Flux.empty();
+                        }
+                        passThrough[0] = true;
+                        List<DataBuffer> buffered = new ArrayList<>(held);
+                        held.clear();
+                        return Flux.fromIterable(buffered);
+                    })
+                    .concatWith(Mono.defer(() -> {
+                        if (passThrough[0]) {
+                            return Mono.empty();
+                        }
+                        byte[] bytes = new byte[(int) size[0]];
+                        int offset = 0;
+                        for (DataBuffer buffer : held) {
+                            int length = buffer.readableByteCount();
+                            buffer.read(bytes, offset, length);
+                            offset += length;
+                            DataBufferUtils.release(buffer);
+                        }
+                        held.clear();
+                        onComplete.accept(bytes);
+                        return Mono.just(bufferFactory.wrap(bytes));
+                    }))
+                    .doFinally(signal -> {
+                        held.forEach(DataBufferUtils::release);
+                        held.clear();
+                    });
+        });
+    }
+
+    private void store(String key, URI origin, HttpHeaders headers, byte[] body) {
+        if (body.length > properties.getMaxEntryBytes()) {
+            return;
+        }
+        CacheDirectives directives = CacheDirectives.parse(headers.getCacheControl(), properties);
+        if (!directives.storable()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long freshUntil = now + directives.maxAgeSeconds() * 1000;
+        cache.put(key, new CachedResponse(body, headers.getContentType(), headers.getETag(),
+                headers.getFirst(HttpHeaders.CONTENT_ENCODING), origin, now,
+                freshUntil,
+                freshUntil + directives.staleWhileRevalidateSeconds() * 1000,
+                freshUntil + directives.staleIfErrorSeconds() * 1000));
+    }
+
+    private boolean isStorable(HttpHeaders headers) {
+        long contentLength = headers.getContentLength();
+        if (contentLength > properties.getMaxEntryBytes()) {
+            return false;
+        }
+        return CacheDirectives.parse(headers.getCacheControl(), properties).storable();
+    }
+
+    /**
+     * 请求是否接受 gzip（q=0 视为不接受）
+     */
+    private static boolean acceptsGzip(HttpHeaders headers) {
+        for (String value : headers.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                    return parts.length == 1 || !parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 请求的“路径+查询串”，用于缓存键和后台刷新地址
+     */
+    private static String target(ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        String path = request.getPath().pathWithinApplication().value();
+        return query == null ? path : path + "?" + query;
+    }
+
+    /**
+     * 后台刷新使用的下游地址：lb://service 换成 http://service，由负载均衡 WebClient 解析
+     */
+    private static URI originUri(ServerWebExchange exchange, String target) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return null;
+        }
+        URI uri = route.getUri();
+        String scheme = "lb".equals(uri.getScheme()) ? "http" : uri.getScheme();
+        String authority = uri.getRawAuthority();
+        return URI.create(scheme + "://" + authority + target);
+    }
+
+    @Override
+    public int getOrder() {
+        // 在JWT认证之后执行，且需早于写响应的 NettyWriteResponseFilter（-1）装饰响应
+        return -50;
+    }
+
+    /**
+     * 缓存的下游响应
+     */
+    private record CachedResponse(byte[] body, MediaType contentType, String etag, String contentEncoding, URI origin,
+                                  long storedAt, long freshUntil, long staleUntil, long errorUntil) {
+    }
+
+    /**
+     * 下游 Cache-Control 中与缓存相关的指令，缺省值取自配置
+     */
+    private record CacheDirectives(boolean storable, long maxAgeSeconds,
+                                   long staleWhileRevalidateSeconds, long staleIfErrorSeconds) {
+
+        static CacheDirectives parse(String cacheControl, ResponseCacheProperties defaults) {
+            boolean storable = true;
+            long maxAge = defaults.getTtlSeconds();
+            long staleWhileRevalidate = defaults.getStaleWhileRevalidateSeconds();
+            long staleIfError = defaults.getStaleIfErrorSeconds();
+            if (cacheControl != null) {
+                for (String directive : cacheControl.split(",")) {
+                    String name = directive.trim().toLowerCase();
+                    if (name.equals("no-store") || name.equals("private") || name.equals("no-cache")) {
+                        storable = false;
+                    } else if (name.startsWith("s-maxage=")) {
+                        maxAge = seconds(name, maxAge);
+                    } else if (name.startsWith("max-age=") && !cacheControl.contains("s-maxage=")) {
+                        maxAge = seconds(name, maxAge);
+                    } else if (name.startsWith("stale-while-revalidate=")) {
+                        staleWhileRevalidate = seconds(name, staleWhileRevalidate);
+                    } else if (name.startsWith("stale-if-error=")) {
+                        staleIfError = seconds(name, staleIfError);
+                    }
+                }
+            }
+            return new CacheDirectives(storable, maxAge, staleWhileRevalidate, staleIfError);
+        }
+
+        private static long seconds(String directive, long defaultValue) {
+            try {
+                return Math.max(0, Long.parseLong(directive.substring(directive.indexOf('=') + 1).trim()));
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.zjgsu.szw.coursecloud.gateway.filter;
+
+import com.zjgsu.szw.coursecloud.gateway.config.AuthProperties;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PatternParseException;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 认证白名单匹配器
+ *
+ * 白名单在首次使用时编译：不含通配符的路径放入哈希集合直接查找，
+ * 其余编译为 PathPattern，直接匹配请求已解析好的 PathContainer，不再逐个模式切分路径字符串。
+ * PathPattern 不支持的写法（如 ** 出现在中间）退回 AntPathMatcher，匹配语义与原实现一致。
+ *
+ * 配置刷新时 AuthProperties 会重新绑定出新的列表，匹配器发现列表对象变化后重新编译。
+ */
+@Component
+public class WhitelistMatcher {
+
+    private final AuthProperties authProperties;
+    private final PathPatternParser parser = new PathPatternParser();
+    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+    private volatile Compiled compiled;
+
+    public WhitelistMatcher(AuthProperties authProperties) {
+        this.authProperties = authProperties;
+        this.compiled = compile(authProperties.getWhitelist());
+    }
+
+    /**
+     * 判断请求路径是否在白名单中
+     */
+    public boolean matches(PathContainer path) {
+        Compiled current = currentWhitelist();
+        String value = path.value();
+        if (current.exactPaths.contains(value)) {
+            return true;
+        }
+        for (PathPattern pattern : current.patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        for (String pattern : current.antPatterns) {
+            if (antPathMatcher.match(pattern, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Compiled currentWhitelist() {
+        Compiled current = compiled;
+        List<String> whitelist = authProperties.getWhitelist();
+        if (current.source != whitelist) {
+            current = compile(whitelist);
+            compiled = current;
+        }
+        return current;
+    }
+
+    private Compiled compile(List<String> whitelist) {
+        Set<String> exactPaths = new HashSet<>();
+        List<PathPattern> patterns = new ArrayList<>();
+        List<String> antPatterns = new ArrayList<>();
+        for (String pattern : whitelist) {
+            if (!antPathMatcher.isPattern(pattern)) {
+                exactPaths.add(pattern);
+                continue;
+            }
+            try {
+                patterns.add(parser.parse(pattern));
+            } catch (PatternParseException e) {
+                antPatterns.add(pattern);
+            }
+        }
+        return new Compiled(whitelist, Set.copyOf(exactPaths), List.copyOf(patterns), List.copyOf(antPatterns));
+    }
+
+    /**
+     * 编译后的白名单，source 为编译时的配置列表
+     */
+    private record Compiled(List<String> source, Set<String> exactPaths,
+                            List<PathPattern> patterns, List<String> antPatterns) {
+    }
+}
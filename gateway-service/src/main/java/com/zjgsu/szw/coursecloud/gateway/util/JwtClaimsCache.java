@@ -0,0 +1,124 @@
+package com.zjgsu.szw.coursecloud.gateway.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.zjgsu.szw.coursecloud.gateway.config.JwtCacheProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已验签JWT声明缓存
+ *
+ * 同一会话的后续请求携带相同令牌，验签（HMAC-SHA512）和JSON解析只需做一次：
+ * 以令牌的SHA-256摘要为键缓存验签结果，条目在令牌的 exp 时刻过期，容量有界。
+ * 缓存中不保存令牌原文；验签失败的令牌不缓存。
+ */
+@Component
+public class JwtClaimsCache {
+
+    /**
+     * 令牌未携带 exp 时的缓存时间
+     */
+    private static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final JwtUtil jwtUtil;
+    private final JwtCacheProperties properties;
+    private final Cache<String, VerifiedClaims> cache;
+
+    public JwtClaimsCache(JwtUtil jwtUtil, JwtCacheProperties properties) {
+        this.jwtUtil = jwtUtil;
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfter(new Expiry<String, VerifiedClaims>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedClaims claims, long currentTime) {
+                        long remaining = claims.expiresAt() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remaining, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedClaims claims, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, claims, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedClaims claims, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 验证令牌并返回声明
+     *
+     * @throws JwtException             令牌无效或已过期
+     * @throws IllegalArgumentException 令牌为空
+     */
+    public VerifiedClaims verify(String token) {
+        if (!properties.isEnabled()) {
+            return parse(token);
+        }
+        String key = digest(token);
+        VerifiedClaims cached = cache.getIfPresent(key);
+        if (cached != null && !cached.isExpired(System.currentTimeMillis())) {
+            return cached;
+        }
+        VerifiedClaims claims = parse(token);
+        cache.put(key, claims);
+        return claims;
+    }
+
+    /**
+     * 缓存命中/未命中/淘汰统计
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", properties.isEnabled());
+        result.put("size", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    private VerifiedClaims parse(String token) {
+        Claims claims = jwtUtil.parseToken(token);
+        Date expiration = claims.getExpiration();
+        long expiresAt = expiration != null
+                ? expiration.getTime()
+                : System.currentTimeMillis() + DEFAULT_TTL_MILLIS;
+        return new VerifiedClaims(claims.getSubject(),
+                claims.get("username", String.class),
+                claims.get("role", String.class),
+                expiresAt);
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
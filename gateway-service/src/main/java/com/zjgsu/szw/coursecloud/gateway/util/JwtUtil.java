@@ -26,9 +26,17 @@ public class JwtUtil {
 
     private Key key;
 
+    /**
+     * 解析器不可变且线程安全，初始化时构建一次供所有请求复用
+     */
+    private JwtParser parser;
+
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
     }
 
     /**
@@ -60,11 +68,7 @@ public class JwtUtil {
      * @return Claims对象，包含令牌中的所有声明
      */
     public Claims parseToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     /**
@@ -75,10 +79,7 @@ public class JwtUtil {
      */
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
+            parser.parseClaimsJws(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
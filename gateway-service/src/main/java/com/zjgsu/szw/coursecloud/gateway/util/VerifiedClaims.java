@@ -0,0 +1,17 @@
+package com.zjgsu.szw.coursecloud.gateway.util;
+
+/**
+ * 已验签的JWT声明
+ * 只保留网关转发给下游服务所需的字段
+ *
+ * @param userId    用户ID（subject）
+ * @param username  用户名
+ * @param role      用户角色
+ * @param expiresAt 过期时间（毫秒时间戳）
+ */
+public record VerifiedClaims(String userId, String username, String role, long expiresAt) {
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+}
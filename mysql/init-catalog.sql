@@ -19,16 +19,49 @@ CREATE TABLE IF NOT EXISTS courses (
     day_of_week ENUM('MONDAY','TUESDAY','WEDNESDAY','THURSDAY','FRIDAY','SATURDAY','SUNDAY'),
     start_time VARCHAR(10),
     end_time VARCHAR(10),
+    -- start/end time as minutes of day, used by range queries together with day_of_week
+    start_minute INT,
+    end_minute INT,
     expected_attendance INT DEFAULT 0,
     capacity INT NOT NULL,
     enrolled INT DEFAULT 0,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    INDEX idx_day_start_minute (day_of_week, start_minute)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Course change log: one row per course change, written in the same transaction;
+-- the auto-increment id is the catalog version used for ETags
+CREATE TABLE IF NOT EXISTS course_change_log (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    course_id VARCHAR(36) NOT NULL,
+    changed_at DATETIME(6) NOT NULL,
+    change_type VARCHAR(16),
+    INDEX idx_change_course_id (course_id),
+    INDEX idx_change_changed_at (changed_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Enrolled delta batches already applied (dedupe for POST /api/courses/enrolled-deltas?batchId=)
+CREATE TABLE IF NOT EXISTS enrolled_delta_batches (
+    batch_id VARCHAR(64) PRIMARY KEY,
+    applied_at DATETIME(6) NOT NULL,
+    INDEX idx_delta_batch_applied_at (applied_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Seat reservations made with a reservationId (retry dedupe and reconciliation for POST /api/courses/{id}/reserve)
+CREATE TABLE IF NOT EXISTS seat_reservations (
+    reservation_id VARCHAR(64) PRIMARY KEY,
+    course_id VARCHAR(36) NOT NULL,
+    requested INT NOT NULL,
+    granted INT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    INDEX idx_seat_reservation_created_at (created_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- Insert sample courses
-INSERT INTO courses (id, code, title, instructor_id, instructor_name, instructor_email, day_of_week, start_time, end_time, expected_attendance, capacity, enrolled)
+INSERT INTO courses (id, code, title, instructor_id, instructor_name, instructor_email, day_of_week, start_time, end_time, start_minute, end_minute, expected_attendance, capacity, enrolled)
 VALUES
-  ('course-uuid-001', 'CS101', '数据结构与算法', 'instructor-001', '张教授', 'zhang@zjgsu.edu.cn', 'MONDAY', '08:00', '10:00', 50, 60, 5),
-  ('course-uuid-002', 'CS102', '操作系统原理', 'instructor-002', '李教授', 'li@zjgsu.edu.cn', 'TUESDAY', '10:00', '12:00', 45, 50, 2),
-  ('course-uuid-003', 'CS201', '计算机网络', 'instructor-003', '王老师', 'wang@zjgsu.edu.cn', 'WEDNESDAY', '14:00', '16:00', 40, 55, 1)
+  ('course-uuid-001', 'CS101', '数据结构与算法', 'instructor-001', '张教授', 'zhang@zjgsu.edu.cn', 'MONDAY', '08:00', '10:00', 480, 600, 50, 60, 5),
+  ('course-uuid-002', 'CS102', '操作系统原理', 'instructor-002', '李教授', 'li@zjgsu.edu.cn', 'TUESDAY', '10:00', '12:00', 600, 720, 45, 50, 2),
+  ('course-uuid-003', 'CS201', '计算机网络', 'instructor-003', '王老师', 'wang@zjgsu.edu.cn', 'WEDNESDAY', '14:00', '16:00', 840, 960, 40, 55, 1)
 ON DUPLICATE KEY UPDATE title=VALUES(title), instructor_name=VALUES(instructor_name), capacity=VALUES(capacity), enrolled=VALUES(enrolled);
@@ -18,6 +18,43 @@ CREATE TABLE IF NOT EXISTS enrollments (
     UNIQUE KEY uk_course_student (course_id, student_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- Course counter outbox (enrolled deltas relayed to catalog-service)
+CREATE TABLE IF NOT EXISTS course_counter_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    course_id VARCHAR(36) NOT NULL,
+    delta INT NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    last_error VARCHAR(500),
+    batch_id VARCHAR(36),
+    INDEX idx_outbox_next_attempt (next_attempt_at),
+    INDEX idx_outbox_batch_id (batch_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Seat reservation intents: written before reserving seats in catalog-service and deleted
+-- together with the enrollment rows; leftovers are reconciled against catalog's seat_reservations
+CREATE TABLE IF NOT EXISTS seat_reservation_intents (
+    reservation_id VARCHAR(36) PRIMARY KEY,
+    course_id VARCHAR(36) NOT NULL,
+    seats INT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    INDEX idx_reservation_intent_created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Idempotency keys for POST /api/enrollments
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idem_key VARCHAR(128) PRIMARY KEY,
+    student_id VARCHAR(50) NOT NULL,
+    course_id VARCHAR(36) NOT NULL,
+    enrollment_id VARCHAR(36),
+    enrolled_at DATETIME(6),
+    status VARCHAR(20),
+    state VARCHAR(20),
+    expires_at DATETIME(6) NOT NULL,
+    INDEX idx_idempotency_expires_at (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- Sample enrollments
 INSERT INTO enrollments (id, course_id, student_id, status) VALUES
     ('enrollment-001', 'course-uuid-001', '2024001', 'ACTIVE'),
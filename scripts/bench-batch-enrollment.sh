@@ -0,0 +1,126 @@
+#!/bin/bash
+
+# ============================================================
+# 批量选课压测脚本
+# 创建若干学生与课程后，一次 POST /api/enrollments/batch 提交全部组合，统计耗时与逐条结果
+#
+# 用法:
+#   ./bench-batch-enrollment.sh [学生数] [课程数]
+#   默认 2000 名学生 x 5 门课程 = 10000 条
+# ============================================================
+
+# 颜色定义
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+CYAN='\033[0;36m'
+NC='\033[0m' # No Color
+
+STUDENTS=${1:-2000}
+COURSES=${2:-5}
+
+# 动态获取服务端口的函数
+get_service_port() {
+    local service=$1
+    local internal_port=$2
+    local default_port=$3
+    local port=$(docker compose ps --format "table {{.Names}}\t{{.Ports}}" 2>/dev/null | \
+        grep "$service" | \
+        grep -oE "0\.0\.0\.0:[0-9]+->${internal_port}/tcp" | \
+        head -1 | \
+        sed 's/0\.0\.0\.0:\([0-9]*\)->.*/\1/')
+    echo "${port:-$default_port}"
+}
+
+USER_PORT=$(get_service_port "user-service" "8080" "8079")
+CATALOG_PORT=$(get_service_port "catalog-service" "8081" "8081")
+ENROLLMENT_PORT=$(get_service_port "enrollment-service" "8082" "8085")
+USER_SERVICE=${USER_SERVICE:-"http://localhost:$USER_PORT"}
+CATALOG_SERVICE=${CATALOG_SERVICE:-"http://localhost:$CATALOG_PORT"}
+ENROLLMENT_SERVICE=${ENROLLMENT_SERVICE:-"http://localhost:$ENROLLMENT_PORT"}
+
+print_separator() {
+    echo -e "${BLUE}============================================================${NC}"
+}
+
+print_title() {
+    print_separator
+    echo -e "${CYAN}$1${NC}"
+    print_separator
+}
+
+print_info() {
+    echo -e "${YELLOW}→${NC} $1"
+}
+
+print_title "批量选课压测 ($ENROLLMENT_SERVICE)"
+
+RUN_ID=$(date +%s)
+
+print_info "创建 $COURSES 门课程..."
+COURSE_IDS=()
+for c in $(seq "$COURSES"); do
+    response=$(curl -s -X POST "$CATALOG_SERVICE/api/courses" \
+        -H "Content-Type: application/json" \
+        -d "{
+            \"code\": \"BATCH-$RUN_ID-$c\",
+            \"title\": \"批量压测课程$c\",
+            \"instructor\": {\"id\": \"bench-instructor\", \"name\": \"压测\", \"email\": \"bench@zjgsu.edu.cn\"},
+            \"schedule\": {\"dayOfWeek\": \"SATURDAY\", \"startTime\": \"08:00\", \"endTime\": \"10:00\"},
+            \"capacity\": $STUDENTS
+        }")
+    course_id=$(echo "$response" | grep -o '"id":"[^"]*"' | head -1 | cut -d'"' -f4)
+    if [ -z "$course_id" ]; then
+        echo -e "${RED}创建课程失败:${NC} $response"
+        exit 1
+    fi
+    COURSE_IDS+=("$course_id")
+done
+
+print_info "创建 $STUDENTS 名学生..."
+seq "$STUDENTS" | xargs -P 20 -I{} \
+    curl -s -o /dev/null -X POST "$USER_SERVICE/api/users" \
+        -H "Content-Type: application/json" \
+        -d "{\"studentId\": \"M$RUN_ID-{}\", \"name\": \"批量学生{}\", \"major\": \"压测\", \"grade\": 2024, \"email\": \"m$RUN_ID-{}@zjgsu.edu.cn\"}"
+
+# 生成请求体
+payload=$(mktemp)
+{
+    echo '{"items":['
+    first=1
+    for course_id in "${COURSE_IDS[@]}"; do
+        for s in $(seq "$STUDENTS"); do
+            [ $first -eq 1 ] && first=0 || echo ','
+            echo "{\"studentId\":\"M$RUN_ID-$s\",\"courseId\":\"$course_id\"}"
+        done
+    done
+    echo ']}'
+} > "$payload"
+
+TOTAL=$((STUDENTS * COURSES))
+print_info "提交批量选课: $TOTAL 条"
+echo ""
+
+response=$(curl -s -w "\n%{time_total}" -X POST "$ENROLLMENT_SERVICE/api/enrollments/batch" \
+    -H "Content-Type: application/json" \
+    --data-binary "@$payload")
+rm -f "$payload"
+
+elapsed=$(echo "$response" | tail -n 1)
+body=$(echo "$response" | sed '$d')
+succeeded=$(echo "$body" | grep -o '"succeeded":[0-9]*' | head -1 | cut -d: -f2)
+failed=$(echo "$body" | grep -o '"failed":[0-9]*' | head -1 | cut -d: -f2)
+
+echo "  请求耗时: ${elapsed}s"
+echo "  成功: ${succeeded:-?}  失败: ${failed:-?}"
+echo "$body" | grep -o '"status":"[A-Z_]*"' | sort | uniq -c | sed 's/^/  /'
+echo ""
+
+if [ "$succeeded" = "$TOTAL" ]; then
+    echo -e "${GREEN}✓${NC} 全部 $TOTAL 条选课成功"
+else
+    echo -e "${RED}✗${NC} 期望成功 $TOTAL 条，实际 ${succeeded:-0} 条"
+fi
+
+print_info "压测数据保留在数据库中，可用 scripts/cleanup-test-data.sh 清理"
@@ -0,0 +1,172 @@
+#!/bin/bash
+
+# ============================================================
+# 课程分面筛选压测脚本
+# 向 catalog_db 直接导入大量合成课程，重建分面索引后测量各种条件组合的查询耗时，
+# 并与 MySQL 上等价的 WHERE + GROUP BY 查询对比
+# 合成课程绕过了变更日志，只有被调用 rebuild 的实例（CATALOG_SERVICE）会看到它们
+#
+# 用法:
+#   ./bench-course-facets.sh [合成课程数] [每种查询的次数]
+#   ./bench-course-facets.sh cleanup      # 删除合成课程并重建索引
+# ============================================================
+
+# 颜色定义
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+CYAN='\033[0;36m'
+NC='\033[0m' # No Color
+
+COURSES=${1:-100000}
+REPEAT=${2:-200}
+
+CATALOG_CONTAINER="mysql-catalog"
+MYSQL_USER="root"
+MYSQL_PASSWORD="password"
+
+# 动态获取服务端口的函数
+get_service_port() {
+    local service=$1
+    local internal_port=$2
+    local default_port=$3
+    local port=$(docker compose ps --format "table {{.Names}}\t{{.Ports}}" 2>/dev/null | \
+        grep "$service" | \
+        grep -oE "0\.0\.0\.0:[0-9]+->${internal_port}/tcp" | \
+        head -1 | \
+        sed 's/0\.0\.0\.0:\([0-9]*\)->.*/\1/')
+    echo "${port:-$default_port}"
+}
+
+CATALOG_PORT=$(get_service_port "catalog-service" "8081" "8081")
+CATALOG_SERVICE=${CATALOG_SERVICE:-"http://localhost:$CATALOG_PORT"}
+
+print_separator() {
+    echo -e "${BLUE}============================================================${NC}"
+}
+
+print_title() {
+    print_separator
+    echo -e "${CYAN}$1${NC}"
+    print_separator
+}
+
+print_info() {
+    echo -e "${YELLOW}→${NC} $1"
+}
+
+mysql_exec() {
+    docker exec -i "$CATALOG_CONTAINER" mysql -u"$MYSQL_USER" -p"$MYSQL_PASSWORD" -N catalog_db 2>/dev/null
+}
+
+rebuild_index() {
+    print_info "重建分面索引: $(curl -s -X POST "$CATALOG_SERVICE/api/courses/facets/rebuild" | grep -o '"data":{[^}]*}')"
+}
+
+if ! docker ps --format '{{.Names}}' | grep -q "^${CATALOG_CONTAINER}$"; then
+    echo -e "${RED}容器 $CATALOG_CONTAINER 未运行${NC}"
+    exit 1
+fi
+
+if [ "$1" = "cleanup" ]; then
+    print_title "清理合成课程"
+    echo "DELETE FROM courses WHERE id LIKE 'fb-%';" | mysql_exec
+    rebuild_index
+    exit 0
+fi
+
+print_title "课程分面筛选压测 ($CATALOG_SERVICE, $COURSES 门合成课程)"
+
+# 1. 导入合成课程：2000 位讲师，星期/开始时间/容量/已选人数按序号散列
+RUN_ID=$(date +%s)
+print_info "导入 $COURSES 门合成课程..."
+start=$(date +%s.%N)
+mysql_exec <<SQL
+SET SESSION cte_max_recursion_depth = $((COURSES + 1));
+INSERT INTO courses (id, code, title, instructor_id, instructor_name, instructor_email,
+                     day_of_week, start_time, end_time, start_minute, end_minute,
+                     expected_attendance, capacity, enrolled)
+WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < $COURSES)
+SELECT CONCAT('fb-$RUN_ID-', n),
+       CONCAT('FB$RUN_ID-', LPAD(n, 6, '0')),
+       CONCAT('合成课程 ', n),
+       CONCAT('fb-ins-', n % 2000),
+       CONCAT('合成讲师', n % 2000),
+       NULL,
+       ELT(1 + n % 7, 'MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY', 'SUNDAY'),
+       DATE_FORMAT(SEC_TO_TIME((420 + (n * 37) % 168 * 5) * 60), '%H:%i'),
+       DATE_FORMAT(SEC_TO_TIME((510 + (n * 37) % 168 * 5) * 60), '%H:%i'),
+       420 + (n * 37) % 168 * 5,
+       510 + (n * 37) % 168 * 5,
+       0,
+       20 + n % 181,
+       (n * 7919) % (21 + n % 181)
+FROM seq;
+SQL
+end=$(date +%s.%N)
+print_info "导入完成，耗时 $(echo "$end - $start" | bc)s，课程总数 $(echo "SELECT COUNT(*) FROM courses;" | mysql_exec)"
+rebuild_index
+echo ""
+
+# 2. 各条件组合：分面索引（服务端耗时取自 tookMicros，客户端耗时含 HTTP）
+QUERIES=(
+    ""
+    "days=MONDAY,FRIDAY"
+    "from=08:00&to=10:30"
+    "instructorIds=fb-ins-7,fb-ins-42,fb-ins-1999"
+    "minFill=50&maxFill=90"
+    "days=TUESDAY&from=13:00&to=17:00&minFill=0&maxFill=80"
+    "days=MONDAY,WEDNESDAY,FRIDAY&from=08:07&to=11:52&instructorIds=fb-ins-7,fb-ins-14&maxFill=99"
+)
+
+run_query() {
+    local query=$1
+    local result_file=$(mktemp)
+    for i in $(seq "$REPEAT"); do
+        curl -s -w " %{time_total}\n" "$CATALOG_SERVICE/api/courses/facets?limit=20&$query" | \
+            sed -n 's/.*"total":\([0-9]*\),"tookMicros":\([0-9]*\).* \([0-9.]*\)$/\1 \2 \3/p' >> "$result_file"
+    done
+    sort -k2 -n "$result_file" | awk -v q="${query:-(不限)}" '
+        { total = $1; took[NR] = $2; sum += $2; client += $3 }
+        END {
+            if (NR == 0) { printf "  %-80s 无结果\n", q; exit }
+            p50 = took[int(NR * 0.50) > 0 ? int(NR * 0.50) : 1]
+            p99 = took[int(NR * 0.99) > 0 ? int(NR * 0.99) : 1]
+            printf "  %-80s 匹配 %6d  索引 avg %5.0fus p50 %5dus p99 %5dus  HTTP avg %.1fms\n",
+                q, total, sum / NR, p50, p99, client / NR * 1000
+        }'
+    rm -f "$result_file"
+}
+
+print_title "分面索引查询（每种 $REPEAT 次，含全部分面计数）"
+for query in "${QUERIES[@]}"; do
+    run_query "$query"
+done
+echo ""
+
+# 3. MySQL 对比：相同条件的结果计数加一个分面（按星期）的计数
+print_title "MySQL 等价查询（COUNT + 按星期 GROUP BY，各 10 次取平均）"
+sql_bench() {
+    local label=$1
+    local where=$2
+    local avg=$(mysql_exec <<SQL
+SET @t = NOW(6);
+$(for i in $(seq 10); do
+    echo "SELECT COUNT(*) INTO @c FROM courses WHERE $where;"
+    echo "SELECT COUNT(*) INTO @d FROM (SELECT day_of_week, COUNT(*) FROM courses WHERE $where GROUP BY day_of_week) t;"
+done)
+SELECT TIMESTAMPDIFF(MICROSECOND, @t, NOW(6)) DIV 10;
+SQL
+)
+    printf "  %-80s %8sus\n" "$label" "$avg"
+}
+sql_bench "days=MONDAY,FRIDAY" "day_of_week IN ('MONDAY','FRIDAY')"
+sql_bench "from=08:00&to=10:30" "start_minute >= 480 AND start_minute < 630"
+sql_bench "minFill=50&maxFill=90" "enrolled * 100 >= capacity * 50 AND enrolled * 100 < capacity * 91"
+sql_bench "days=TUESDAY&from=13:00&to=17:00&maxFill=80" \
+    "day_of_week = 'TUESDAY' AND start_minute >= 780 AND start_minute < 1020 AND enrolled * 100 < capacity * 81"
+echo ""
+
+print_info "分面索引状态: $(curl -s "$CATALOG_SERVICE/api/courses/facets/stats" | grep -o '"data":{[^}]*}')"
+echo -e "${GREEN}✓${NC} 压测完成。合成课程保留在数据库中，可用 ./bench-course-facets.sh cleanup 删除"
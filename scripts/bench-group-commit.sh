@@ -0,0 +1,129 @@
+#!/bin/bash
+
+# ============================================================
+# 热点课程选课压测脚本
+# 大量学生同时选同一门课，观察组提交的批大小与吞吐
+#
+# 用法:
+#   ./bench-group-commit.sh [学生数] [并发数] [课程容量]
+#
+# 对比方法:
+#   1. GROUP_COMMIT_ENABLED=false 启动 enrollment-service，运行本脚本（逐条提交）
+#   2. GROUP_COMMIT_ENABLED=true  重启 enrollment-service，再运行本脚本（组提交）
+# ============================================================
+
+# 颜色定义
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+CYAN='\033[0;36m'
+NC='\033[0m' # No Color
+
+STUDENTS=${1:-1000}
+CONCURRENCY=${2:-100}
+CAPACITY=${3:-$STUDENTS}
+
+# 动态获取服务端口的函数
+get_service_port() {
+    local service=$1
+    local internal_port=$2
+    local default_port=$3
+    local port=$(docker compose ps --format "table {{.Names}}\t{{.Ports}}" 2>/dev/null | \
+        grep "$service" | \
+        grep -oE "0\.0\.0\.0:[0-9]+->${internal_port}/tcp" | \
+        head -1 | \
+        sed 's/0\.0\.0\.0:\([0-9]*\)->.*/\1/')
+    echo "${port:-$default_port}"
+}
+
+USER_PORT=$(get_service_port "user-service" "8080" "8079")
+CATALOG_PORT=$(get_service_port "catalog-service" "8081" "8081")
+ENROLLMENT_PORT=$(get_service_port "enrollment-service" "8082" "8085")
+USER_SERVICE=${USER_SERVICE:-"http://localhost:$USER_PORT"}
+CATALOG_SERVICE=${CATALOG_SERVICE:-"http://localhost:$CATALOG_PORT"}
+ENROLLMENT_SERVICE=${ENROLLMENT_SERVICE:-"http://localhost:$ENROLLMENT_PORT"}
+
+print_separator() {
+    echo -e "${BLUE}============================================================${NC}"
+}
+
+print_title() {
+    print_separator
+    echo -e "${CYAN}$1${NC}"
+    print_separator
+}
+
+print_info() {
+    echo -e "${YELLOW}→${NC} $1"
+}
+
+print_title "热点课程选课压测 ($ENROLLMENT_SERVICE)"
+
+RUN_ID=$(date +%s)
+CODE="HOT-$RUN_ID"
+create_response=$(curl -s -X POST "$CATALOG_SERVICE/api/courses" \
+    -H "Content-Type: application/json" \
+    -d "{
+        \"code\": \"$CODE\",
+        \"title\": \"热点压测课程\",
+        \"instructor\": {\"id\": \"bench-instructor\", \"name\": \"压测\", \"email\": \"bench@zjgsu.edu.cn\"},
+        \"schedule\": {\"dayOfWeek\": \"SATURDAY\", \"startTime\": \"08:00\", \"endTime\": \"10:00\"},
+        \"capacity\": $CAPACITY
+    }")
+COURSE_ID=$(echo "$create_response" | grep -o '"id":"[^"]*"' | head -1 | cut -d'"' -f4)
+if [ -z "$COURSE_ID" ]; then
+    echo -e "${RED}创建压测课程失败:${NC} $create_response"
+    exit 1
+fi
+print_info "压测课程: $CODE ($COURSE_ID), 容量 $CAPACITY"
+
+print_info "创建 $STUDENTS 名压测学生..."
+seq "$STUDENTS" | xargs -P 20 -I{} \
+    curl -s -o /dev/null -X POST "$USER_SERVICE/api/users" \
+        -H "Content-Type: application/json" \
+        -d "{\"studentId\": \"B$RUN_ID-{}\", \"name\": \"压测学生{}\", \"major\": \"压测\", \"grade\": 2024, \"email\": \"b$RUN_ID-{}@zjgsu.edu.cn\"}"
+
+stats_before=$(curl -s "$ENROLLMENT_SERVICE/api/enrollments/stats/group-commit")
+if echo "$stats_before" | grep -q '"enabled":true'; then
+    print_info "当前模式: 组提交"
+else
+    print_info "当前模式: 逐条提交"
+fi
+echo ""
+
+# 所有学生并发选同一门课
+status_file=$(mktemp)
+print_info "并发选课: $STUDENTS 个请求, 并发 $CONCURRENCY"
+start=$(date +%s.%N)
+seq "$STUDENTS" | xargs -P "$CONCURRENCY" -I{} \
+    curl -s -o /dev/null -w "%{http_code} %{time_total}\n" -X POST "$ENROLLMENT_SERVICE/api/enrollments" \
+        -H "Content-Type: application/json" \
+        -d "{\"courseId\": \"$COURSE_ID\", \"studentId\": \"B$RUN_ID-{}\"}" >> "$status_file"
+end=$(date +%s.%N)
+
+sort -k2 -n "$status_file" | awk -v total="$(echo "$end - $start" | bc)" '
+    { t[NR] = $2; codes[$1]++ }
+    END {
+        p50 = t[int(NR * 0.50) > 0 ? int(NR * 0.50) : 1]
+        p99 = t[int(NR * 0.99) > 0 ? int(NR * 0.99) : 1]
+        printf "  耗时 %.2fs  吞吐 %.0f req/s  p50 %.1fms  p99 %.1fms\n", total, NR / total, p50 * 1000, p99 * 1000
+        for (c in codes) printf "  HTTP %s: %d\n", c, codes[c]
+    }'
+rm -f "$status_file"
+echo ""
+
+print_info "组提交统计: $(curl -s "$ENROLLMENT_SERVICE/api/enrollments/stats/group-commit" | grep -o '"data":{[^}]*}')"
+
+# 核对已选人数与选课记录数
+sleep 1
+enrolled=$(curl -s "$CATALOG_SERVICE/api/courses/$COURSE_ID" | grep -o '"enrolled":[0-9]*' | cut -d: -f2)
+records=$(curl -s "$ENROLLMENT_SERVICE/api/enrollments/course/$COURSE_ID" | grep -o '"studentId"' | wc -l)
+expected=$(( STUDENTS < CAPACITY ? STUDENTS : CAPACITY ))
+if [ "$enrolled" = "$expected" ] && [ "$records" = "$expected" ]; then
+    echo -e "${GREEN}✓${NC} 已选人数与选课记录一致: $enrolled"
+else
+    echo -e "${RED}✗${NC} 不一致: 期望 $expected, 课程已选 $enrolled, 选课记录 $records"
+fi
+
+print_info "压测数据保留在数据库中，可用 scripts/cleanup-test-data.sh 清理"
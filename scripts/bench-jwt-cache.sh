@@ -0,0 +1,97 @@
+#!/bin/bash
+
+# ============================================================
+# 网关JWT声明缓存压测脚本
+# 同一令牌反复请求，统计网关进程每个请求消耗的CPU时间
+#
+# 用法:
+#   ./bench-jwt-cache.sh [请求数] [并发数]
+#
+# 对比方法:
+#   1. JWT_CLAIMS_CACHE_ENABLED=false 启动 gateway-service，运行本脚本（每个请求验签+解析）
+#   2. JWT_CLAIMS_CACHE_ENABLED=true  重启 gateway-service，再运行本脚本（命中缓存）
+# ============================================================
+
+# 颜色定义
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+CYAN='\033[0;36m'
+NC='\033[0m' # No Color
+
+REQUESTS=${1:-20000}
+CONCURRENCY=${2:-50}
+GATEWAY_URL=${GATEWAY_URL:-"http://localhost:8090"}
+GATEWAY_CONTAINER=${GATEWAY_CONTAINER:-"gateway-service"}
+
+print_separator() {
+    echo -e "${BLUE}============================================================${NC}"
+}
+
+print_title() {
+    print_separator
+    echo -e "${CYAN}$1${NC}"
+    print_separator
+}
+
+print_info() {
+    echo -e "${YELLOW}→${NC} $1"
+}
+
+# 网关进程累计CPU时间（毫秒，用户态+内核态）
+gateway_cpu_ms() {
+    docker exec "$GATEWAY_CONTAINER" sh -c 'cat /proc/1/stat' 2>/dev/null | \
+        awk -v hz="$(getconf CLK_TCK)" '{ printf "%d", ($14 + $15) * 1000 / hz }'
+}
+
+print_title "网关JWT声明缓存压测 ($GATEWAY_URL)"
+
+login_response=$(curl -s -X POST "$GATEWAY_URL/api/auth/login" \
+    -H "Content-Type: application/json" \
+    -d '{"username":"student1","password":"123456"}')
+TOKEN=$(echo "$login_response" | grep -o '"token":"[^"]*"' | cut -d'"' -f4)
+if [ -z "$TOKEN" ]; then
+    echo -e "${RED}登录失败:${NC} $login_response"
+    exit 1
+fi
+print_info "已登录 student1"
+
+if curl -s "$GATEWAY_URL/api/auth/token-cache/stats" | grep -q '"enabled":true'; then
+    print_info "当前模式: 声明缓存"
+else
+    print_info "当前模式: 每个请求验签"
+fi
+
+# 预热（JIT、连接池）
+seq 2000 | xargs -P "$CONCURRENCY" -I{} \
+    curl -s -o /dev/null "$GATEWAY_URL/api/courses/port" -H "Authorization: Bearer $TOKEN"
+
+cpu_before=$(gateway_cpu_ms)
+status_file=$(mktemp)
+print_info "压测: $REQUESTS 个请求, 并发 $CONCURRENCY"
+start=$(date +%s.%N)
+seq "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} \
+    curl -s -o /dev/null -w "%{http_code} %{time_total}\n" "$GATEWAY_URL/api/courses/port" \
+        -H "Authorization: Bearer $TOKEN" >> "$status_file"
+end=$(date +%s.%N)
+cpu_after=$(gateway_cpu_ms)
+
+sort -k2 -n "$status_file" | awk -v total="$(echo "$end - $start" | bc)" '
+    { t[NR] = $2; codes[$1]++ }
+    END {
+        p50 = t[int(NR * 0.50) > 0 ? int(NR * 0.50) : 1]
+        p99 = t[int(NR * 0.99) > 0 ? int(NR * 0.99) : 1]
+        printf "  耗时 %.2fs  吞吐 %.0f req/s  p50 %.1fms  p99 %.1fms\n", total, NR / total, p50 * 1000, p99 * 1000
+        for (c in codes) printf "  HTTP %s: %d\n", c, codes[c]
+    }'
+rm -f "$status_file"
+
+if [ -n "$cpu_before" ] && [ -n "$cpu_after" ]; then
+    cpu_ms=$(( cpu_after - cpu_before ))
+    echo -e "${GREEN}✓${NC} 网关CPU时间 ${cpu_ms}ms, 每请求 $(echo "scale=1; $cpu_ms * 1000 / $REQUESTS" | bc)µs"
+else
+    echo -e "${YELLOW}!${NC} 无法读取网关容器的CPU时间（容器名: $GATEWAY_CONTAINER）"
+fi
+
+print_info "缓存统计: $(curl -s "$GATEWAY_URL/api/auth/token-cache/stats" | grep -o '"data":{[^}]*}')"
@@ -0,0 +1,125 @@
+#!/bin/bash
+
+# ============================================================
+# 座位写入压测脚本
+# 对比 incrementEnrolled（数据库行锁）与 reserve（座位账本）两条路径
+#
+# 用法:
+#   ./bench-seat-ledger.sh [请求数] [并发数]
+#
+# 对比方法:
+#   1. SEAT_LEDGER_ENABLED=false 启动 catalog-service，运行本脚本（数据库路径）
+#   2. SEAT_LEDGER_ENABLED=true  重启 catalog-service，再运行本脚本（账本路径）
+# ============================================================
+
+# 颜色定义
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+CYAN='\033[0;36m'
+NC='\033[0m' # No Color
+
+REQUESTS=${1:-2000}
+CONCURRENCY=${2:-50}
+
+# 动态获取服务端口的函数
+get_service_port() {
+    local service=$1
+    local internal_port=$2
+    local default_port=$3
+    local port=$(docker compose ps --format "table {{.Names}}\t{{.Ports}}" 2>/dev/null | \
+        grep "$service" | \
+        grep -oE "0\.0\.0\.0:[0-9]+->${internal_port}/tcp" | \
+        head -1 | \
+        sed 's/0\.0\.0\.0:\([0-9]*\)->.*/\1/')
+    echo "${port:-$default_port}"
+}
+
+CATALOG_PORT=$(get_service_port "catalog-service" "8081" "8081")
+CATALOG_SERVICE=${CATALOG_SERVICE:-"http://localhost:$CATALOG_PORT"}
+
+print_separator() {
+    echo -e "${BLUE}============================================================${NC}"
+}
+
+print_title() {
+    print_separator
+    echo -e "${CYAN}$1${NC}"
+    print_separator
+}
+
+print_info() {
+    echo -e "${YELLOW}→${NC} $1"
+}
+
+# 并发请求指定路径，输出吞吐量与延迟分位数
+run_bench() {
+    local label=$1
+    local path=$2
+    local latency_file
+    latency_file=$(mktemp)
+
+    print_info "$label: $REQUESTS 个请求, 并发 $CONCURRENCY"
+    local start end
+    start=$(date +%s.%N)
+    seq "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} \
+        curl -s -o /dev/null -w "%{time_total}\n" -X POST "$CATALOG_SERVICE$path" >> "$latency_file"
+    end=$(date +%s.%N)
+
+    sort -n "$latency_file" | awk -v total="$(echo "$end - $start" | bc)" -v label="$label" '
+        { t[NR] = $1 }
+        END {
+            p50 = t[int(NR * 0.50) > 0 ? int(NR * 0.50) : 1]
+            p99 = t[int(NR * 0.99) > 0 ? int(NR * 0.99) : 1]
+            printf "  %-28s 耗时 %.2fs  吞吐 %.0f req/s  p50 %.1fms  p99 %.1fms\n",
+                label, total, NR / total, p50 * 1000, p99 * 1000
+        }'
+    rm -f "$latency_file"
+}
+
+print_title "座位写入压测 ($CATALOG_SERVICE)"
+
+ledger_stats=$(curl -s "$CATALOG_SERVICE/api/courses/seat-ledger/stats")
+if echo "$ledger_stats" | grep -q '"enabled":true'; then
+    print_info "当前模式: 座位账本（内存计数 + 批量回写）"
+else
+    print_info "当前模式: 数据库条件更新"
+fi
+
+# 创建容量足够大的压测课程
+CODE="BENCH-$(date +%s)"
+create_response=$(curl -s -X POST "$CATALOG_SERVICE/api/courses" \
+    -H "Content-Type: application/json" \
+    -d "{
+        \"code\": \"$CODE\",
+        \"title\": \"座位压测课程\",
+        \"instructor\": {\"id\": \"bench-instructor\", \"name\": \"压测\", \"email\": \"bench@zjgsu.edu.cn\"},
+        \"schedule\": {\"dayOfWeek\": \"SATURDAY\", \"startTime\": \"08:00\", \"endTime\": \"10:00\"},
+        \"capacity\": $((REQUESTS * 3))
+    }")
+COURSE_ID=$(echo "$create_response" | grep -o '"id":"[^"]*"' | head -1 | cut -d'"' -f4)
+
+if [ -z "$COURSE_ID" ]; then
+    echo -e "${RED}创建压测课程失败:${NC} $create_response"
+    exit 1
+fi
+print_info "压测课程: $CODE ($COURSE_ID)"
+echo ""
+
+run_bench "POST /{id}/increment" "/api/courses/$COURSE_ID/increment"
+run_bench "POST /{id}/reserve" "/api/courses/$COURSE_ID/reserve"
+echo ""
+
+# 等待账本回写后核对已选人数
+sleep 1
+enrolled=$(curl -s "$CATALOG_SERVICE/api/courses/$COURSE_ID" | grep -o '"enrolled":[0-9]*' | cut -d: -f2)
+expected=$((REQUESTS * 2))
+if [ "$enrolled" = "$expected" ]; then
+    echo -e "${GREEN}✓${NC} 已选人数一致: $enrolled"
+else
+    echo -e "${RED}✗${NC} 已选人数不一致: 期望 $expected, 实际 $enrolled"
+fi
+
+curl -s -X DELETE "$CATALOG_SERVICE/api/courses/$COURSE_ID" > /dev/null
+print_info "已删除压测课程"
@@ -0,0 +1,136 @@
+#!/bin/bash
+
+# ============================================================
+# 虚拟线程选课压测脚本
+# 以远高于 Tomcat 默认线程池（200）的并发提交选课，观察在途请求峰值与延迟
+#
+# 用法:
+#   ./bench-virtual-threads.sh [学生数] [并发数] [课程数]
+#
+# 对比方法:
+#   1. VIRTUAL_THREADS_ENABLED=false 启动三个服务，运行本脚本（平台线程池）
+#   2. VIRTUAL_THREADS_ENABLED=true  重启三个服务，再运行本脚本（虚拟线程）
+#   在途峰值为服务启动以来的最大值，每次对比前请重启 enrollment-service
+# ============================================================
+
+# 颜色定义
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+CYAN='\033[0;36m'
+NC='\033[0m' # No Color
+
+STUDENTS=${1:-4000}
+CONCURRENCY=${2:-1000}
+COURSES=${3:-20}
+
+# 动态获取服务端口的函数
+get_service_port() {
+    local service=$1
+    local internal_port=$2
+    local default_port=$3
+    local port=$(docker compose ps --format "table {{.Names}}\t{{.Ports}}" 2>/dev/null | \
+        grep "$service" | \
+        grep -oE "0\.0\.0\.0:[0-9]+->${internal_port}/tcp" | \
+        head -1 | \
+        sed 's/0\.0\.0\.0:\([0-9]*\)->.*/\1/')
+    echo "${port:-$default_port}"
+}
+
+USER_PORT=$(get_service_port "user-service" "8080" "8079")
+CATALOG_PORT=$(get_service_port "catalog-service" "8081" "8081")
+ENROLLMENT_PORT=$(get_service_port "enrollment-service" "8082" "8085")
+USER_SERVICE=${USER_SERVICE:-"http://localhost:$USER_PORT"}
+CATALOG_SERVICE=${CATALOG_SERVICE:-"http://localhost:$CATALOG_PORT"}
+ENROLLMENT_SERVICE=${ENROLLMENT_SERVICE:-"http://localhost:$ENROLLMENT_PORT"}
+
+print_separator() {
+    echo -e "${BLUE}============================================================${NC}"
+}
+
+print_title() {
+    print_separator
+    echo -e "${CYAN}$1${NC}"
+    print_separator
+}
+
+print_info() {
+    echo -e "${YELLOW}→${NC} $1"
+}
+
+print_title "虚拟线程选课压测 ($ENROLLMENT_SERVICE)"
+
+RUN_ID=$(date +%s)
+CAPACITY=$(( STUDENTS / COURSES + 1 ))
+COURSE_IDS=()
+print_info "创建 $COURSES 门压测课程, 每门容量 $CAPACITY..."
+for i in $(seq "$COURSES"); do
+    create_response=$(curl -s -X POST "$CATALOG_SERVICE/api/courses" \
+        -H "Content-Type: application/json" \
+        -d "{
+            \"code\": \"VT-$RUN_ID-$i\",
+            \"title\": \"虚拟线程压测课程$i\",
+            \"instructor\": {\"id\": \"bench-instructor\", \"name\": \"压测\", \"email\": \"bench@zjgsu.edu.cn\"},
+            \"schedule\": {\"dayOfWeek\": \"SUNDAY\", \"startTime\": \"08:00\", \"endTime\": \"10:00\"},
+            \"capacity\": $CAPACITY
+        }")
+    course_id=$(echo "$create_response" | grep -o '"id":"[^"]*"' | head -1 | cut -d'"' -f4)
+    if [ -z "$course_id" ]; then
+        echo -e "${RED}创建压测课程失败:${NC} $create_response"
+        exit 1
+    fi
+    COURSE_IDS+=("$course_id")
+done
+
+print_info "创建 $STUDENTS 名压测学生..."
+seq "$STUDENTS" | xargs -P 20 -I{} \
+    curl -s -o /dev/null -X POST "$USER_SERVICE/api/users" \
+        -H "Content-Type: application/json" \
+        -d "{\"studentId\": \"V$RUN_ID-{}\", \"name\": \"压测学生{}\", \"major\": \"压测\", \"grade\": 2024, \"email\": \"v$RUN_ID-{}@zjgsu.edu.cn\"}"
+
+stats_before=$(curl -s "$ENROLLMENT_SERVICE/api/enrollments/stats/in-flight")
+if echo "$stats_before" | grep -q '"virtualThreads":true'; then
+    print_info "当前模式: 虚拟线程"
+else
+    print_info "当前模式: 平台线程池"
+fi
+echo ""
+
+# 第 i 名学生选第 i % COURSES 门课
+request_file=$(mktemp)
+for i in $(seq "$STUDENTS"); do
+    echo "$i ${COURSE_IDS[$(( i % COURSES ))]}"
+done > "$request_file"
+
+status_file=$(mktemp)
+print_info "并发选课: $STUDENTS 个请求, 并发 $CONCURRENCY"
+start=$(date +%s.%N)
+xargs -P "$CONCURRENCY" -L 1 sh -c \
+    'curl -s -o /dev/null -w "%{http_code} %{time_total}\n" -X POST "$0/api/enrollments" \
+        -H "Content-Type: application/json" \
+        -d "{\"courseId\": \"$2\", \"studentId\": \"V'"$RUN_ID"'-$1\"}"' \
+    "$ENROLLMENT_SERVICE" < "$request_file" >> "$status_file"
+end=$(date +%s.%N)
+
+sort -k2 -n "$status_file" | awk -v total="$(echo "$end - $start" | bc)" '
+    { t[NR] = $2; codes[$1]++ }
+    END {
+        p50 = t[int(NR * 0.50) > 0 ? int(NR * 0.50) : 1]
+        p99 = t[int(NR * 0.99) > 0 ? int(NR * 0.99) : 1]
+        printf "  耗时 %.2fs  吞吐 %.0f req/s  p50 %.1fms  p99 %.1fms\n", total, NR / total, p50 * 1000, p99 * 1000
+        for (c in codes) printf "  HTTP %s: %d\n", c, codes[c]
+    }'
+rm -f "$status_file" "$request_file"
+echo ""
+
+stats_after=$(curl -s "$ENROLLMENT_SERVICE/api/enrollments/stats/in-flight")
+peak=$(echo "$stats_after" | grep -o '"peakInFlight":[0-9]*' | cut -d: -f2)
+print_info "在途选课请求峰值: ${peak:-未知}"
+if [ -n "$peak" ] && [ "$peak" -gt 200 ]; then
+    echo -e "${GREEN}✓${NC} 在途请求峰值超过 Tomcat 默认线程池上限 (200)"
+else
+    echo -e "${YELLOW}!${NC} 在途请求峰值未超过 200（平台线程池模式下这是预期结果）"
+fi
+
+print_info "压测数据保留在数据库中，可用 scripts/cleanup-test-data.sh 清理"
@@ -0,0 +1,111 @@
+#!/bin/bash
+
+# ============================================================
+# 网关认证白名单匹配压测脚本
+# 以不同规模的白名单（默认 10/50/100/200 条模式）重启 gateway-service，
+# 对不在白名单中的路径发请求（需要遍历全部模式），统计网关每个请求消耗的CPU时间
+#
+# 用法:
+#   ./bench-whitelist.sh [请求数] [并发数] [模式数...]
+#
+# 对比方法:
+#   在改动前后的提交上分别构建 gateway-service 并运行本脚本
+# ============================================================
+
+# 颜色定义
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+CYAN='\033[0;36m'
+NC='\033[0m' # No Color
+
+REQUESTS=${1:-20000}
+CONCURRENCY=${2:-50}
+shift 2 2>/dev/null
+PATTERN_COUNTS=${*:-"10 50 100 200"}
+GATEWAY_URL=${GATEWAY_URL:-"http://localhost:8090"}
+GATEWAY_CONTAINER=${GATEWAY_CONTAINER:-"gateway-service"}
+
+print_separator() {
+    echo -e "${BLUE}============================================================${NC}"
+}
+
+print_title() {
+    print_separator
+    echo -e "${CYAN}$1${NC}"
+    print_separator
+}
+
+print_info() {
+    echo -e "${YELLOW}→${NC} $1"
+}
+
+# 网关进程累计CPU时间（毫秒，用户态+内核态）
+gateway_cpu_ms() {
+    docker exec "$GATEWAY_CONTAINER" sh -c 'cat /proc/1/stat' 2>/dev/null | \
+        awk -v hz="$(getconf CLK_TCK)" '{ printf "%d", ($14 + $15) * 1000 / hz }'
+}
+
+# 生成 n 条白名单模式：保留默认的 3 条，其余为精确路径、单段通配和多段通配的混合
+whitelist_json() {
+    local n=$1
+    local items='"/api/auth/login","/api/auth/register","/actuator/**"'
+    for i in $(seq 4 "$n"); do
+        case $(( i % 3 )) in
+            0) items="$items,\"/public/page$i\"" ;;
+            1) items="$items,\"/static/v$i/*.js\"" ;;
+            2) items="$items,\"/docs/section$i/**\"" ;;
+        esac
+    done
+    echo "{\"auth\":{\"whitelist\":[$items]}}"
+}
+
+wait_for_gateway() {
+    for _ in $(seq 60); do
+        if curl -s -o /dev/null "$GATEWAY_URL/actuator/health"; then
+            return 0
+        fi
+        sleep 2
+    done
+    return 1
+}
+
+print_title "网关白名单匹配压测 ($GATEWAY_URL)"
+
+for count in $PATTERN_COUNTS; do
+    echo ""
+    print_info "白名单模式数: $count, 重启 gateway-service..."
+    GATEWAY_APPLICATION_JSON=$(whitelist_json "$count") \
+        docker compose up -d --force-recreate gateway-service > /dev/null 2>&1
+    if ! wait_for_gateway; then
+        echo -e "${RED}gateway-service 启动超时${NC}"
+        exit 1
+    fi
+
+    TOKEN=$(curl -s -X POST "$GATEWAY_URL/api/auth/login" \
+        -H "Content-Type: application/json" \
+        -d '{"username":"student1","password":"123456"}' | grep -o '"token":"[^"]*"' | cut -d'"' -f4)
+    if [ -z "$TOKEN" ]; then
+        echo -e "${RED}登录失败${NC}"
+        exit 1
+    fi
+
+    # 预热（JIT、连接池）
+    seq 2000 | xargs -P "$CONCURRENCY" -I{} \
+        curl -s -o /dev/null "$GATEWAY_URL/api/courses/port" -H "Authorization: Bearer $TOKEN"
+
+    cpu_before=$(gateway_cpu_ms)
+    start=$(date +%s.%N)
+    seq "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} \
+        curl -s -o /dev/null "$GATEWAY_URL/api/courses/port" -H "Authorization: Bearer $TOKEN"
+    end=$(date +%s.%N)
+    cpu_after=$(gateway_cpu_ms)
+
+    cpu_ms=$(( cpu_after - cpu_before ))
+    echo -e "${GREEN}✓${NC} 模式数 $count: 耗时 $(echo "scale=2; $end - $start" | bc)s, 网关CPU ${cpu_ms}ms, 每请求 $(echo "scale=1; $cpu_ms * 1000 / $REQUESTS" | bc)µs"
+done
+
+echo ""
+print_info "恢复默认白名单..."
+docker compose up -d --force-recreate gateway-service > /dev/null 2>&1
@@ -181,7 +181,7 @@ BODY=$(echo "$RESPONSE" | head -n -1)
 
 if [ "$HTTP_CODE" = "200" ]; then
     print_success "Enrollment Service 可访问"
-    echo "$BODY" | jq 'del(.data[3:])'
+    echo "$BODY" | jq 'del(.data.items[3:])'
 else
     print_error "Enrollment Service 访问失败。状态码: $HTTP_CODE"
     echo "$BODY" | jq .
@@ -154,9 +154,9 @@ fi
 # 3. 测试获取所有用户
 print_title "3. 测试获取所有用户 (GET /api/users)"
 ALL_USERS_RESPONSE=$(curl -s "$USER_SERVICE_URL/api/users")
-echo "$ALL_USERS_RESPONSE" | jq '.data[:3]'  # 显示前3个用户
+echo "$ALL_USERS_RESPONSE" | jq '.data.items[:3]'  # 显示前3个用户
 
-USER_COUNT=$(echo "$ALL_USERS_RESPONSE" | jq '.data | length')
+USER_COUNT=$(echo "$ALL_USERS_RESPONSE" | jq '.data.items | length')
 if [ "$USER_COUNT" -gt 0 ]; then
     print_success "成功获取 $USER_COUNT 个用户"
 else
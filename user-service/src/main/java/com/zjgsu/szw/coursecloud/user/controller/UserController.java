@@ -1,6 +1,7 @@
 package com.zjgsu.szw.coursecloud.user.controller;
 
 import com.zjgsu.szw.coursecloud.user.common.ApiResponse;
+import com.zjgsu.szw.coursecloud.user.dto.CursorPage;
 import com.zjgsu.szw.coursecloud.user.model.User;
 import com.zjgsu.szw.coursecloud.user.service.UserService;
 import org.springframework.beans.factory.annotation.Value;
@@ -25,11 +26,26 @@ public class UserController {
         this.userService = userService;
     }
 
-    @GetMapping
+    /**
+     * 查询所有用户（一次加载全表，需显式 all=true）
+     * GET /api/users?all=true
+     */
+    @GetMapping(params = "all=true")
     public ResponseEntity<ApiResponse<List<User>>> getAllUsers() {
         return ResponseEntity.ok(ApiResponse.success(userService.findAll()));
     }
 
+    /**
+     * 游标分页查询用户，不带参数时返回第一页
+     * GET /api/users?size=50&cursor=...
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<CursorPage<User>>> getUserPage(
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return ResponseEntity.ok(ApiResponse.success(userService.findPage(cursor, size)));
+    }
+
     @GetMapping("/{idOrStudentId}")
     public ResponseEntity<ApiResponse<User>> getUser(@PathVariable String idOrStudentId) {
         return userService.findByIdOrStudentId(idOrStudentId)
@@ -46,6 +62,11 @@ public class UserController {
                         .body(ApiResponse.notFound("User not found with studentId: " + studentId)));
     }
 
+    @PostMapping("/lookup")
+    public ResponseEntity<ApiResponse<List<User>>> getUsersByStudentIds(@RequestBody List<String> studentIds) {
+        return ResponseEntity.ok(ApiResponse.success(userService.findByStudentIds(studentIds)));
+    }
+
     @PostMapping
     public ResponseEntity<ApiResponse<User>> createUser(@RequestBody User user) {
         User created = userService.createUser(user);
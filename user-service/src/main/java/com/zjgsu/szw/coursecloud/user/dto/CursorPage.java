@@ -0,0 +1,106 @@
+package com.zjgsu.szw.coursecloud.user.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果
+ * 按主键升序翻页（WHERE id > ? ORDER BY id LIMIT n，走主键索引定位，不使用 OFFSET），
+ * nextCursor 是不透明的游标，原样带到下一次请求即可；没有下一页时 hasMore=false、nextCursor 为空
+ */
+public class CursorPage<T> {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 500;
+
+    private List<T> items;
+    private int size;
+    private boolean hasMore;
+    private String nextCursor;
+
+    public CursorPage() {
+    }
+
+    public CursorPage(List<T> items, int size, boolean hasMore, String nextCursor) {
+        this.items = items;
+        this.size = size;
+        this.hasMore = hasMore;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * 规范化每页条数：未指定时取默认值，超过上限时截断到上限
+     */
+    public static int normalizeSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_SIZE;
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than 0");
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    /**
+     * 解析游标，得到上一页最后一条记录的主键；首页（游标为空）返回空字符串，小于任何主键
+     */
+    public static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return "";
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * 由多查一条的结果构造分页：rows 最多 size+1 条，多出的一条只用于判断是否还有下一页
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> keyExtractor) {
+        boolean hasMore = rows.size() > size;
+        List<T> items = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            String lastKey = keyExtractor.apply(items.get(items.size() - 1));
+            nextCursor = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(lastKey.getBytes(StandardCharsets.UTF_8));
+        }
+        return new CursorPage<>(items, items.size(), hasMore, nextCursor);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
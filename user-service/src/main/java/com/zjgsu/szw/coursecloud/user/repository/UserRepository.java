@@ -1,9 +1,11 @@
 package com.zjgsu.szw.coursecloud.user.repository;
 
 import com.zjgsu.szw.coursecloud.user.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +14,13 @@ public interface UserRepository extends JpaRepository<User, String> {
 
     Optional<User> findByStudentId(String studentId);
 
+    /**
+     * 按主键游标翻页：查询主键大于 afterId 的用户（主键索引定位，不使用 OFFSET）
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(String afterId, Limit limit);
+
+    List<User> findByStudentIdIn(Collection<String> studentIds);
+
     Optional<User> findByEmail(String email);
 
     boolean existsByStudentId(String studentId);
@@ -1,11 +1,14 @@
 package com.zjgsu.szw.coursecloud.user.service;
 
+import com.zjgsu.szw.coursecloud.user.dto.CursorPage;
 import com.zjgsu.szw.coursecloud.user.exception.ResourceNotFoundException;
 import com.zjgsu.szw.coursecloud.user.model.User;
 import com.zjgsu.szw.coursecloud.user.repository.UserRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,10 +29,30 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    /**
+     * 按主键游标分页查询用户
+     */
+    public CursorPage<User> findPage(String cursor, Integer size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        List<User> rows = userRepository.findByIdGreaterThanOrderByIdAsc(
+                CursorPage.decodeCursor(cursor), Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, User::getId);
+    }
+
     public Optional<User> findByStudentId(String studentId) {
         return userRepository.findByStudentId(studentId);
     }
 
+    /**
+     * 按学号批量查询（供批量选课一次性校验学生），不存在或已删除的学号不会出现在结果中
+     */
+    public List<User> findByStudentIds(Collection<String> studentIds) {
+        if (studentIds == null || studentIds.isEmpty()) {
+            return List.of();
+        }
+        return userRepository.findByStudentIdIn(studentIds);
+    }
+
     public Optional<User> findByIdOrStudentId(String idOrStudentId) {
         Optional<User> byStudentId = userRepository.findByStudentId(idOrStudentId);
         if (byStudentId.isPresent()) {